@@ -0,0 +1,65 @@
+package graph.bench;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compare two JMH JSON result files and fail on regressions.
+ * Usage: CompareResults baseline.json current.json [maxSlowdownPercent=10]
+ * Benchmarks are matched by name and parameters; exit code 1 if any score
+ * (average time, lower is better) grew by more than the allowed percentage.
+ */
+public class CompareResults {
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: CompareResults baseline.json current.json [maxSlowdownPercent]");
+            System.exit(2);
+        }
+        double limit = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+        Map<String, Double> baseline = load(args[0]);
+        Map<String, Double> current = load(args[1]);
+        
+        int regressions = 0;
+        for (Map.Entry<String, Double> e : current.entrySet()) {
+            Double before = baseline.get(e.getKey());
+            if (before == null || before == 0) {
+                System.out.printf("  new   %s: %.3f%n", e.getKey(), e.getValue());
+                continue;
+            }
+            double change = (e.getValue() - before) / before * 100;
+            boolean regressed = change > limit;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%s %s: %.3f -> %.3f (%+.1f%%)%n", regressed ? "  SLOWER" : "  ok    ",
+                              e.getKey(), before, e.getValue(), change);
+        }
+        System.out.println(regressions + " regression(s) above " + limit + "%");
+        System.exit(regressions == 0 ? 0 : 1);
+    }
+    
+    private static Map<String, Double> load(String file) throws IOException {
+        Map<String, Double> scores = new TreeMap<>();
+        try (Reader reader = Files.newBufferedReader(Paths.get(file))) {
+            JsonArray runs = JsonParser.parseReader(reader).getAsJsonArray();
+            for (JsonElement element : runs) {
+                JsonObject run = element.getAsJsonObject();
+                StringBuilder key = new StringBuilder(run.get("benchmark").getAsString());
+                if (run.has("params")) {
+                    new TreeMap<>(run.getAsJsonObject("params").asMap())
+                        .forEach((k, v) -> key.append(' ').append(k).append('=').append(v.getAsString()));
+                }
+                scores.put(key.toString(), run.getAsJsonObject("primaryMetric").get("score").getAsDouble());
+            }
+        }
+        return scores;
+    }
+}
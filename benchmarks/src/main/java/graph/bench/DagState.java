@@ -0,0 +1,33 @@
+package graph.bench;
+
+import graph.dagsp.PreparedDAG;
+import graph.model.CsrGraph;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Acyclic synthetic graph (WIDE or DEEP) plus its prepared topological order.
+ */
+@State(Scope.Benchmark)
+public class DagState {
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int vertices;
+    
+    @Param({"2", "8"})
+    public int degree;
+    
+    @Param({"WIDE", "DEEP"})
+    public SyntheticGraphs.Shape shape;
+    
+    public CsrGraph graph;
+    public PreparedDAG prepared;
+    
+    @Setup(Level.Trial)
+    public void generate() {
+        graph = SyntheticGraphs.generate(shape, vertices, degree, GraphState.SEED);
+        prepared = new PreparedDAG(graph);
+    }
+}
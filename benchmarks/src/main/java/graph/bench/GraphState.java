@@ -0,0 +1,34 @@
+package graph.bench;
+
+import graph.model.CsrGraph;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Synthetic graph shared by all benchmark threads of a trial.
+ * Sizes and densities are JMH parameters; narrow them with e.g.
+ * -p vertices=1000,100000 for a quick run.
+ */
+@State(Scope.Benchmark)
+public class GraphState {
+    static final long SEED = 42;
+    
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int vertices;
+    
+    @Param({"2", "8"})
+    public int degree;
+    
+    @Param({"WIDE", "DEEP", "CYCLIC"})
+    public SyntheticGraphs.Shape shape;
+    
+    public CsrGraph graph;
+    
+    @Setup(Level.Trial)
+    public void generate() {
+        graph = SyntheticGraphs.generate(shape, vertices, degree, SEED);
+    }
+}
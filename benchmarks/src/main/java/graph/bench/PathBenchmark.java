@@ -0,0 +1,44 @@
+package graph.bench;
+
+import graph.dagsp.DAGShortestPath;
+import graph.metrics.Metrics;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * shortestPaths and criticalPath, cold (topological order computed per call)
+ * and against a PreparedDAG (relaxation pass only).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx12g"})
+public class PathBenchmark {
+    
+    @Benchmark
+    public long[] shortestPaths(DagState state) {
+        return new DAGShortestPath(state.graph, Metrics.NOOP).shortestPathsLong(0);
+    }
+    
+    @Benchmark
+    public long[] shortestPathsPrepared(DagState state) {
+        return new DAGShortestPath(state.prepared, Metrics.NOOP).shortestPathsLong(0);
+    }
+    
+    @Benchmark
+    public DAGShortestPath.LongPathResult criticalPath(DagState state) {
+        return new DAGShortestPath(state.graph, Metrics.NOOP).criticalPathLong();
+    }
+    
+    @Benchmark
+    public DAGShortestPath.LongPathResult criticalPathPrepared(DagState state) {
+        return new DAGShortestPath(state.prepared, Metrics.NOOP).criticalPathLong();
+    }
+}
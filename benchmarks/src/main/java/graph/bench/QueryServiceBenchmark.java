@@ -0,0 +1,104 @@
+package graph.bench;
+
+import graph.dagsp.DAGShortestPath;
+import graph.metrics.Metrics;
+import graph.model.CsrGraph;
+import graph.service.QueryService;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Multi-threaded load on QueryService. SampleTime mode reports per-call latency
+ * percentiles (p50/p99/p99.9) and the sample count gives throughput.
+ * Read-only benchmarks run 8 reader threads on one snapshot; the "mixed"
+ * group runs 7 readers while one writer keeps publishing alternate versions,
+ * so readers also pay for the first (memoized) plan of each new snapshot.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx12g"})
+public class QueryServiceBenchmark {
+    
+    @State(Scope.Benchmark)
+    public static class ServiceState {
+        @Param({"100000", "1000000"})
+        public int vertices;
+        
+        @Param({"4"})
+        public int degree;
+        
+        @Param({"WIDE", "DEEP"})
+        public SyntheticGraphs.Shape shape;
+        
+        public CsrGraph[] versions;
+        public QueryService service;
+        
+        @Setup(Level.Trial)
+        public void generate() {
+            versions = new CsrGraph[] {
+                SyntheticGraphs.generate(shape, vertices, degree, GraphState.SEED),
+                SyntheticGraphs.generate(shape, vertices, degree, GraphState.SEED + 1)
+            };
+            service = new QueryService(versions[0], Metrics.NOOP);
+            service.snapshot().prepared();
+        }
+    }
+    
+    @State(Scope.Thread)
+    public static class Targets {
+        private final SplittableRandom random = new SplittableRandom(GraphState.SEED);
+        
+        int next(int n) {
+            return random.nextInt(n);
+        }
+    }
+    
+    @Benchmark
+    @Threads(8)
+    public long shortestDistance(ServiceState state, Targets targets) {
+        return state.service.shortestDistance(0, targets.next(state.vertices));
+    }
+    
+    @Benchmark
+    @Threads(8)
+    public DAGShortestPath.LongPathResult criticalPath(ServiceState state) {
+        return state.service.criticalPath();
+    }
+    
+    @Benchmark
+    @Threads(8)
+    public int components(ServiceState state) {
+        return state.service.components().getComponentCount();
+    }
+    
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(7)
+    public long mixedShortestDistance(ServiceState state, Targets targets) {
+        return state.service.shortestDistance(0, targets.next(state.vertices));
+    }
+    
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public QueryService.Snapshot mixedPublish(ServiceState state) {
+        return state.service.publish(state.versions[(int) (state.service.getVersion() & 1)]);
+    }
+}
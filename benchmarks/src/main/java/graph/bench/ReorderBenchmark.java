@@ -0,0 +1,98 @@
+package graph.bench;
+
+import graph.metrics.Metrics;
+import graph.model.CsrGraph;
+import graph.model.ReorderedGraph;
+import graph.scc.SCCResult;
+import graph.scc.TarjanSCC;
+import graph.topo.TopologicalSort;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * TarjanSCC and sortKahn on graphs whose ids were randomly shuffled (like
+ * asset numbers), either as-is (NONE) or after ReorderedGraph relabelling.
+ * Results are translated back to original ids inside the measured call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx12g"})
+public class ReorderBenchmark {
+    
+    @State(Scope.Benchmark)
+    public static class ShuffledState {
+        @Param({"1000000", "10000000"})
+        public int vertices;
+        
+        @Param({"4"})
+        public int degree;
+        
+        @Param({"WIDE", "DEEP"})
+        public SyntheticGraphs.Shape shape;
+        
+        @Param({"NONE", "BFS", "RCM", "TOPOLOGICAL"})
+        public String ordering;
+        
+        public CsrGraph shuffled;
+        public ReorderedGraph reordered;
+        
+        @Setup(Level.Trial)
+        public void generate() {
+            CsrGraph graph = SyntheticGraphs.generate(shape, vertices, degree, GraphState.SEED);
+            int[] order = new int[vertices];
+            for (int v = 0; v < vertices; v++) {
+                order[v] = v;
+            }
+            SplittableRandom random = new SplittableRandom(GraphState.SEED);
+            for (int i = vertices - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int t = order[i];
+                order[i] = order[j];
+                order[j] = t;
+            }
+            shuffled = ReorderedGraph.of(graph, order).getGraph();
+            reordered = "NONE".equals(ordering)
+                ? null
+                : ReorderedGraph.of(shuffled, ReorderedGraph.Strategy.valueOf(ordering));
+        }
+    }
+    
+    @Benchmark
+    public SCCResult tarjan(ShuffledState state) {
+        return state.reordered == null
+            ? new TarjanSCC(state.shuffled, Metrics.NOOP).decompose()
+            : new TarjanSCC(state.reordered, Metrics.NOOP).decompose();
+    }
+    
+    @Benchmark
+    public List<Integer> sortKahn(ShuffledState state) {
+        return state.reordered == null
+            ? new TopologicalSort(state.shuffled, Metrics.NOOP).sortKahn()
+            : new TopologicalSort(state.reordered, Metrics.NOOP).sortKahn();
+    }
+    
+    /**
+     * One-off cost of relabelling, to weigh against the per-run savings.
+     */
+    @Benchmark
+    public ReorderedGraph reorder(ShuffledState state) {
+        return state.reordered == null
+            ? null
+            : ReorderedGraph.of(state.shuffled, state.reordered.getStrategy());
+    }
+}
@@ -0,0 +1,39 @@
+package graph.bench;
+
+import graph.metrics.Metrics;
+import graph.scc.CondensationGraph;
+import graph.scc.SCCResult;
+import graph.scc.TarjanSCC;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * TarjanSCC and CondensationGraph on WIDE, DEEP and CYCLIC graphs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx12g"})
+public class SccBenchmark {
+    
+    @Benchmark
+    public SCCResult tarjan(GraphState state) {
+        return new TarjanSCC(state.graph, Metrics.NOOP).decompose();
+    }
+    
+    /**
+     * Decomposition plus condensation, as the scheduler runs them.
+     */
+    @Benchmark
+    public CondensationGraph condensation(GraphState state) {
+        SCCResult sccs = new TarjanSCC(state.graph, Metrics.NOOP).decompose();
+        return new CondensationGraph(state.graph, sccs);
+    }
+}
@@ -0,0 +1,81 @@
+package graph.bench;
+
+import graph.model.CsrGraph;
+import graph.model.GraphView;
+import java.util.SplittableRandom;
+
+/**
+ * Seeded synthetic graphs for the benchmarks, written straight into CSR arrays
+ * (no builder buffers) so 10M-vertex instances fit in a modest heap.
+ * Every vertex gets `degree` out-edges whenever it has any candidate targets.
+ */
+public final class SyntheticGraphs {
+    /** Size of the cycles planted by CYCLIC. */
+    static final int CYCLE_BLOCK = 16;
+    /** Forward window of DEEP edges. */
+    static final int DEEP_WINDOW = 8;
+    static final int MAX_WEIGHT = 100;
+    
+    public enum Shape {
+        /** About sqrt(n) layers of sqrt(n) vertices; edges go to the next layer. DAG. */
+        WIDE,
+        /** A Hamiltonian chain plus short forward edges; depth n - 1. DAG. */
+        DEEP,
+        /** WIDE plus a ring through every block of 16 consecutive vertices. */
+        CYCLIC
+    }
+    
+    private SyntheticGraphs() {
+    }
+    
+    public static CsrGraph generate(Shape shape, int n, int degree, long seed) {
+        int width = (int) Math.max(1, Math.ceil(Math.sqrt(n)));
+        int[] offsets = new int[n + 1];
+        for (int u = 0; u < n; u++) {
+            offsets[u + 1] = offsets[u] + outDegree(shape, n, degree, width, u);
+        }
+        int m = offsets[n];
+        int[] targets = new int[m];
+        int[] weights = new int[m];
+        SplittableRandom random = new SplittableRandom(seed);
+        
+        for (int u = 0; u < n; u++) {
+            int e = offsets[u];
+            int end = offsets[u + 1];
+            if (e == end) {
+                continue;
+            }
+            if (shape == Shape.DEEP) {
+                targets[e++] = u + 1;
+            } else if (shape == Shape.CYCLIC) {
+                int blockStart = u - u % CYCLE_BLOCK;
+                targets[e++] = (u + 1 == n || u + 1 == blockStart + CYCLE_BLOCK) ? blockStart : u + 1;
+            }
+            int lo = windowStart(shape, width, u);
+            int hi = windowEnd(shape, n, width, u);
+            for (; e < end; e++) {
+                targets[e] = lo < hi ? random.nextInt(lo, hi) : targets[offsets[u]];
+            }
+            for (e = offsets[u]; e < end; e++) {
+                weights[e] = 1 + random.nextInt(MAX_WEIGHT);
+            }
+        }
+        return CsrGraph.fromForward(n, GraphView.EDGE_WEIGHTS, offsets, targets, weights);
+    }
+    
+    private static int outDegree(Shape shape, int n, int degree, int width, int u) {
+        if (shape == Shape.CYCLIC) {
+            return n == 1 ? 0 : degree;
+        }
+        return windowStart(shape, width, u) < windowEnd(shape, n, width, u) ? degree : 0;
+    }
+    
+    private static int windowStart(Shape shape, int width, int u) {
+        return shape == Shape.DEEP ? u + 1 : (u / width + 1) * width;
+    }
+    
+    private static int windowEnd(Shape shape, int n, int width, int u) {
+        long end = shape == Shape.DEEP ? (long) u + 1 + DEEP_WINDOW : (long) (u / width + 2) * width;
+        return (int) Math.min(n, end);
+    }
+}
@@ -0,0 +1,35 @@
+package graph.bench;
+
+import graph.metrics.Metrics;
+import graph.topo.TopologicalSort;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * sortDFS versus sortKahn. sortDFS recurses once per vertex on a path,
+ * so the fork gets a large thread stack for DEEP graphs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx12g", "-Xss2g"})
+public class TopoBenchmark {
+    
+    @Benchmark
+    public List<Integer> sortDFS(DagState state) {
+        return new TopologicalSort(state.graph, Metrics.NOOP).sortDFS();
+    }
+    
+    @Benchmark
+    public List<Integer> sortKahn(DagState state) {
+        return new TopologicalSort(state.graph, Metrics.NOOP).sortKahn();
+    }
+}
@@ -1,126 +1,318 @@
 package graph.dagsp;
 
-import graph.model.Graph;
-import graph.model.Graph.Edge;
+import graph.model.GraphView;
 import graph.metrics.Metrics;
-import graph.topo.TopologicalSort;
 import java.util.*;
 
 /**
  * Shortest and longest paths in DAGs.
- * Time: O(V + E)
+ * The topological order and source set come from a cached PreparedDAG,
+ * rebuilt only when the graph's modification count changes.
+ * Path costs honour the graph's weight model: "edge" sums edge weights,
+ * "node" sums the durations of every vertex on the path (both ends included).
+ * Sums are accumulated in long; each model has its own primitive relax loop.
+ * Time: O(V + E) for the first query per graph version, then one relaxation pass.
  */
 public class DAGShortestPath {
-    private final Graph graph;
+    private final GraphView graph;
     private final Metrics metrics;
+    private PreparedDAG prepared;
     private static final int INF = Integer.MAX_VALUE / 2;
+    /** Distance reported by the long API for unreachable vertices. */
+    public static final long UNREACHABLE = Long.MAX_VALUE;
+    private static final long NO_PATH = Long.MIN_VALUE;
     
-    public DAGShortestPath(Graph graph, Metrics metrics) {
+    public DAGShortestPath(GraphView graph, Metrics metrics) {
         this.graph = graph;
         this.metrics = metrics;
     }
     
+    public DAGShortestPath(PreparedDAG prepared, Metrics metrics) {
+        this(prepared.getGraph(), metrics);
+        this.prepared = prepared;
+    }
+    
+    /**
+     * Query plan for the current graph version, recomputed if the graph changed.
+     */
+    public PreparedDAG prepare() {
+        if (prepared == null) {
+            prepared = new PreparedDAG(graph);
+        } else {
+            prepared = prepared.refresh();
+        }
+        return prepared;
+    }
+    
+    private boolean nodeWeighted() {
+        return GraphView.NODE_WEIGHTS.equals(graph.getWeightModel());
+    }
+    
     /**
      * Compute shortest paths from source.
+     * Unreachable vertices get Integer.MAX_VALUE / 2. That value is reserved, so
+     * a finite distance at or beyond +/- Integer.MAX_VALUE / 2 throws
+     * ArithmeticException, as in MultiSourceShortestPath (use shortestPathsLong).
      */
     public int[] shortestPaths(int source) {
+        long[] dist = shortestPathsLong(source);
+        int[] result = new int[dist.length];
+        for (int v = 0; v < dist.length; v++) {
+            long d = dist[v];
+            if (d == UNREACHABLE) {
+                result[v] = INF;
+            } else if (d >= INF || d <= -INF) {
+                throw new ArithmeticException("Distance " + d + " from " + source + " to " + v
+                    + " does not fit the int result");
+            } else {
+                result[v] = (int) d;
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Compute shortest paths from source with long distances.
+     * Unreachable vertices get UNREACHABLE.
+     */
+    public long[] shortestPathsLong(int source) {
+        return shortestPathsLong(source, new long[graph.getVertexCount()]);
+    }
+    
+    /**
+     * shortestPathsLong into a caller buffer of at least n entries, so callers
+     * can reuse it across queries. Entries past n are left untouched.
+     */
+    public long[] shortestPathsLong(int source, long[] dist) {
         metrics.startTimer();
-        
-        int n = graph.getVertexCount();
-        int[] dist = new int[n];
-        Arrays.fill(dist, INF);
-        dist[source] = 0;
-        
-        // Get topological order
-        TopologicalSort topo = new TopologicalSort(graph, new Metrics());
-        List<Integer> order = topo.sortDFS();
-        
-        if (order.isEmpty()) {
-            throw new IllegalStateException("Graph has cycles!");
+        try {
+            int n = graph.getVertexCount();
+            Arrays.fill(dist, 0, n, UNREACHABLE);
+            int[] order = prepare().getOrder();
+            
+            long relaxations;
+            if (nodeWeighted()) {
+                dist[source] = graph.getNodeWeight(source);
+                relaxations = relaxMinNode(order, dist);
+            } else {
+                dist[source] = 0;
+                relaxations = relaxMinEdge(order, dist);
+            }
+            
+            metrics.add("relaxations", relaxations);
+            return dist;
+        } finally {
+            metrics.stopTimer();
         }
-        
-        // Relax edges in topological order
+    }
+    
+    private long relaxMinEdge(int[] order, long[] dist) {
+        long relaxations = 0;
         for (int u : order) {
-            if (dist[u] != INF) {
-                for (Edge edge : graph.getNeighbors(u)) {
-                    metrics.increment("relaxations");
-                    if (dist[u] + edge.weight < dist[edge.to]) {
-                        dist[edge.to] = dist[u] + edge.weight;
-                    }
+            long du = dist[u];
+            if (du == UNREACHABLE) {
+                continue;
+            }
+            int degree = graph.getOutDegree(u);
+            for (int i = 0; i < degree; i++) {
+                int v = graph.getTarget(u, i);
+                long candidate = du + graph.getWeight(u, i);
+                if (candidate < dist[v]) {
+                    dist[v] = candidate;
                 }
             }
+            relaxations += degree;
         }
-        
-        metrics.stopTimer();
-        return dist;
+        return relaxations;
+    }
+    
+    private long relaxMinNode(int[] order, long[] dist) {
+        long relaxations = 0;
+        for (int u : order) {
+            long du = dist[u];
+            if (du == UNREACHABLE) {
+                continue;
+            }
+            int degree = graph.getOutDegree(u);
+            for (int i = 0; i < degree; i++) {
+                int v = graph.getTarget(u, i);
+                long candidate = du + graph.getNodeWeight(v);
+                if (candidate < dist[v]) {
+                    dist[v] = candidate;
+                }
+            }
+            relaxations += degree;
+        }
+        return relaxations;
     }
     
     /**
      * Compute longest paths (critical path).
+     * Throws ArithmeticException if the length does not fit in an int (use criticalPathLong).
      */
     public PathResult criticalPath() {
-        metrics.startTimer();
-        
+        LongPathResult result = criticalPathLong();
+        return new PathResult(result.path, Math.toIntExact(result.pathLength));
+    }
+    
+    /**
+     * Compute the critical (longest source-to-any) path with a long length.
+     * In the "node" model this is the total duration of the longest task chain.
+     */
+    public LongPathResult criticalPathLong() {
         int n = graph.getVertexCount();
-        int[] dist = new int[n];
-        int[] parent = new int[n];
-        Arrays.fill(dist, -INF);
-        Arrays.fill(parent, -1);
-        
-        // Find sources (in-degree 0)
-        int[] inDegree = new int[n];
-        for (int u = 0; u < n; u++) {
-            for (Edge edge : graph.getNeighbors(u)) {
-                inDegree[edge.to]++;
+        return criticalPathLong(new long[n], new int[n]);
+    }
+    
+    /**
+     * criticalPathLong using caller scratch buffers of at least n entries.
+     */
+    public LongPathResult criticalPathLong(long[] dist, int[] parent) {
+        metrics.startTimer();
+        try {
+            int n = graph.getVertexCount();
+            Arrays.fill(dist, 0, n, NO_PATH);
+            Arrays.fill(parent, 0, n, -1);
+            
+            PreparedDAG plan = prepare();
+            boolean nodeWeighted = nodeWeighted();
+            for (int v : plan.getSources()) {
+                dist[v] = nodeWeighted ? graph.getNodeWeight(v) : 0;
             }
-        }
-        
-        for (int v = 0; v < n; v++) {
-            if (inDegree[v] == 0) {
-                dist[v] = 0;
+            
+            long relaxations = nodeWeighted
+                ? relaxMaxNode(plan.getOrder(), dist, parent)
+                : relaxMaxEdge(plan.getOrder(), dist, parent);
+            
+            // Find longest path
+            long maxDist = NO_PATH;
+            int endVertex = -1;
+            for (int v = 0; v < n; v++) {
+                if (dist[v] > maxDist) {
+                    maxDist = dist[v];
+                    endVertex = v;
+                }
+            }
+            
+            // Reconstruct path
+            List<Integer> path = new ArrayList<>();
+            if (endVertex != -1) {
+                int curr = endVertex;
+                while (curr != -1) {
+                    path.add(curr);
+                    curr = parent[curr];
+                }
+                Collections.reverse(path);
             }
+            
+            metrics.add("relaxations", relaxations);
+            return new LongPathResult(path, maxDist == NO_PATH ? 0 : maxDist);
+        } finally {
+            metrics.stopTimer();
         }
-        
-        // Get topological order
-        TopologicalSort topo = new TopologicalSort(graph, new Metrics());
-        List<Integer> order = topo.sortDFS();
-        
-        // Maximize distances
+    }
+    
+    private long relaxMaxEdge(int[] order, long[] dist, int[] parent) {
+        long relaxations = 0;
         for (int u : order) {
-            if (dist[u] != -INF) {
-                for (Edge edge : graph.getNeighbors(u)) {
-                    metrics.increment("relaxations");
-                    if (dist[u] + edge.weight > dist[edge.to]) {
-                        dist[edge.to] = dist[u] + edge.weight;
-                        parent[edge.to] = u;
-                    }
+            long du = dist[u];
+            if (du == NO_PATH) {
+                continue;
+            }
+            int degree = graph.getOutDegree(u);
+            for (int i = 0; i < degree; i++) {
+                int v = graph.getTarget(u, i);
+                long candidate = du + graph.getWeight(u, i);
+                if (candidate > dist[v]) {
+                    dist[v] = candidate;
+                    parent[v] = u;
                 }
             }
+            relaxations += degree;
         }
-        
-        // Find longest path
-        int maxDist = -INF;
-        int endVertex = -1;
-        for (int v = 0; v < n; v++) {
-            if (dist[v] > maxDist && dist[v] != -INF) {
-                maxDist = dist[v];
-                endVertex = v;
+        return relaxations;
+    }
+    
+    private long relaxMaxNode(int[] order, long[] dist, int[] parent) {
+        long relaxations = 0;
+        for (int u : order) {
+            long du = dist[u];
+            if (du == NO_PATH) {
+                continue;
+            }
+            int degree = graph.getOutDegree(u);
+            for (int i = 0; i < degree; i++) {
+                int v = graph.getTarget(u, i);
+                long candidate = du + graph.getNodeWeight(v);
+                if (candidate > dist[v]) {
+                    dist[v] = candidate;
+                    parent[v] = u;
+                }
             }
+            relaxations += degree;
         }
-        
-        // Reconstruct path
-        List<Integer> path = new ArrayList<>();
-        if (endVertex != -1) {
-            int curr = endVertex;
-            while (curr != -1) {
-                path.add(curr);
-                curr = parent[curr];
+        return relaxations;
+    }
+    
+    /**
+     * Longest path from every vertex to any sink (its "bottom level"), the usual
+     * list-scheduling priority. In the "node" model the vertex's own duration is
+     * included; in the "edge" model a sink has length 0. Only sinks end paths, so
+     * with negative lags a non-sink's level may be negative.
+     */
+    public long[] longestPathsToSinks() {
+        metrics.startTimer();
+        try {
+            int n = graph.getVertexCount();
+            long[] level = new long[n];
+            int[] order = prepare().getOrder();
+            boolean nodeWeighted = nodeWeighted();
+            long relaxations = 0;
+            
+            for (int k = n - 1; k >= 0; k--) {
+                int u = order[k];
+                int degree = graph.getOutDegree(u);
+                long best = degree == 0 ? 0 : Long.MIN_VALUE;
+                for (int i = 0; i < degree; i++) {
+                    int v = graph.getTarget(u, i);
+                    long candidate = nodeWeighted ? level[v] : level[v] + graph.getWeight(u, i);
+                    if (candidate > best) {
+                        best = candidate;
+                    }
+                }
+                level[u] = nodeWeighted ? best + graph.getNodeWeight(u) : best;
+                relaxations += degree;
             }
-            Collections.reverse(path);
+            
+            metrics.add("relaxations", relaxations);
+            return level;
+        } finally {
+            metrics.stopTimer();
         }
-        
-        metrics.stopTimer();
-        return new PathResult(path, maxDist == -INF ? 0 : maxDist);
+    }
+    
+    /**
+     * Source-to-sink paths in non-increasing length order, starting with the
+     * critical path. Paths are computed one at a time as the iterator advances.
+     */
+    public Iterator<LongPathResult> longestPaths() {
+        long[] toSink = longestPathsToSinks();
+        return new KLongestPaths(prepare(), toSink, metrics);
+    }
+    
+    /**
+     * The k longest source-to-sink paths (fewer if the DAG has fewer paths).
+     */
+    public List<LongPathResult> longestPaths(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must be non-negative: " + k);
+        }
+        List<LongPathResult> paths = new ArrayList<>();
+        Iterator<LongPathResult> it = longestPaths();
+        while (paths.size() < k && it.hasNext()) {
+            paths.add(it.next());
+        }
+        return paths;
     }
     
     public static class PathResult {
@@ -137,4 +329,22 @@ public class DAGShortestPath {
             return "Path: " + path + ", Length: " + pathLength;
         }
     }
+    
+    /**
+     * Path with a long length, for long-horizon schedules.
+     */
+    public static class LongPathResult {
+        public final List<Integer> path;
+        public final long pathLength;
+        
+        public LongPathResult(List<Integer> path, long pathLength) {
+            this.path = path;
+            this.pathLength = pathLength;
+        }
+        
+        @Override
+        public String toString() {
+            return "Path: " + path + ", Length: " + pathLength;
+        }
+    }
 }
@@ -0,0 +1,284 @@
+package graph.dagsp;
+
+import graph.dagsp.DAGShortestPath.LongPathResult;
+import graph.metrics.Metrics;
+import graph.model.GraphView;
+import graph.util.IntList;
+import graph.util.IntPriorityQueue;
+import java.util.*;
+
+/**
+ * Lazy enumeration of source-to-sink paths in non-increasing length order
+ * (the critical path first, then the near-critical chains). Every path ends at
+ * a sink, also when negative lags make a shorter prefix longer.
+ * Eppstein's construction specialised to DAGs: bottom levels h(v) define a
+ * longest-path tree towards the sinks, every other edge is a "sidetrack" that
+ * loses delta = h(u) - (cost(u, v) + h(v)), and a path is the sequence of its
+ * sidetracks. A virtual root has one sidetrack per source. Sidetracks on the
+ * tree path from v live in a persistent leftist heap H(v) that shares structure
+ * with H(next(v)); both are built only for vertices a returned path touches.
+ * Time: O(V + E) for bottom levels, then O(log K + path length) per path.
+ * Throws ConcurrentModificationException if the graph changes while iterating.
+ */
+public class KLongestPaths implements Iterator<LongPathResult> {
+    private static final int NONE = -1;
+    private static final int UNKNOWN = -2;
+    private static final int ROOT = -1;
+    
+    private final GraphView graph;
+    private final Metrics metrics;
+    private final long version;
+    private final boolean nodeWeighted;
+    private final long[] toSink;
+    private final int[] sources;
+    private final int[] treeNext;
+    private final int[] heapOf;
+    private long best;
+    private int rootNext = NONE;
+    private int rootHeap = UNKNOWN;
+    
+    // Persistent leftist heap nodes: one sidetrack edge each, NONE for null
+    private long[] delta = new long[16];
+    private int[] from = new int[16];
+    private int[] to = new int[16];
+    private int[] left = new int[16];
+    private int[] right = new int[16];
+    private int[] rank = new int[16];
+    private int nodes;
+    
+    // Candidates: a heap node plus the candidate whose sidetracks precede it
+    private final IntPriorityQueue queue = new IntPriorityQueue();
+    private long[] candDelta = new long[16];
+    private int[] candNode = new int[16];
+    private int[] candPrev = new int[16];
+    private int candidates;
+    private boolean firstPending;
+    
+    KLongestPaths(PreparedDAG plan, long[] toSink, Metrics metrics) {
+        this.graph = plan.getGraph();
+        this.metrics = metrics;
+        this.version = plan.getVersion();
+        this.nodeWeighted = GraphView.NODE_WEIGHTS.equals(graph.getWeightModel());
+        this.toSink = toSink;
+        this.sources = plan.getSources();
+        int n = graph.getVertexCount();
+        this.treeNext = new int[n];
+        this.heapOf = new int[n];
+        Arrays.fill(treeNext, UNKNOWN);
+        Arrays.fill(heapOf, UNKNOWN);
+        
+        best = Long.MIN_VALUE;
+        for (int s : sources) {
+            if (toSink[s] > best) {
+                best = toSink[s];
+                rootNext = s;
+            }
+        }
+        firstPending = rootNext != NONE;
+    }
+    
+    @Override
+    public boolean hasNext() {
+        return firstPending || !queue.isEmpty();
+    }
+    
+    @Override
+    public LongPathResult next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        if (graph.getModificationCount() != version) {
+            throw new ConcurrentModificationException("Graph changed during path enumeration");
+        }
+        metrics.increment("paths_enumerated");
+        if (firstPending) {
+            firstPending = false;
+            int h = rootHeap();
+            if (h != NONE) {
+                push(delta[h], h, NONE);
+            }
+            return buildPath(NONE, 0);
+        }
+        
+        int c = queue.poll();
+        int node = candNode[c];
+        long d = candDelta[c];
+        int prev = candPrev[c];
+        // Same prefix, next-best sidetrack in place of this one
+        if (left[node] != NONE) {
+            push(d - delta[node] + delta[left[node]], left[node], prev);
+        }
+        if (right[node] != NONE) {
+            push(d - delta[node] + delta[right[node]], right[node], prev);
+        }
+        // Keep this sidetrack and add the best one after it
+        int h = heap(to[node]);
+        if (h != NONE) {
+            push(d + delta[h], h, c);
+        }
+        return buildPath(c, d);
+    }
+    
+    private void push(long d, int node, int prev) {
+        if (candidates == candNode.length) {
+            int capacity = candidates * 2;
+            candDelta = Arrays.copyOf(candDelta, capacity);
+            candNode = Arrays.copyOf(candNode, capacity);
+            candPrev = Arrays.copyOf(candPrev, capacity);
+        }
+        candDelta[candidates] = d;
+        candNode[candidates] = node;
+        candPrev[candidates] = prev;
+        queue.add(candidates, d);
+        candidates++;
+    }
+    
+    // Follow the tree from the root, leaving it at each sidetrack of the candidate chain
+    private LongPathResult buildPath(int candidate, long loss) {
+        IntList sidetracks = new IntList();
+        for (int c = candidate; c != NONE; c = candPrev[c]) {
+            sidetracks.add(candNode[c]);
+        }
+        List<Integer> path = new ArrayList<>();
+        int next = sidetracks.size() - 1;
+        int v = rootNext;
+        if (next >= 0 && from[sidetracks.get(next)] == ROOT) {
+            v = to[sidetracks.get(next--)];
+        }
+        while (v != NONE) {
+            path.add(v);
+            if (next >= 0 && from[sidetracks.get(next)] == v) {
+                v = to[sidetracks.get(next--)];
+            } else {
+                v = treeNext(v);
+            }
+        }
+        return new LongPathResult(path, best - loss);
+    }
+    
+    private long cost(int u, int i) {
+        int v = graph.getTarget(u, i);
+        return (nodeWeighted ? graph.getNodeWeight(u) : graph.getWeight(u, i)) + toSink[v];
+    }
+    
+    // Out-neighbour on a longest path to a sink, NONE for sinks
+    private int treeNext(int u) {
+        if (treeNext[u] == UNKNOWN) {
+            treeNext[u] = NONE;
+            int degree = graph.getOutDegree(u);
+            for (int i = 0; i < degree; i++) {
+                if (cost(u, i) == toSink[u]) {
+                    treeNext[u] = graph.getTarget(u, i);
+                    break;
+                }
+            }
+        }
+        return treeNext[u];
+    }
+    
+    private int rootHeap() {
+        if (rootHeap == UNKNOWN) {
+            IntList own = new IntList();
+            for (int s : sources) {
+                if (s != rootNext) {
+                    own.add(newNode(best - toSink[s], ROOT, s));
+                }
+            }
+            rootHeap = merge(heapify(own), heap(rootNext));
+        }
+        return rootHeap;
+    }
+    
+    // H(v): sidetracks leaving the tree path from v, built iteratively down the path
+    private int heap(int v) {
+        IntList pending = new IntList();
+        for (int u = v; u != NONE && heapOf[u] == UNKNOWN; u = treeNext(u)) {
+            pending.add(u);
+        }
+        while (!pending.isEmpty()) {
+            int u = pending.removeLast();
+            int next = treeNext(u);
+            heapOf[u] = merge(ownSidetracks(u, next), next == NONE ? NONE : heapOf[next]);
+        }
+        return heapOf[v];
+    }
+    
+    private int ownSidetracks(int u, int next) {
+        IntList own = new IntList();
+        boolean treeEdgeSkipped = false;
+        int degree = graph.getOutDegree(u);
+        for (int i = 0; i < degree; i++) {
+            int v = graph.getTarget(u, i);
+            long c = cost(u, i);
+            if (!treeEdgeSkipped && v == next && c == toSink[u]) {
+                treeEdgeSkipped = true;
+                continue;
+            }
+            own.add(newNode(toSink[u] - c, u, v));
+        }
+        return heapify(own);
+    }
+    
+    // Pairwise merging in FIFO order builds a heap of n fresh nodes in O(n)
+    private int heapify(IntList items) {
+        if (items.isEmpty()) {
+            return NONE;
+        }
+        int head = 0;
+        while (items.size() - head > 1) {
+            items.add(merge(items.get(head), items.get(head + 1)));
+            head += 2;
+        }
+        return items.get(head);
+    }
+    
+    private int newNode(long d, int u, int v) {
+        if (nodes == delta.length) {
+            int capacity = nodes * 2;
+            delta = Arrays.copyOf(delta, capacity);
+            from = Arrays.copyOf(from, capacity);
+            to = Arrays.copyOf(to, capacity);
+            left = Arrays.copyOf(left, capacity);
+            right = Arrays.copyOf(right, capacity);
+            rank = Arrays.copyOf(rank, capacity);
+        }
+        delta[nodes] = d;
+        from[nodes] = u;
+        to[nodes] = v;
+        left[nodes] = NONE;
+        right[nodes] = NONE;
+        rank[nodes] = 1;
+        return nodes++;
+    }
+    
+    private int rankOf(int node) {
+        return node == NONE ? 0 : rank[node];
+    }
+    
+    // Persistent merge: copies the nodes on the merged right spine, shares the rest
+    private int merge(int a, int b) {
+        if (a == NONE) {
+            return b;
+        }
+        if (b == NONE) {
+            return a;
+        }
+        if (delta[b] < delta[a]) {
+            int t = a;
+            a = b;
+            b = t;
+        }
+        int merged = merge(right[a], b);
+        int copy = newNode(delta[a], from[a], to[a]);
+        int l = left[a];
+        if (rankOf(l) < rankOf(merged)) {
+            left[copy] = merged;
+            right[copy] = l;
+        } else {
+            left[copy] = l;
+            right[copy] = merged;
+        }
+        rank[copy] = rankOf(right[copy]) + 1;
+        return copy;
+    }
+}
@@ -0,0 +1,279 @@
+package graph.dagsp;
+
+import graph.model.GraphView;
+import graph.metrics.Metrics;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+
+/**
+ * Shortest paths in a DAG from many sources at once.
+ * The topological order comes from a cached PreparedDAG, computed once per
+ * graph version. Sources are processed in blocks: distances are stored
+ * interleaved (dist[v * block + s]) so each edge relaxation is a tight loop
+ * over the block's sources, which the JIT can vectorize. As in
+ * DAGShortestPath, the block accumulates in long with separate relax loops
+ * for the "edge" and "node" weight models; a finite distance that does not
+ * fit below INF throws ArithmeticException.
+ * Block size is derived from a caller-specified memory budget, and blocks can
+ * be spread across worker threads.
+ * Time: O(S * (V + E)), Space: bounded by the memory budget.
+ */
+public class MultiSourceShortestPath {
+    public static final int INF = Integer.MAX_VALUE / 2;
+    private static final long UNREACHABLE = Long.MAX_VALUE;
+    private static final long DEFAULT_BUDGET_BYTES = 256L << 20;
+    
+    private final GraphView graph;
+    private final Metrics metrics;
+    private final long memoryBudgetBytes;
+    private final int parallelism;
+    private PreparedDAG prepared;
+    
+    public MultiSourceShortestPath(GraphView graph, Metrics metrics) {
+        this(graph, metrics, DEFAULT_BUDGET_BYTES, 1);
+    }
+    
+    public MultiSourceShortestPath(GraphView graph, Metrics metrics,
+                                   long memoryBudgetBytes, int parallelism) {
+        if (memoryBudgetBytes <= 0) {
+            throw new IllegalArgumentException("Memory budget must be positive: " + memoryBudgetBytes);
+        }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        this.graph = graph;
+        this.metrics = metrics;
+        this.memoryBudgetBytes = memoryBudgetBytes;
+        this.parallelism = parallelism;
+    }
+    
+    /**
+     * Bytes needed per source: working (interleaved, long distances) plus result arrays.
+     */
+    private long bytesPerSource(boolean withParents) {
+        long perVertex = Long.BYTES + Integer.BYTES + (withParents ? 2L * Integer.BYTES : 0);
+        return perVertex * graph.getVertexCount();
+    }
+    
+    /**
+     * Largest number of sources one block may hold when `parallelism` blocks run at once.
+     */
+    public int getMaxBlockSize(boolean withParents) {
+        long perSource = Math.max(1, bytesPerSource(withParents));
+        long size = memoryBudgetBytes / (perSource * parallelism);
+        // Interleaved arrays are indexed by int
+        long indexLimit = Integer.MAX_VALUE / Math.max(1, graph.getVertexCount());
+        return (int) Math.min(indexLimit, size);
+    }
+    
+    /**
+     * Compute all sources in one result. The whole result must fit in the budget.
+     */
+    public BatchResult compute(int[] sources, boolean withParents) {
+        long needed = bytesPerSource(withParents) * sources.length;
+        if (needed > memoryBudgetBytes
+                || (long) sources.length * graph.getVertexCount() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Result for " + sources.length + " sources needs "
+                + needed + " bytes, budget is " + memoryBudgetBytes);
+        }
+        metrics.startTimer();
+        try {
+            BatchResult result = relaxBlock(sources.clone(), withParents, prepareOrder());
+            metrics.add("relaxations", (long) graph.getEdgeCount() * sources.length);
+            return result;
+        } finally {
+            metrics.stopTimer();
+        }
+    }
+    
+    /**
+     * Compute sources in budget-sized blocks, handing each block to the consumer
+     * in source order on the calling thread. At most `parallelism` blocks are in flight.
+     */
+    public void computeBlocked(int[] sources, boolean withParents, Consumer<BatchResult> consumer) {
+        int blockSize = getMaxBlockSize(withParents);
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Budget " + memoryBudgetBytes
+                + " bytes cannot hold a single source");
+        }
+        metrics.startTimer();
+        try {
+            int[] topoOrder = prepareOrder();
+            
+            List<int[]> blocks = new ArrayList<>();
+            for (int from = 0; from < sources.length; from += blockSize) {
+                blocks.add(Arrays.copyOfRange(sources, from, Math.min(sources.length, from + blockSize)));
+            }
+            
+            if (parallelism == 1) {
+                for (int[] block : blocks) {
+                    consumer.accept(relaxBlock(block, withParents, topoOrder));
+                }
+            } else {
+                ForkJoinPool pool = new ForkJoinPool(parallelism);
+                try {
+                    Deque<ForkJoinTask<BatchResult>> inFlight = new ArrayDeque<>();
+                    int next = 0;
+                    while (next < blocks.size() || !inFlight.isEmpty()) {
+                        while (next < blocks.size() && inFlight.size() < parallelism) {
+                            int[] block = blocks.get(next++);
+                            inFlight.add(pool.submit(() -> relaxBlock(block, withParents, topoOrder)));
+                        }
+                        consumer.accept(inFlight.poll().get());
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted during batch shortest paths", e);
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Batch shortest paths failed", e.getCause());
+                } finally {
+                    pool.shutdown();
+                }
+            }
+            
+            metrics.add("relaxations", (long) graph.getEdgeCount() * sources.length);
+        } finally {
+            metrics.stopTimer();
+        }
+    }
+    
+    /**
+     * Distances from every vertex, streamed in blocks.
+     */
+    public void computeAllSources(boolean withParents, Consumer<BatchResult> consumer) {
+        int[] sources = new int[graph.getVertexCount()];
+        for (int v = 0; v < sources.length; v++) {
+            sources[v] = v;
+        }
+        computeBlocked(sources, withParents, consumer);
+    }
+    
+    private int[] prepareOrder() {
+        prepared = prepared == null ? new PreparedDAG(graph) : prepared.refresh();
+        return prepared.getOrder();
+    }
+    
+    private BatchResult relaxBlock(int[] sources, boolean withParents, int[] topoOrder) {
+        int n = graph.getVertexCount();
+        int block = sources.length;
+        long[] dist = new long[n * block];
+        int[] parent = withParents ? new int[n * block] : null;
+        Arrays.fill(dist, UNREACHABLE);
+        if (parent != null) {
+            Arrays.fill(parent, -1);
+        }
+        boolean nodeWeighted = GraphView.NODE_WEIGHTS.equals(graph.getWeightModel());
+        for (int s = 0; s < block; s++) {
+            dist[sources[s] * block + s] = nodeWeighted ? graph.getNodeWeight(sources[s]) : 0;
+        }
+        
+        if (nodeWeighted) {
+            relaxNodeBlock(topoOrder, block, dist, parent);
+        } else {
+            relaxEdgeBlock(topoOrder, block, dist, parent);
+        }
+        
+        // Transpose to one row per source
+        int[][] rows = new int[block][n];
+        int[][] parentRows = parent == null ? null : new int[block][n];
+        for (int v = 0; v < n; v++) {
+            int vb = v * block;
+            for (int s = 0; s < block; s++) {
+                rows[s][v] = toResult(dist[vb + s], sources[s], v);
+                if (parentRows != null) {
+                    parentRows[s][v] = parent[vb + s];
+                }
+            }
+        }
+        return new BatchResult(sources, rows, parentRows);
+    }
+    
+    private void relaxEdgeBlock(int[] topoOrder, int block, long[] dist, int[] parent) {
+        for (int u : topoOrder) {
+            int ub = u * block;
+            int degree = graph.getOutDegree(u);
+            for (int i = 0; i < degree; i++) {
+                relaxEdge(ub, graph.getTarget(u, i) * block, u, graph.getWeight(u, i), block, dist, parent);
+            }
+        }
+    }
+    
+    private void relaxNodeBlock(int[] topoOrder, int block, long[] dist, int[] parent) {
+        for (int u : topoOrder) {
+            int ub = u * block;
+            int degree = graph.getOutDegree(u);
+            for (int i = 0; i < degree; i++) {
+                int v = graph.getTarget(u, i);
+                relaxEdge(ub, v * block, u, graph.getNodeWeight(v), block, dist, parent);
+            }
+        }
+    }
+    
+    // One edge for every source in the block; w is the edge weight or the target's duration
+    private static void relaxEdge(int ub, int vb, int u, long w, int block, long[] dist, int[] parent) {
+        if (parent == null) {
+            for (int s = 0; s < block; s++) {
+                long du = dist[ub + s];
+                long candidate = du == UNREACHABLE ? UNREACHABLE : du + w;
+                dist[vb + s] = Math.min(dist[vb + s], candidate);
+            }
+        } else {
+            for (int s = 0; s < block; s++) {
+                long du = dist[ub + s];
+                if (du != UNREACHABLE && du + w < dist[vb + s]) {
+                    dist[vb + s] = du + w;
+                    parent[vb + s] = u;
+                }
+            }
+        }
+    }
+    
+    // INF is reserved for "unreachable", so finite distances must stay below it
+    private static int toResult(long d, int source, int v) {
+        if (d == UNREACHABLE) {
+            return INF;
+        }
+        if (d >= INF || d <= -INF) {
+            throw new ArithmeticException("Distance " + d + " from " + source + " to " + v
+                + " does not fit the int result");
+        }
+        return (int) d;
+    }
+    
+    /**
+     * Distances (and optionally parents) for a block of sources.
+     * dist[i][v] is the distance from sources[i] to v, or INF if unreachable.
+     */
+    public static class BatchResult {
+        public final int[] sources;
+        public final int[][] dist;
+        public final int[][] parent;
+        
+        public BatchResult(int[] sources, int[][] dist, int[][] parent) {
+            this.sources = sources;
+            this.dist = dist;
+            this.parent = parent;
+        }
+        
+        /**
+         * Path from sources[i] to target, or an empty list if unreachable.
+         */
+        public List<Integer> path(int i, int target) {
+            if (parent == null) {
+                throw new IllegalStateException("Parents were not computed");
+            }
+            List<Integer> path = new ArrayList<>();
+            if (dist[i][target] >= INF) {
+                return path;
+            }
+            for (int curr = target; curr != -1; curr = parent[i][curr]) {
+                path.add(curr);
+            }
+            Collections.reverse(path);
+            return path;
+        }
+    }
+}
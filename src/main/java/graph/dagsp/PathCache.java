@@ -0,0 +1,238 @@
+package graph.dagsp;
+
+import graph.dagsp.DAGShortestPath.LongPathResult;
+import graph.metrics.Counter;
+import graph.metrics.Metrics;
+import graph.model.GraphView;
+import java.util.*;
+
+/**
+ * LRU cache in front of DAGShortestPath for queries that repeat between graph
+ * changes (the same depot sources, the same critical path).
+ * Entries are keyed by graph version and source; the first lookup after the
+ * graph's modification count changes drops every entry of the old version.
+ * Results are stored compactly: distance vectors as int[] when every finite
+ * distance fits (long[] otherwise), paths as int[] vertex ids.
+ * Capacity is either an entry count or a byte budget (array payload plus a
+ * fixed per-entry overhead). Hits, misses, evictions and invalidated entries
+ * are counted as path_cache_hits, path_cache_misses, path_cache_evictions and
+ * path_cache_invalidations.
+ * Thread-safe; misses are computed outside the lock, so two threads missing
+ * the same key may both compute it.
+ */
+public class PathCache {
+    /** Estimated bytes per entry besides the result arrays (map node, key, headers). */
+    static final long ENTRY_OVERHEAD = 96;
+    private static final long CRITICAL_PATH = -1;
+    private static final int INT_UNREACHABLE = Integer.MIN_VALUE;
+    
+    private final GraphView graph;
+    private final Metrics metrics;
+    private final int maxEntries;
+    private final long maxBytes;
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+    private final Counter invalidations;
+    private long version;
+    private PreparedDAG plan;
+    private long bytes;
+    
+    private PathCache(GraphView graph, Metrics metrics, int maxEntries, long maxBytes) {
+        this.graph = graph;
+        this.metrics = metrics;
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.hits = metrics.counter("path_cache_hits");
+        this.misses = metrics.counter("path_cache_misses");
+        this.evictions = metrics.counter("path_cache_evictions");
+        this.invalidations = metrics.counter("path_cache_invalidations");
+        this.version = graph.getModificationCount();
+    }
+    
+    /**
+     * Cache holding at most maxEntries results.
+     */
+    public static PathCache withMaxEntries(GraphView graph, Metrics metrics, int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be positive: " + maxEntries);
+        }
+        return new PathCache(graph, metrics, maxEntries, Long.MAX_VALUE);
+    }
+    
+    /**
+     * Cache holding results of at most maxBytes estimated bytes in total.
+     * A single result larger than the budget is returned but not kept.
+     */
+    public static PathCache withMaxBytes(GraphView graph, Metrics metrics, long maxBytes) {
+        if (maxBytes < 1) {
+            throw new IllegalArgumentException("maxBytes must be positive: " + maxBytes);
+        }
+        return new PathCache(graph, metrics, Integer.MAX_VALUE, maxBytes);
+    }
+    
+    /**
+     * Same as DAGShortestPath.shortestPathsLong(source); the array is a fresh copy.
+     */
+    public long[] shortestPaths(int source) {
+        return distances(source).toDistances();
+    }
+    
+    /**
+     * Distance from source to target, or DAGShortestPath.UNREACHABLE, without
+     * copying the cached vector.
+     */
+    public long distance(int source, int target) {
+        return distances(source).distance(target);
+    }
+    
+    /**
+     * Same as DAGShortestPath.criticalPathLong().
+     */
+    public LongPathResult criticalPath() {
+        Entry entry = lookup(CRITICAL_PATH);
+        if (entry == null) {
+            long computedFor = graph.getModificationCount();
+            LongPathResult result = new DAGShortestPath(plan(), metrics).criticalPathLong();
+            int[] path = new int[result.path.size()];
+            for (int i = 0; i < path.length; i++) {
+                path[i] = result.path.get(i);
+            }
+            entry = new Entry(path, null, result.pathLength);
+            store(CRITICAL_PATH, entry, computedFor);
+        }
+        List<Integer> path = new ArrayList<>(entry.ints.length);
+        for (int v : entry.ints) {
+            path.add(v);
+        }
+        return new LongPathResult(path, entry.length);
+    }
+    
+    private Entry distances(int source) {
+        if (source < 0 || source >= graph.getVertexCount()) {
+            throw new IllegalArgumentException("Source out of range: " + source);
+        }
+        Entry entry = lookup(source);
+        if (entry == null) {
+            long computedFor = graph.getModificationCount();
+            entry = Entry.ofDistances(new DAGShortestPath(plan(), metrics).shortestPathsLong(source));
+            store(source, entry, computedFor);
+        }
+        return entry;
+    }
+    
+    private synchronized Entry lookup(long key) {
+        checkVersion();
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return entry;
+    }
+    
+    private synchronized PreparedDAG plan() {
+        checkVersion();
+        if (plan == null) {
+            plan = new PreparedDAG(graph);
+        }
+        return plan;
+    }
+    
+    // Drop every entry (and the plan) once the graph has changed
+    private void checkVersion() {
+        long current = graph.getModificationCount();
+        if (current != version) {
+            invalidations.add(entries.size());
+            entries.clear();
+            bytes = 0;
+            plan = null;
+            version = current;
+        }
+    }
+    
+    private synchronized void store(long key, Entry entry, long computedFor) {
+        checkVersion();
+        if (computedFor != version || entry.bytes > maxBytes) {
+            return;
+        }
+        Entry previous = entries.put(key, entry);
+        if (previous != null) {
+            bytes -= previous.bytes;
+        }
+        bytes += entry.bytes;
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (entries.size() > maxEntries || bytes > maxBytes) {
+            bytes -= eldest.next().bytes;
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+    
+    /**
+     * Drop all entries without counting them as invalidations.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+    
+    public synchronized int size() {
+        return entries.size();
+    }
+    
+    /**
+     * Estimated bytes held by the cached results.
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+    
+    // A distance vector (ints or longs) or a path (ints plus length)
+    private static final class Entry {
+        final int[] ints;
+        final long[] longs;
+        final long length;
+        final long bytes;
+        
+        Entry(int[] ints, long[] longs, long length) {
+            this.ints = ints;
+            this.longs = longs;
+            this.length = length;
+            this.bytes = ENTRY_OVERHEAD + (ints != null ? 4L * ints.length : 8L * longs.length);
+        }
+        
+        static Entry ofDistances(long[] dist) {
+            for (long d : dist) {
+                if (d != DAGShortestPath.UNREACHABLE && (d <= INT_UNREACHABLE || d > Integer.MAX_VALUE)) {
+                    return new Entry(null, dist, 0);
+                }
+            }
+            int[] compact = new int[dist.length];
+            for (int v = 0; v < dist.length; v++) {
+                compact[v] = dist[v] == DAGShortestPath.UNREACHABLE ? INT_UNREACHABLE : (int) dist[v];
+            }
+            return new Entry(compact, null, 0);
+        }
+        
+        long distance(int v) {
+            if (longs != null) {
+                return longs[v];
+            }
+            return ints[v] == INT_UNREACHABLE ? DAGShortestPath.UNREACHABLE : ints[v];
+        }
+        
+        long[] toDistances() {
+            if (longs != null) {
+                return longs.clone();
+            }
+            long[] dist = new long[ints.length];
+            for (int v = 0; v < dist.length; v++) {
+                dist[v] = distance(v);
+            }
+            return dist;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package graph.dagsp;
+
+import graph.model.GraphView;
+
+/**
+ * Per-graph-version query plan for DAG path computations.
+ * Caches the topological order, in-degrees, and source/sink sets so repeated
+ * queries only pay for the relaxation pass. Tied to the graph's modification
+ * count; use refresh() to get a plan for the current version.
+ * Arrays are shared and must not be modified by callers.
+ */
+public final class PreparedDAG {
+    private final GraphView graph;
+    private final long version;
+    private final int[] order;
+    private final int[] inDegree;
+    private final int[] sources;
+    private final int[] sinks;
+    
+    /**
+     * Compute the plan for the graph's current version.
+     * Throws IllegalStateException if the graph has a cycle.
+     */
+    public PreparedDAG(GraphView graph) {
+        this.graph = graph;
+        this.version = graph.getModificationCount();
+        int n = graph.getVertexCount();
+        
+        inDegree = new int[n];
+        int[] remaining = new int[n];
+        int sourceCount = 0;
+        int sinkCount = 0;
+        for (int v = 0; v < n; v++) {
+            inDegree[v] = graph.getInDegree(v);
+            remaining[v] = inDegree[v];
+            if (inDegree[v] == 0) {
+                sourceCount++;
+            }
+            if (graph.getOutDegree(v) == 0) {
+                sinkCount++;
+            }
+        }
+        
+        sources = new int[sourceCount];
+        sinks = new int[sinkCount];
+        order = new int[n];
+        int tail = 0;
+        int s = 0;
+        int t = 0;
+        for (int v = 0; v < n; v++) {
+            if (inDegree[v] == 0) {
+                sources[s++] = v;
+                order[tail++] = v;
+            }
+            if (graph.getOutDegree(v) == 0) {
+                sinks[t++] = v;
+            }
+        }
+        
+        // Kahn's algorithm with the order array doubling as the queue
+        for (int head = 0; head < tail; head++) {
+            int u = order[head];
+            int degree = graph.getOutDegree(u);
+            for (int i = 0; i < degree; i++) {
+                int v = graph.getTarget(u, i);
+                if (--remaining[v] == 0) {
+                    order[tail++] = v;
+                }
+            }
+        }
+        if (tail != n) {
+            throw new IllegalStateException("Graph has cycles!");
+        }
+    }
+    
+    /**
+     * True if the graph has not changed since this plan was built.
+     */
+    public boolean isCurrent() {
+        return version == graph.getModificationCount();
+    }
+    
+    /**
+     * This plan if still current, otherwise a freshly computed one.
+     */
+    public PreparedDAG refresh() {
+        return isCurrent() ? this : new PreparedDAG(graph);
+    }
+    
+    public GraphView getGraph() {
+        return graph;
+    }
+    
+    public long getVersion() {
+        return version;
+    }
+    
+    public int[] getOrder() {
+        return order;
+    }
+    
+    public int[] getInDegrees() {
+        return inDegree;
+    }
+    
+    public int[] getSources() {
+        return sources;
+    }
+    
+    public int[] getSinks() {
+        return sinks;
+    }
+}
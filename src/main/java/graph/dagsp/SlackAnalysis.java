@@ -0,0 +1,272 @@
+package graph.dagsp;
+
+import graph.metrics.Metrics;
+import graph.model.GraphView;
+import graph.util.IntList;
+import graph.util.IntPriorityQueue;
+
+/**
+ * Critical path method: earliest start, latest start and total slack per task.
+ * Tasks take their duration from the node weight in the "node" model; in the
+ * "edge" model tasks are instantaneous and edge weights are lags.
+ * A forward pass over the reverse adjacency pulls earliest starts from
+ * predecessors; a backward pass computes each task's tail (longest path from
+ * its start to the end of the project). Latest start is makespan - tail and
+ * slack is makespan - earliest start - tail, so zero-slack tasks are critical.
+ * Negative lags are allowed: tails run to a sink and the makespan is the
+ * longest source-to-sink path, which may then be negative.
+ * setDuration() updates only the vertices whose values change, visiting them
+ * in topological position order.
+ * Time: O(V + E) to build, O(affected vertices and edges + log) per update.
+ */
+public class SlackAnalysis {
+    private final GraphView dag;
+    private final Metrics metrics;
+    private final long version;
+    private final boolean nodeWeighted;
+    private final int[] position;
+    private final int[] sources;
+    private final long[] duration;
+    private final long[] head;
+    private final long[] tail;
+    private long makespan;
+    
+    // Worklists for incremental updates, keyed by topological position
+    private final IntPriorityQueue forward = new IntPriorityQueue();
+    private final IntPriorityQueue backward = new IntPriorityQueue();
+    private final boolean[] queued;
+    
+    public SlackAnalysis(GraphView dag, Metrics metrics) {
+        this(new PreparedDAG(dag), metrics);
+    }
+    
+    /**
+     * Throws IllegalStateException if the plan is stale or the graph has a cycle.
+     */
+    public SlackAnalysis(PreparedDAG plan, Metrics metrics) {
+        if (!plan.isCurrent()) {
+            throw new IllegalStateException("PreparedDAG is stale; call refresh() first");
+        }
+        this.dag = plan.getGraph();
+        this.metrics = metrics;
+        this.version = plan.getVersion();
+        this.nodeWeighted = GraphView.NODE_WEIGHTS.equals(dag.getWeightModel());
+        this.sources = plan.getSources();
+        
+        int n = dag.getVertexCount();
+        int[] order = plan.getOrder();
+        position = new int[n];
+        duration = new long[n];
+        head = new long[n];
+        tail = new long[n];
+        queued = new boolean[n];
+        for (int k = 0; k < n; k++) {
+            position[order[k]] = k;
+        }
+        for (int v = 0; v < n; v++) {
+            duration[v] = nodeWeighted ? dag.getNodeWeight(v) : 0;
+        }
+        
+        metrics.startTimer();
+        try {
+            long relaxations = 0;
+            for (int k = 0; k < n; k++) {
+                int v = order[k];
+                head[v] = pullHead(v);
+                relaxations += dag.getInDegree(v);
+            }
+            for (int k = n - 1; k >= 0; k--) {
+                int v = order[k];
+                tail[v] = pullTail(v);
+                relaxations += dag.getOutDegree(v);
+            }
+            makespan = sourceMakespan();
+            metrics.add("relaxations", relaxations);
+        } finally {
+            metrics.stopTimer();
+        }
+    }
+    
+    // Earliest start: latest predecessor finish plus lag, 0 for sources
+    private long pullHead(int v) {
+        int degree = dag.getInDegree(v);
+        if (degree == 0) {
+            return 0;
+        }
+        long best = Long.MIN_VALUE;
+        for (int i = 0; i < degree; i++) {
+            int p = dag.getReverseTarget(v, i);
+            long candidate = head[p] + duration[p] + (nodeWeighted ? 0 : dag.getReverseWeight(v, i));
+            if (candidate > best) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+    
+    // Duration plus the longest lag-and-tail over successors, as in longestPathsToSinks
+    private long pullTail(int v) {
+        int degree = dag.getOutDegree(v);
+        long best = degree == 0 ? 0 : Long.MIN_VALUE;
+        for (int i = 0; i < degree; i++) {
+            int s = dag.getTarget(v, i);
+            long candidate = tail[s] + (nodeWeighted ? 0 : dag.getWeight(v, i));
+            if (candidate > best) {
+                best = candidate;
+            }
+        }
+        return best + duration[v];
+    }
+    
+    private long sourceMakespan() {
+        if (sources.length == 0) {
+            return 0;
+        }
+        long best = Long.MIN_VALUE;
+        for (int s : sources) {
+            best = Math.max(best, tail[s]);
+        }
+        return best;
+    }
+    
+    /**
+     * Change one task's duration and update every affected start time.
+     * The graph itself is not modified.
+     * Throws IllegalStateException if the graph changed since construction.
+     */
+    public void setDuration(int v, long newDuration) {
+        if (dag.getModificationCount() != version) {
+            throw new IllegalStateException("Graph changed; build a new SlackAnalysis");
+        }
+        if (newDuration < 0) {
+            throw new IllegalArgumentException("Negative duration: " + newDuration);
+        }
+        if (duration[v] == newDuration) {
+            return;
+        }
+        duration[v] = newDuration;
+        long updated = 0;
+        
+        // Successor heads, earliest position first so each vertex settles once
+        enqueueSuccessors(v);
+        while (!forward.isEmpty()) {
+            int u = forward.poll();
+            queued[u] = false;
+            long value = pullHead(u);
+            if (value != head[u]) {
+                head[u] = value;
+                updated++;
+                enqueueSuccessors(u);
+            }
+        }
+        
+        // Tails of v and its ancestors, latest position first
+        boolean sourceChanged = false;
+        backward.add(v, -position[v]);
+        queued[v] = true;
+        while (!backward.isEmpty()) {
+            int u = backward.poll();
+            queued[u] = false;
+            long value = pullTail(u);
+            if (value != tail[u]) {
+                tail[u] = value;
+                updated++;
+                int degree = dag.getInDegree(u);
+                sourceChanged |= degree == 0;
+                for (int i = 0; i < degree; i++) {
+                    int p = dag.getReverseTarget(u, i);
+                    if (!queued[p]) {
+                        queued[p] = true;
+                        backward.add(p, -position[p]);
+                    }
+                }
+            }
+        }
+        if (sourceChanged) {
+            makespan = sourceMakespan();
+        }
+        metrics.add("slack_updates", updated);
+    }
+    
+    private void enqueueSuccessors(int u) {
+        int degree = dag.getOutDegree(u);
+        for (int i = 0; i < degree; i++) {
+            int s = dag.getTarget(u, i);
+            if (!queued[s]) {
+                queued[s] = true;
+                forward.add(s, position[s]);
+            }
+        }
+    }
+    
+    /**
+     * Project length: the longest source-to-sink path including durations and lags.
+     */
+    public long getMakespan() {
+        return makespan;
+    }
+    
+    public long getDuration(int v) {
+        return duration[v];
+    }
+    
+    public long getEarliestStart(int v) {
+        return head[v];
+    }
+    
+    public long getEarliestFinish(int v) {
+        return head[v] + duration[v];
+    }
+    
+    public long getLatestStart(int v) {
+        return makespan - tail[v];
+    }
+    
+    public long getLatestFinish(int v) {
+        return makespan - tail[v] + duration[v];
+    }
+    
+    /**
+     * Total float: how far the task can slip without delaying the project.
+     */
+    public long getSlack(int v) {
+        return makespan - head[v] - tail[v];
+    }
+    
+    public boolean isCritical(int v) {
+        return getSlack(v) == 0;
+    }
+    
+    public long[] getEarliestStarts() {
+        return head.clone();
+    }
+    
+    public long[] getLatestStarts() {
+        long[] latest = new long[tail.length];
+        for (int v = 0; v < latest.length; v++) {
+            latest[v] = makespan - tail[v];
+        }
+        return latest;
+    }
+    
+    public long[] getSlacks() {
+        long[] slack = new long[tail.length];
+        for (int v = 0; v < slack.length; v++) {
+            slack[v] = makespan - head[v] - tail[v];
+        }
+        return slack;
+    }
+    
+    /**
+     * Zero-slack tasks in increasing vertex order.
+     */
+    public int[] getCriticalTasks() {
+        IntList critical = new IntList();
+        for (int v = 0; v < tail.length; v++) {
+            if (isCritical(v)) {
+                critical.add(v);
+            }
+        }
+        return critical.toArray();
+    }
+}
@@ -0,0 +1,303 @@
+package graph.exec;
+
+import graph.dagsp.DAGShortestPath;
+import graph.metrics.Counter;
+import graph.metrics.Metrics;
+import graph.model.GraphView;
+import graph.util.IntList;
+import graph.util.IntPriorityQueue;
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs one callback per vertex of a DAG (typically a condensation), starting
+ * a task once all its predecessors have completed.
+ * Ready tasks are dispatched longest-remaining-path first (bottom level from
+ * DAGShortestPath.longestPathsToSinks). At most maxInFlight tasks are handed
+ * to the executor at once, so a slow pool is never flooded (backpressure).
+ * When a task fails, every task reachable from it is cancelled; independent
+ * tasks keep running. Per-task start and finish times are recorded.
+ * Throws IllegalStateException("Graph has cycles!") for cyclic graphs.
+ */
+public class DAGExecutor {
+    private static final byte PENDING = 0;
+    private static final byte READY = 1;
+    private static final byte RUNNING = 2;
+    private static final byte COMPLETED = 3;
+    private static final byte FAILED = 4;
+    private static final byte CANCELLED = 5;
+    
+    /**
+     * User work for one vertex. A thrown exception marks the task failed.
+     */
+    @FunctionalInterface
+    public interface Task {
+        void run(int vertex) throws Exception;
+    }
+    
+    public enum Status { COMPLETED, FAILED, CANCELLED }
+    
+    private final GraphView dag;
+    private final Metrics metrics;
+    private final Executor executor;
+    private final int maxInFlight;
+    
+    /**
+     * Run tasks on a fixed pool of `parallelism` threads created per execute().
+     */
+    public DAGExecutor(GraphView dag, Metrics metrics, int parallelism) {
+        this(dag, metrics, null, parallelism);
+    }
+    
+    /**
+     * Run tasks on a caller-owned executor (for example a virtual-thread
+     * executor on Java 21+) with at most maxInFlight tasks submitted at once.
+     */
+    public DAGExecutor(GraphView dag, Metrics metrics, Executor executor, int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be positive: " + maxInFlight);
+        }
+        this.dag = dag;
+        this.metrics = metrics;
+        this.executor = executor;
+        this.maxInFlight = maxInFlight;
+    }
+    
+    /**
+     * Execute every task and wait for all of them to finish or be cancelled.
+     */
+    public ExecutionResult execute(Task task) throws InterruptedException {
+        long[] priority;
+        try {
+            priority = new DAGShortestPath(dag, Metrics.NOOP).longestPathsToSinks();
+        } catch (IllegalStateException e) {
+            throw new IllegalStateException("Graph has cycles!", e);
+        }
+        ExecutorService ownPool = executor == null ? newPool(maxInFlight) : null;
+        Run run = new Run(task, priority, ownPool != null ? ownPool : executor);
+        metrics.startTimer();
+        try {
+            return run.execute();
+        } finally {
+            metrics.stopTimer();
+            if (ownPool != null) {
+                ownPool.shutdown();
+            }
+        }
+    }
+    
+    private static ExecutorService newPool(int threads) {
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                                      new LinkedBlockingQueue<>(), runnable -> {
+                                          Thread t = new Thread(runnable, "dag-executor");
+                                          t.setDaemon(true);
+                                          return t;
+                                      });
+    }
+    
+    // State of one execute() call, guarded by lock.
+    private final class Run {
+        private final Task task;
+        private final long[] priority;
+        private final Executor target;
+        private final int n = dag.getVertexCount();
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition changed = lock.newCondition();
+        private final byte[] state = new byte[n];
+        private final int[] remaining = new int[n];
+        private final long[] startNanos = new long[n];
+        private final long[] finishNanos = new long[n];
+        private final Map<Integer, Throwable> failures = new TreeMap<>();
+        private final IntPriorityQueue ready = new IntPriorityQueue();
+        private final Counter taskNanos = metrics.counter("task_nanos");
+        private long origin;
+        private int inFlight;
+        private int completed;
+        private int failed;
+        private int cancelled;
+        
+        Run(Task task, long[] priority, Executor target) {
+            this.task = task;
+            this.priority = priority;
+            this.target = target;
+            Arrays.fill(startNanos, -1);
+            Arrays.fill(finishNanos, -1);
+            for (int v = 0; v < n; v++) {
+                remaining[v] = dag.getInDegree(v);
+                if (remaining[v] == 0) {
+                    makeReady(v);
+                }
+            }
+        }
+        
+        ExecutionResult execute() throws InterruptedException {
+            origin = System.nanoTime();
+            IntList batch = new IntList();
+            lock.lock();
+            try {
+                while (completed + failed + cancelled < n) {
+                    batch.clear();
+                    while (!ready.isEmpty() && inFlight < maxInFlight) {
+                        int v = ready.poll();
+                        state[v] = RUNNING;
+                        inFlight++;
+                        batch.add(v);
+                    }
+                    if (batch.isEmpty()) {
+                        changed.await();
+                        continue;
+                    }
+                    // Submit outside the lock: an executor may run the task inline
+                    lock.unlock();
+                    try {
+                        for (int i = 0; i < batch.size(); i++) {
+                            submit(batch.get(i));
+                        }
+                    } finally {
+                        lock.lock();
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+            
+            metrics.add("tasks_completed", completed);
+            metrics.add("tasks_failed", failed);
+            metrics.add("tasks_cancelled", cancelled);
+            return new ExecutionResult(state, startNanos, finishNanos, failures,
+                                       System.nanoTime() - origin);
+        }
+        
+        private void submit(int v) {
+            try {
+                target.execute(() -> runTask(v));
+            } catch (RejectedExecutionException e) {
+                finish(v, e);
+            }
+        }
+        
+        private void runTask(int v) {
+            long start = System.nanoTime();
+            startNanos[v] = start - origin;
+            Throwable error = null;
+            try {
+                task.run(v);
+            } catch (Throwable t) {
+                error = t;
+            }
+            long end = System.nanoTime();
+            finishNanos[v] = end - origin;
+            taskNanos.add(end - start);
+            finish(v, error);
+        }
+        
+        private void finish(int v, Throwable error) {
+            lock.lock();
+            try {
+                inFlight--;
+                if (error == null) {
+                    state[v] = COMPLETED;
+                    completed++;
+                    int degree = dag.getOutDegree(v);
+                    for (int i = 0; i < degree; i++) {
+                        int s = dag.getTarget(v, i);
+                        if (--remaining[s] == 0 && state[s] == PENDING) {
+                            makeReady(s);
+                        }
+                    }
+                } else {
+                    state[v] = FAILED;
+                    failed++;
+                    failures.put(v, error);
+                    cancelDownstream(v);
+                }
+                changed.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        private void makeReady(int v) {
+            state[v] = READY;
+            ready.add(v, -priority[v]);
+        }
+        
+        // Successors of a failed task cannot have started, so they are all PENDING or CANCELLED
+        private void cancelDownstream(int root) {
+            IntList stack = new IntList();
+            stack.add(root);
+            while (!stack.isEmpty()) {
+                int u = stack.removeLast();
+                int degree = dag.getOutDegree(u);
+                for (int i = 0; i < degree; i++) {
+                    int s = dag.getTarget(u, i);
+                    if (state[s] == PENDING) {
+                        state[s] = CANCELLED;
+                        cancelled++;
+                        stack.add(s);
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * Outcome of one execute() call. Times are nanoseconds since the run
+     * started; -1 for tasks that never ran.
+     */
+    public static class ExecutionResult {
+        public final long[] startNanos;
+        public final long[] finishNanos;
+        public final Map<Integer, Throwable> failures;
+        public final long elapsedNanos;
+        private final byte[] state;
+        
+        ExecutionResult(byte[] state, long[] startNanos, long[] finishNanos,
+                        Map<Integer, Throwable> failures, long elapsedNanos) {
+            this.state = state;
+            this.startNanos = startNanos;
+            this.finishNanos = finishNanos;
+            this.failures = Collections.unmodifiableMap(failures);
+            this.elapsedNanos = elapsedNanos;
+        }
+        
+        public Status getStatus(int vertex) {
+            switch (state[vertex]) {
+                case COMPLETED:
+                    return Status.COMPLETED;
+                case FAILED:
+                    return Status.FAILED;
+                default:
+                    return Status.CANCELLED;
+            }
+        }
+        
+        public int count(Status status) {
+            int count = 0;
+            for (int v = 0; v < state.length; v++) {
+                if (getStatus(v) == status) {
+                    count++;
+                }
+            }
+            return count;
+        }
+        
+        public boolean isSuccessful() {
+            return failures.isEmpty() && count(Status.CANCELLED) == 0;
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("Completed: %d, Failed: %d, Cancelled: %d, Time: %.3f ms",
+                                 count(Status.COMPLETED), count(Status.FAILED),
+                                 count(Status.CANCELLED), elapsedNanos / 1e6);
+        }
+    }
+}
@@ -0,0 +1,607 @@
+package graph.gen;
+
+import com.google.gson.stream.JsonWriter;
+import graph.model.BinaryGraphFormat;
+import graph.model.CsrGraph;
+import graph.model.GraphView;
+import graph.util.IntList;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Seeded generator of layered smart-city task graphs.
+ * Vertices are split into `layers` equal layers (width = n / layers). Each layer
+ * is cut into strongly connected components whose sizes are uniform in
+ * [minScc, maxScc]; a component of size k > 1 is a k-edge ring. The remaining
+ * edges go from a vertex to a random vertex in one of the next `layerSpan`
+ * layers, so the condensation is a DAG of depth `layers`.
+ * <p>
+ * With a planted critical path, one chain vertex per layer is linked to the
+ * next by an edge of weight wMax + 1 ("edge" model) or carries node weight
+ * wMax + 1 ("node" model). Every path crosses each layer at most once, so the
+ * chain is the unique longest path of the condensation (EdgeMergePolicy.MAX)
+ * and its length is known in advance.
+ * <p>
+ * Each vertex's edges are derived from (seed, vertex) alone, so output is
+ * streamed: memory is O(n) for JSON and binary, independent of the edge count.
+ * Vertex ids are shuffled by a seeded bijection unless disabled.
+ */
+public final class WorkloadGenerator {
+    private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+    private static final long NODE_SALT = 0x5DEECE66DL;
+    private static final long DEFAULT_BUDGET_BYTES = 256L << 20;
+    
+    private final int n;
+    private final long m;
+    private final long seed;
+    private final int layers;
+    private final int layerSpan;
+    private final int minWeight;
+    private final int maxWeight;
+    private final String weightModel;
+    private final boolean planted;
+    private final int[] componentStart;
+    private final int[] chain;
+    private final long randomEdges;
+    private final int eligible;
+    private final Permutation permutation;
+    
+    private WorkloadGenerator(Builder b) {
+        this.n = b.vertices;
+        this.m = b.edges;
+        this.seed = b.seed;
+        this.layers = b.layers;
+        this.layerSpan = b.layerSpan;
+        this.minWeight = b.minWeight;
+        this.maxWeight = b.maxWeight;
+        this.weightModel = b.weightModel;
+        this.planted = b.plantCriticalPath;
+        this.permutation = new Permutation(n, b.shuffle ? b.seed : 0, b.shuffle);
+        
+        // Cut every layer into components
+        Rng rng = new Rng(seed * GOLDEN + 1);
+        IntList starts = new IntList();
+        long ringEdges = 0;
+        for (int l = 0; l < layers; l++) {
+            int end = layerStart(l + 1);
+            for (int s = layerStart(l); s < end; ) {
+                int size = Math.min(end - s, b.minScc + rng.nextInt(b.maxScc - b.minScc + 1));
+                starts.add(s);
+                if (size > 1) {
+                    ringEdges += size;
+                }
+                s += size;
+            }
+        }
+        starts.add(n);
+        this.componentStart = starts.toArray();
+        
+        this.chain = new int[planted ? layers : 0];
+        for (int l = 0; l < chain.length; l++) {
+            chain[l] = layerStart(l) + rng.nextInt(layerStart(l + 1) - layerStart(l));
+        }
+        
+        this.eligible = layers > 1 ? layerStart(layers - 1) : 0;
+        this.randomEdges = m - ringEdges - (planted ? layers - 1 : 0);
+        if (randomEdges < 0 || (randomEdges > 0 && eligible == 0)) {
+            throw new IllegalArgumentException("Cannot place " + m + " edges: rings need " + ringEdges
+                + (planted ? ", chain needs " + (layers - 1) : "") + " and " + eligible
+                + " vertices may have forward edges");
+        }
+    }
+    
+    public int getVertexCount() {
+        return n;
+    }
+    
+    public long getEdgeCount() {
+        return m;
+    }
+    
+    public String getWeightModel() {
+        return weightModel;
+    }
+    
+    /**
+     * Number of planted strongly connected components (including singletons).
+     */
+    public int getComponentCount() {
+        return componentStart.length - 1;
+    }
+    
+    public int getLayerCount() {
+        return layers;
+    }
+    
+    /**
+     * Vertices of the planted critical path in order, or an empty array.
+     */
+    public int[] getCriticalPath() {
+        int[] path = new int[chain.length];
+        for (int i = 0; i < chain.length; i++) {
+            path[i] = permutation.apply(chain[i]);
+        }
+        return path;
+    }
+    
+    /**
+     * Length of the planted critical path under the weight model.
+     */
+    public long getCriticalPathLength() {
+        if (!planted) {
+            throw new IllegalStateException("No critical path was planted");
+        }
+        return GraphView.NODE_WEIGHTS.equals(weightModel)
+            ? (long) layers * (maxWeight + 1)
+            : (long) (layers - 1) * (maxWeight + 1);
+    }
+    
+    /**
+     * Source vertex written to the files: start of the critical path, else vertex 0.
+     */
+    public int getSource() {
+        return planted ? permutation.apply(chain[0]) : permutation.apply(0);
+    }
+    
+    /**
+     * Receives generated edges.
+     */
+    @FunctionalInterface
+    public interface EdgeSink {
+        void edge(int u, int v, int w) throws IOException;
+    }
+    
+    /**
+     * Stream every edge, grouped by source in increasing (shuffled) id order.
+     */
+    public void forEachEdge(EdgeSink sink) throws IOException {
+        Rng rng = new Rng(0);
+        for (int p = 0; p < n; p++) {
+            emitEdges(p, permutation.invert(p), rng, sink);
+        }
+    }
+    
+    /**
+     * Node weight of v: drawn from the weight range in the "node" model, else 0.
+     */
+    public int getNodeWeight(int v) {
+        if (!GraphView.NODE_WEIGHTS.equals(weightModel)) {
+            return 0;
+        }
+        int u = permutation.invert(v);
+        if (planted && chain[layerOf(u)] == u) {
+            return maxWeight + 1;
+        }
+        return new Rng(vertexSeed(u) ^ NODE_SALT).nextInt(minWeight, maxWeight);
+    }
+    
+    /**
+     * Materialize as a CsrGraph (for graphs that fit in memory).
+     */
+    public CsrGraph toCsr() {
+        CsrGraph.Builder builder = new CsrGraph.Builder(n, weightModel, Math.toIntExact(m));
+        try {
+            forEachEdge(builder::addEdge);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        for (int v = 0; v < n; v++) {
+            builder.setNodeWeight(v, getNodeWeight(v));
+        }
+        return builder.build();
+    }
+    
+    /**
+     * Write the JSON schema read by Graph.fromJsonFile / JsonGraphReader,
+     * streamed edge by edge. Extra keys record the planted answer.
+     */
+    public void writeJson(Path path) throws IOException {
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                Files.newOutputStream(path), StandardCharsets.UTF_8), 1 << 16);
+             JsonWriter json = new JsonWriter(out)) {
+            json.beginObject();
+            json.name("directed").value(true);
+            json.name("n").value(n);
+            json.name("weight_model").value(weightModel);
+            json.name("source").value(getSource());
+            json.name("seed").value(seed);
+            if (planted) {
+                json.name("critical_path_length").value(getCriticalPathLength());
+                json.name("critical_path").beginArray();
+                for (int v : getCriticalPath()) {
+                    json.value(v);
+                }
+                json.endArray();
+            }
+            json.name("edges").beginArray();
+            forEachEdge((u, v, w) -> json.beginObject()
+                .name("u").value(u).name("v").value(v).name("w").value(w).endObject());
+            json.endArray();
+            if (GraphView.NODE_WEIGHTS.equals(weightModel)) {
+                json.name("node_weights").beginArray();
+                for (int v = 0; v < n; v++) {
+                    json.value(getNodeWeight(v));
+                }
+                json.endArray();
+            }
+            json.endObject();
+        }
+    }
+    
+    public void writeBinary(Path path) throws IOException {
+        writeBinary(path, DEFAULT_BUDGET_BYTES);
+    }
+    
+    /**
+     * Write BinaryGraphFormat. The forward sections are streamed directly; the
+     * reverse sections are produced in target-range passes that regenerate the
+     * edges, each pass buffering at most memoryBudgetBytes.
+     */
+    public void writeBinary(Path path, long memoryBudgetBytes) throws IOException {
+        if (m > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Binary format holds at most " + Integer.MAX_VALUE + " edges");
+        }
+        int edgeCount = (int) m;
+        int[] inDegree = new int[n];
+        forEachEdge((u, v, w) -> inDegree[v]++);
+        
+        try (BinaryGraphFormat.StreamWriter out = new BinaryGraphFormat.StreamWriter(
+                path, n, edgeCount, weightModel, getSource())) {
+            for (int v = 0; v < n; v++) {
+                out.put(getNodeWeight(v));
+            }
+            
+            int offset = 0;
+            out.put(offset);
+            for (int p = 0; p < n; p++) {
+                offset += outDegree(permutation.invert(p));
+                out.put(offset);
+            }
+            forEachEdge((u, v, w) -> out.put(v));
+            forEachEdge((u, v, w) -> out.put(w));
+            
+            offset = 0;
+            out.put(offset);
+            for (int v = 0; v < n; v++) {
+                offset += inDegree[v];
+                out.put(offset);
+            }
+            int passCapacity = (int) Math.max(1, Math.min(Integer.MAX_VALUE - 8,
+                                                          memoryBudgetBytes / Integer.BYTES));
+            writeReverse(out, inDegree, passCapacity, true);
+            writeReverse(out, inDegree, passCapacity, false);
+        }
+    }
+    
+    // Reverse targets (or weights) for target ranges whose in-degree sum fits the buffer
+    private void writeReverse(BinaryGraphFormat.StreamWriter out, int[] inDegree, int capacity,
+                              boolean targets) throws IOException {
+        int lo = 0;
+        while (lo < n) {
+            int hi = lo;
+            long size = 0;
+            while (hi < n && (hi == lo || size + inDegree[hi] <= capacity)) {
+                size += inDegree[hi++];
+            }
+            int from = lo;
+            int to = hi;
+            int[] cursor = new int[to - from];
+            for (int v = from + 1; v < to; v++) {
+                cursor[v - from] = cursor[v - from - 1] + inDegree[v - 1];
+            }
+            int[] buffer = new int[(int) size];
+            forEachEdge((u, v, w) -> {
+                if (v >= from && v < to) {
+                    buffer[cursor[v - from]++] = targets ? u : w;
+                }
+            });
+            for (int value : buffer) {
+                out.put(value);
+            }
+            lo = hi;
+        }
+    }
+    
+    private int layerStart(int layer) {
+        return (int) ((long) layer * n / layers);
+    }
+    
+    private int layerOf(int u) {
+        int l = (int) ((long) u * layers / n);
+        while (layerStart(l + 1) <= u) {
+            l++;
+        }
+        while (layerStart(l) > u) {
+            l--;
+        }
+        return l;
+    }
+    
+    private long vertexSeed(int u) {
+        return seed ^ ((u + 1L) * GOLDEN);
+    }
+    
+    /**
+     * Out-degree of (unshuffled) vertex u; must agree with emitEdges.
+     */
+    private int outDegree(int u) {
+        int degree = 0;
+        int c = componentOf(u);
+        if (componentStart[c + 1] - componentStart[c] > 1) {
+            degree++;
+        }
+        int layer = layerOf(u);
+        if (planted && layer + 1 < layers && chain[layer] == u) {
+            degree++;
+        }
+        if (u < eligible) {
+            degree += (int) (randomEdges / eligible + (u < randomEdges % eligible ? 1 : 0));
+        }
+        return degree;
+    }
+    
+    private int componentOf(int u) {
+        int c = Arrays.binarySearch(componentStart, u);
+        return c >= 0 ? c : -c - 2;
+    }
+    
+    /**
+     * Edges of (unshuffled) vertex u, reported with shuffled ids (p is u's id).
+     * Order: ring edge, chain edge, then random forward edges.
+     */
+    private void emitEdges(int p, int u, Rng rng, EdgeSink sink) throws IOException {
+        rng.reset(vertexSeed(u));
+        int c = componentOf(u);
+        int start = componentStart[c];
+        int end = componentStart[c + 1];
+        if (end - start > 1) {
+            int next = u + 1 == end ? start : u + 1;
+            sink.edge(p, permutation.apply(next), rng.nextInt(minWeight, maxWeight));
+        }
+        int layer = layerOf(u);
+        if (planted && layer + 1 < layers && chain[layer] == u) {
+            int w = GraphView.NODE_WEIGHTS.equals(weightModel)
+                ? rng.nextInt(minWeight, maxWeight) : maxWeight + 1;
+            sink.edge(p, permutation.apply(chain[layer + 1]), w);
+        }
+        if (u < eligible) {
+            int count = (int) (randomEdges / eligible + (u < randomEdges % eligible ? 1 : 0));
+            int lo = layerStart(layer + 1);
+            int hi = layerStart(Math.min(layers, layer + 1 + layerSpan));
+            for (int i = 0; i < count; i++) {
+                int v = lo + rng.nextInt(hi - lo);
+                sink.edge(p, permutation.apply(v), rng.nextInt(minWeight, maxWeight));
+            }
+        }
+    }
+    
+    /**
+     * Configuration for WorkloadGenerator; every setter returns this.
+     */
+    public static final class Builder {
+        private final int vertices;
+        private final long edges;
+        private long seed = 42;
+        private int minScc = 1;
+        private int maxScc = 1;
+        private int layers = 1;
+        private int layerSpan = 1;
+        private int minWeight = 1;
+        private int maxWeight = 10;
+        private String weightModel = GraphView.EDGE_WEIGHTS;
+        private boolean plantCriticalPath = true;
+        private boolean shuffle = true;
+        
+        public Builder(int vertices, long edges) {
+            if (vertices < 1 || edges < 0) {
+                throw new IllegalArgumentException("Need vertices >= 1 and edges >= 0");
+            }
+            this.vertices = vertices;
+            this.edges = edges;
+            this.layers = (int) Math.max(1, Math.round(Math.sqrt(vertices)));
+        }
+        
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+        
+        /**
+         * Component sizes are drawn uniformly from [min, max]; (1, 1) gives a DAG.
+         */
+        public Builder sccSizes(int min, int max) {
+            if (min < 1 || max < min) {
+                throw new IllegalArgumentException("Invalid SCC size range [" + min + ", " + max + "]");
+            }
+            this.minScc = min;
+            this.maxScc = max;
+            return this;
+        }
+        
+        /**
+         * Depth of the condensation; defaults to sqrt(n).
+         */
+        public Builder layers(int layers) {
+            if (layers < 1 || layers > vertices) {
+                throw new IllegalArgumentException("Layers must be in [1, " + vertices + "]: " + layers);
+            }
+            this.layers = layers;
+            return this;
+        }
+        
+        /**
+         * Vertices per layer; sets layers = ceil(n / width).
+         */
+        public Builder width(int width) {
+            if (width < 1) {
+                throw new IllegalArgumentException("Width must be positive: " + width);
+            }
+            return layers((int) ((vertices + (long) width - 1) / width));
+        }
+        
+        /**
+         * How many layers ahead a random edge may jump (1 = next layer only).
+         */
+        public Builder layerSpan(int span) {
+            if (span < 1) {
+                throw new IllegalArgumentException("Layer span must be positive: " + span);
+            }
+            this.layerSpan = span;
+            return this;
+        }
+        
+        /**
+         * Edge (or node, in the "node" model) weights are uniform in [min, max].
+         */
+        public Builder weights(int min, int max) {
+            if (max < min || max == Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Invalid weight range [" + min + ", " + max + "]");
+            }
+            this.minWeight = min;
+            this.maxWeight = max;
+            return this;
+        }
+        
+        public Builder weightModel(String weightModel) {
+            if (!GraphView.EDGE_WEIGHTS.equals(weightModel) && !GraphView.NODE_WEIGHTS.equals(weightModel)) {
+                throw new IllegalArgumentException("Unknown weight model: " + weightModel);
+            }
+            this.weightModel = weightModel;
+            return this;
+        }
+        
+        public Builder plantCriticalPath(boolean plant) {
+            this.plantCriticalPath = plant;
+            return this;
+        }
+        
+        /**
+         * Shuffle vertex ids (default) so ids carry no topological hint.
+         */
+        public Builder shuffle(boolean shuffle) {
+            this.shuffle = shuffle;
+            return this;
+        }
+        
+        public WorkloadGenerator build() {
+            if (plantCriticalPath && maxScc > 1 && GraphView.NODE_WEIGHTS.equals(weightModel)) {
+                // Condensed node weights are member sums, which can outweigh the chain
+                throw new IllegalArgumentException("A planted path in the node model needs sccSizes(1, 1)");
+            }
+            return new WorkloadGenerator(this);
+        }
+    }
+    
+    /**
+     * SplitMix64.
+     */
+    private static final class Rng {
+        private long state;
+        
+        Rng(long seed) {
+            this.state = seed;
+        }
+        
+        void reset(long seed) {
+            this.state = seed;
+        }
+        
+        long nextLong() {
+            long z = (state += GOLDEN);
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
+        }
+        
+        /**
+         * Uniform in [0, bound).
+         */
+        int nextInt(int bound) {
+            return (int) ((nextLong() >>> 1) % bound);
+        }
+        
+        /**
+         * Uniform in [min, max].
+         */
+        int nextInt(int min, int max) {
+            return (int) (min + (nextLong() >>> 1) % ((long) max - min + 1));
+        }
+    }
+    
+    /**
+     * Seeded bijection on [0, n): a 4-round Feistel network over the next
+     * even power of two, cycle-walked back into range. O(1) memory.
+     */
+    private static final class Permutation {
+        private final int n;
+        private final long key;
+        private final boolean enabled;
+        private final int half;
+        private final long mask;
+        
+        Permutation(int n, long key, boolean enabled) {
+            this.n = n;
+            this.key = key;
+            this.enabled = enabled;
+            int bits = Math.max(2, 64 - Long.numberOfLeadingZeros(Math.max(1, n - 1)));
+            this.half = (bits + 1) / 2;
+            this.mask = (1L << half) - 1;
+        }
+        
+        int apply(int x) {
+            if (!enabled) {
+                return x;
+            }
+            long y = x;
+            do {
+                y = encrypt(y);
+            } while (y >= n);
+            return (int) y;
+        }
+        
+        int invert(int y) {
+            if (!enabled) {
+                return y;
+            }
+            long x = y;
+            do {
+                x = decrypt(x);
+            } while (x >= n);
+            return (int) x;
+        }
+        
+        private long encrypt(long x) {
+            long l = x >>> half;
+            long r = x & mask;
+            for (int round = 0; round < 4; round++) {
+                long next = l ^ (round(r, round) & mask);
+                l = r;
+                r = next;
+            }
+            return (l << half) | r;
+        }
+        
+        private long decrypt(long y) {
+            long l = y >>> half;
+            long r = y & mask;
+            for (int round = 3; round >= 0; round--) {
+                long prev = r ^ (round(l, round) & mask);
+                r = l;
+                l = prev;
+            }
+            return (l << half) | r;
+        }
+        
+        private long round(long value, int round) {
+            long z = value * GOLDEN + key + round * 0x632BE59BD9B4E019L;
+            z = (z ^ (z >>> 31)) * 0xBF58476D1CE4E5B9L;
+            return z ^ (z >>> 29);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package graph.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pre-registered counter handle obtained from Metrics.counter(name).
+ * Backed by a LongAdder, so concurrent updates from worker threads do not
+ * contend; no map lookup or boxing happens per update.
+ */
+public final class Counter {
+    static final Counter NOOP = new Counter("noop", null);
+    
+    private final String name;
+    private final LongAdder adder;
+    
+    Counter(String name, LongAdder adder) {
+        this.name = name;
+        this.adder = adder;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void increment() {
+        if (adder != null) {
+            adder.increment();
+        }
+    }
+    
+    public void add(long delta) {
+        if (adder != null) {
+            adder.add(delta);
+        }
+    }
+    
+    public long get() {
+        return adder == null ? 0 : adder.sum();
+    }
+}
@@ -0,0 +1,48 @@
+package graph.metrics;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Writes each snapshot as a JSON document, replacing the file atomically:
+ * {"timestamp_ms": ..., "time_ms": ..., "counters": {...},
+ *  "spans": {"path": {"count": ..., "total_ms": ...}}}
+ */
+public class JsonSnapshotSink implements MetricsSink {
+    private final Path file;
+    
+    public JsonSnapshotSink(Path file) {
+        this.file = file;
+    }
+    
+    @Override
+    public void write(MetricsSnapshot snapshot) throws IOException {
+        AtomicFiles.write(file, format(snapshot));
+    }
+    
+    public String format(MetricsSnapshot snapshot) {
+        JsonObject root = new JsonObject();
+        root.addProperty("timestamp_ms", snapshot.timestampMillis);
+        root.addProperty("time_ms", snapshot.timeMs);
+        
+        JsonObject counters = new JsonObject();
+        for (Map.Entry<String, Long> e : snapshot.counters.entrySet()) {
+            counters.addProperty(e.getKey(), e.getValue());
+        }
+        root.add("counters", counters);
+        
+        JsonObject spans = new JsonObject();
+        for (Map.Entry<String, MetricsSnapshot.SpanTotals> e : snapshot.spans.entrySet()) {
+            JsonObject span = new JsonObject();
+            span.addProperty("count", e.getValue().count);
+            span.addProperty("total_ms", e.getValue().getTotalMs());
+            spans.add(e.getKey(), span);
+        }
+        root.add("spans", spans);
+        
+        return new GsonBuilder().setPrettyPrinting().create().toJson(root) + "\n";
+    }
+}
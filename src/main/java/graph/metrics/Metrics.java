@@ -1,42 +1,168 @@
 package graph.metrics;
 
-import java.util.HashMap;
+import java.io.IOException;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Performance metrics collector.
  * Tracks operation counts and execution time.
+ * Thread-safe: counters are LongAdder-backed handles registered once via
+ * counter(name); hot loops should hold the handle (or count locally and
+ * add once) instead of calling increment(name) per edge. Named spans nest
+ * per thread, and startTimer/stopTimer use the same per-thread stack, so
+ * concurrent timers never mix one thread's start with another's stop.
+ * NOOP discards everything, so instrumentation left in place costs only a
+ * predictable branch.
  */
 public class Metrics {
-    private final Map<String, Long> counters = new HashMap<>();
-    private long startTime;
-    private long endTime;
+    /** Shared instance that records nothing. */
+    public static final Metrics NOOP = new Metrics(false);
     
+    private final boolean enabled;
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder[]> spans = new ConcurrentHashMap<>();
+    private final ThreadLocal<Span> currentSpan = new ThreadLocal<>();
+    private volatile long lastTimerNanos;
+    
+    public Metrics() {
+        this(true);
+    }
+    
+    private Metrics(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * Start an unnamed timer on this thread's span stack. Spans opened before
+     * the matching stopTimer nest as if the timer were not there. Call
+     * stopTimer in a finally block, or a failure leaves the timer on the stack.
+     */
     public void startTimer() {
-        startTime = System.nanoTime();
+        if (enabled) {
+            Span parent = currentSpan.get();
+            currentSpan.set(new Span(this, parent, parent == null ? null : parent.getPath(), true));
+        }
     }
     
+    /**
+     * Stop the innermost timer started on this thread; getTimeMs then reports it.
+     */
     public void stopTimer() {
-        endTime = System.nanoTime();
+        if (!enabled) {
+            return;
+        }
+        for (Span span = currentSpan.get(); span != null; span = span.getParent()) {
+            if (span.isTimer()) {
+                span.close();
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Handle for the named counter, created on first use.
+     */
+    public Counter counter(String name) {
+        if (!enabled) {
+            return Counter.NOOP;
+        }
+        return counters.computeIfAbsent(name, k -> new Counter(k, new LongAdder()));
     }
     
     public void increment(String counter) {
-        counters.put(counter, counters.getOrDefault(counter, 0L) + 1);
+        counter(counter).increment();
+    }
+    
+    public void add(String counter, long delta) {
+        counter(counter).add(delta);
     }
     
     public long get(String counter) {
-        return counters.getOrDefault(counter, 0L);
+        Counter c = counters.get(counter);
+        return c == null ? 0 : c.get();
     }
     
+    /**
+     * Duration of the most recently stopped timer, on any thread.
+     */
     public double getTimeMs() {
-        return (endTime - startTime) / 1_000_000.0;
+        return lastTimerNanos / 1_000_000.0;
+    }
+    
+    /**
+     * Open a timing span; close it (try-with-resources) to record its duration.
+     * Nested under the span currently open on this thread, if any.
+     */
+    public Span span(String name) {
+        if (!enabled) {
+            return Span.NOOP;
+        }
+        Span parent = currentSpan.get();
+        String path = parent == null || parent.getPath() == null ? name : parent.getPath() + "/" + name;
+        Span span = new Span(this, parent, path, false);
+        currentSpan.set(span);
+        return span;
+    }
+    
+    void endSpan(Span span, long nanos) {
+        if (span.isTimer()) {
+            lastTimerNanos = nanos;
+        } else {
+            LongAdder[] totals = spans.computeIfAbsent(span.getPath(),
+                                                       k -> new LongAdder[] {new LongAdder(), new LongAdder()});
+            totals[0].increment();
+            totals[1].add(nanos);
+        }
+        // stopTimer also drops spans left open inside the timer
+        if (span.isTimer() || currentSpan.get() == span) {
+            if (span.getParent() == null) {
+                currentSpan.remove();
+            } else {
+                currentSpan.set(span.getParent());
+            }
+        }
+    }
+    
+    /**
+     * Total nanoseconds recorded under a span path ("outer/inner").
+     */
+    public long getSpanNanos(String path) {
+        LongAdder[] totals = spans.get(path);
+        return totals == null ? 0 : totals[1].sum();
+    }
+    
+    public long getSpanCount(String path) {
+        LongAdder[] totals = spans.get(path);
+        return totals == null ? 0 : totals[0].sum();
+    }
+    
+    public MetricsSnapshot snapshot() {
+        TreeMap<String, Long> counterValues = new TreeMap<>();
+        counters.forEach((k, c) -> counterValues.put(k, c.get()));
+        TreeMap<String, MetricsSnapshot.SpanTotals> spanValues = new TreeMap<>();
+        spans.forEach((k, t) -> spanValues.put(k, new MetricsSnapshot.SpanTotals(t[0].sum(), t[1].sum())));
+        return new MetricsSnapshot(System.currentTimeMillis(), getTimeMs(), counterValues, spanValues);
+    }
+    
+    public void export(MetricsSink sink) throws IOException {
+        sink.write(snapshot());
     }
     
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder("Metrics:\n");
         sb.append(String.format("  Time: %.3f ms\n", getTimeMs()));
-        counters.forEach((k, v) -> sb.append(String.format("  %s: %d\n", k, v)));
+        MetricsSnapshot snapshot = snapshot();
+        snapshot.counters.forEach((k, v) -> sb.append(String.format("  %s: %d\n", k, v)));
+        snapshot.spans.forEach((k, v) -> sb.append(String.format("  [%s] %.3f ms (%d)\n",
+                                                                 k, v.getTotalMs(), v.count)));
         return sb.toString();
     }
 }
@@ -0,0 +1,10 @@
+package graph.metrics;
+
+import java.io.IOException;
+
+/**
+ * Destination for metrics snapshots (see Metrics.export).
+ */
+public interface MetricsSink {
+    void write(MetricsSnapshot snapshot) throws IOException;
+}
@@ -0,0 +1,41 @@
+package graph.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Immutable point-in-time copy of a Metrics instance, handed to sinks.
+ * Maps are sorted by name so exported files diff cleanly.
+ */
+public final class MetricsSnapshot {
+    public final long timestampMillis;
+    public final double timeMs;
+    public final Map<String, Long> counters;
+    public final Map<String, SpanTotals> spans;
+    
+    MetricsSnapshot(long timestampMillis, double timeMs,
+                    SortedMap<String, Long> counters, SortedMap<String, SpanTotals> spans) {
+        this.timestampMillis = timestampMillis;
+        this.timeMs = timeMs;
+        this.counters = Collections.unmodifiableMap(counters);
+        this.spans = Collections.unmodifiableMap(spans);
+    }
+    
+    /**
+     * Number of completed executions of a span and their summed duration.
+     */
+    public static class SpanTotals {
+        public final long count;
+        public final long totalNanos;
+        
+        public SpanTotals(long count, long totalNanos) {
+            this.count = count;
+            this.totalNanos = totalNanos;
+        }
+        
+        public double getTotalMs() {
+            return totalNanos / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package graph.metrics;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Writes snapshots in the Prometheus text exposition format to a local file,
+ * e.g. for the node_exporter textfile collector. The file is replaced
+ * atomically so a scraper never sees a partial write.
+ * Counters become {prefix}_{name}_total; spans become
+ * {prefix}_span_seconds_total and {prefix}_span_count_total labelled by span path.
+ */
+public class PrometheusTextSink implements MetricsSink {
+    private final Path file;
+    private final String prefix;
+    
+    public PrometheusTextSink(Path file) {
+        this(file, "dag_scheduler");
+    }
+    
+    public PrometheusTextSink(Path file, String prefix) {
+        this.file = file;
+        this.prefix = sanitize(prefix);
+    }
+    
+    @Override
+    public void write(MetricsSnapshot snapshot) throws IOException {
+        AtomicFiles.write(file, format(snapshot));
+    }
+    
+    public String format(MetricsSnapshot snapshot) {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Long> e : snapshot.counters.entrySet()) {
+            String name = prefix + "_" + sanitize(e.getKey()) + "_total";
+            sb.append("# TYPE ").append(name).append(" counter\n");
+            sb.append(name).append(' ').append(e.getValue()).append('\n');
+        }
+        if (!snapshot.spans.isEmpty()) {
+            String seconds = prefix + "_span_seconds_total";
+            String count = prefix + "_span_count_total";
+            sb.append("# TYPE ").append(seconds).append(" counter\n");
+            for (Map.Entry<String, MetricsSnapshot.SpanTotals> e : snapshot.spans.entrySet()) {
+                sb.append(seconds).append("{span=\"").append(escape(e.getKey())).append("\"} ")
+                  .append(e.getValue().totalNanos / 1e9).append('\n');
+            }
+            sb.append("# TYPE ").append(count).append(" counter\n");
+            for (Map.Entry<String, MetricsSnapshot.SpanTotals> e : snapshot.spans.entrySet()) {
+                sb.append(count).append("{span=\"").append(escape(e.getKey())).append("\"} ")
+                  .append(e.getValue().count).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+    
+    private static String sanitize(String name) {
+        String cleaned = name.replaceAll("[^a-zA-Z0-9_]", "_");
+        return Character.isDigit(cleaned.charAt(0)) ? "_" + cleaned : cleaned;
+    }
+    
+    private static String escape(String label) {
+        return label.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,53 @@
+package graph.metrics;
+
+/**
+ * Named timing span opened by Metrics.span(name), meant for try-with-resources.
+ * Spans opened while another span is open on the same thread nest under it:
+ * their recorded name is "parent/child".
+ */
+public final class Span implements AutoCloseable {
+    static final Span NOOP = new Span(null, null, null, false);
+    
+    private final Metrics owner;
+    private final Span parent;
+    private final String path;
+    private final boolean timer;
+    private final long startNanos;
+    private boolean closed;
+    
+    Span(Metrics owner, Span parent, String path, boolean timer) {
+        this.owner = owner;
+        this.parent = parent;
+        this.path = path;
+        this.timer = timer;
+        this.startNanos = owner == null ? 0 : System.nanoTime();
+    }
+    
+    /**
+     * Full slash-separated name including enclosing spans.
+     */
+    public String getPath() {
+        return path;
+    }
+    
+    Span getParent() {
+        return parent;
+    }
+    
+    /**
+     * True for the unnamed spans behind Metrics.startTimer; they take their
+     * parent's path and are not recorded by name.
+     */
+    boolean isTimer() {
+        return timer;
+    }
+    
+    @Override
+    public void close() {
+        if (owner == null || closed) {
+            return;
+        }
+        closed = true;
+        owner.endSpan(this, System.nanoTime() - startNanos);
+    }
+}
@@ -0,0 +1,227 @@
+package graph.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Versioned binary graph file, read back zero-copy by MappedGraph.
+ * Layout (little-endian, all fields 4-byte ints):
+ * <pre>
+ *   header:  magic, version, n, m, weightModel (0 edge, 1 node), source (-1 none), 0, 0
+ *   body:    nodeWeights[n], offsets[n + 1], targets[m], weights[m],
+ *            revOffsets[n + 1], revTargets[m], revWeights[m]
+ * </pre>
+ * Every section is int-aligned, so the reader can view it as an IntBuffer.
+ */
+public final class BinaryGraphFormat {
+    public static final int MAGIC = 0x47474144; // "DAGG" in little-endian byte order
+    public static final int VERSION = 1;
+    static final int HEADER_BYTES = 8 * Integer.BYTES;
+    static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+    private static final int WRITE_BUFFER_BYTES = 1 << 16;
+    
+    private BinaryGraphFormat() {
+    }
+    
+    /**
+     * Write any graph view (and optional source vertex) to path, atomically
+     * replacing the file (see StreamWriter).
+     */
+    public static void write(GraphView graph, Integer source, Path path) throws IOException {
+        int n = graph.getVertexCount();
+        try (StreamWriter out = new StreamWriter(path, n, graph.getEdgeCount(),
+                                                 graph.getWeightModel(), source)) {
+            for (int v = 0; v < n; v++) {
+                out.put(graph.getNodeWeight(v));
+            }
+            
+            int offset = 0;
+            out.put(offset);
+            for (int u = 0; u < n; u++) {
+                offset += graph.getOutDegree(u);
+                out.put(offset);
+            }
+            for (int u = 0; u < n; u++) {
+                for (int i = 0; i < graph.getOutDegree(u); i++) {
+                    out.put(graph.getTarget(u, i));
+                }
+            }
+            for (int u = 0; u < n; u++) {
+                for (int i = 0; i < graph.getOutDegree(u); i++) {
+                    out.put(graph.getWeight(u, i));
+                }
+            }
+            
+            offset = 0;
+            out.put(offset);
+            for (int v = 0; v < n; v++) {
+                offset += graph.getInDegree(v);
+                out.put(offset);
+            }
+            for (int v = 0; v < n; v++) {
+                for (int i = 0; i < graph.getInDegree(v); i++) {
+                    out.put(graph.getReverseTarget(v, i));
+                }
+            }
+            for (int v = 0; v < n; v++) {
+                for (int i = 0; i < graph.getInDegree(v); i++) {
+                    out.put(graph.getReverseWeight(v, i));
+                }
+            }
+        }
+    }
+    
+    /**
+     * Expected file size in bytes for n vertices and m edges.
+     */
+    static long fileSize(int n, int m) {
+        return HEADER_BYTES + Integer.BYTES * (3L * n + 2 + 4L * m);
+    }
+    
+    static int encodeWeightModel(String weightModel) {
+        if (GraphView.EDGE_WEIGHTS.equals(weightModel)) {
+            return 0;
+        }
+        if (GraphView.NODE_WEIGHTS.equals(weightModel)) {
+            return 1;
+        }
+        throw new IllegalArgumentException("Unknown weight model: " + weightModel);
+    }
+    
+    static String decodeWeightModel(int code) throws IOException {
+        switch (code) {
+            case 0:
+                return GraphView.EDGE_WEIGHTS;
+            case 1:
+                return GraphView.NODE_WEIGHTS;
+            default:
+                throw new IOException("Unknown weight model code: " + code);
+        }
+    }
+    
+    /**
+     * Validated header of an existing file; checks the magic, version and file size.
+     */
+    static final class Header {
+        final int n;
+        final int m;
+        final String weightModel;
+        final Integer source;
+        
+        Header(FileChannel channel, Path path) throws IOException {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IOException("Not a binary graph file: " + path);
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ORDER);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) {
+                    throw new IOException("Not a binary graph file: " + path);
+                }
+            }
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException("Not a binary graph file: " + path);
+            }
+            int version = header.getInt(4);
+            if (version != VERSION) {
+                throw new IOException("Unsupported binary graph version " + version + ": " + path);
+            }
+            this.n = header.getInt(8);
+            this.m = header.getInt(12);
+            this.weightModel = decodeWeightModel(header.getInt(16));
+            int src = header.getInt(20);
+            this.source = src < 0 ? null : src;
+            if (n < 0 || m < 0 || channel.size() != fileSize(n, m)) {
+                throw new IOException("Truncated or corrupt binary graph file: " + path);
+            }
+        }
+    }
+    
+    /**
+     * Sequential writer for producers that stream a graph without holding it.
+     * The header is written on construction; the caller then puts every body
+     * section in layout order. Output goes to a temporary sibling file that
+     * close() syncs and renames over path only if the int count matches, so
+     * processes that have the old file mapped keep their pages and a failed
+     * or interrupted write never leaves a partial file at path.
+     */
+    public static final class StreamWriter implements Closeable {
+        private final Path path;
+        private final Path tmp;
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES).order(ORDER);
+        private final long expectedInts;
+        private long written;
+        private boolean closed;
+        
+        public StreamWriter(Path path, int n, int m, String weightModel, Integer source)
+                throws IOException {
+            if (n < 0 || m < 0) {
+                throw new IllegalArgumentException("Negative size: n=" + n + ", m=" + m);
+            }
+            int model = encodeWeightModel(weightModel);
+            this.path = path;
+            this.tmp = Files.createTempFile(path.toAbsolutePath().getParent(),
+                                            path.getFileName().toString(), ".tmp");
+            try {
+                this.channel = FileChannel.open(tmp, StandardOpenOption.WRITE);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(tmp);
+                throw e;
+            }
+            this.expectedInts = fileSize(n, m) / Integer.BYTES;
+            put(MAGIC);
+            put(VERSION);
+            put(n);
+            put(m);
+            put(model);
+            put(source == null ? -1 : source);
+            put(0);
+            put(0);
+        }
+        
+        public void put(int value) throws IOException {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            buffer.putInt(value);
+            written++;
+        }
+        
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+        
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                try {
+                    flush();
+                    if (written != expectedInts) {
+                        throw new IOException("Wrote " + written + " ints, layout needs " + expectedInts);
+                    }
+                    channel.force(false);
+                } finally {
+                    channel.close();
+                }
+                Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package graph.model;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Immutable compressed sparse row (CSR) graph.
+ * Forward and reverse adjacency are stored in primitive arrays:
+ * the edges of u occupy [offsets[u], offsets[u + 1]) of targets/weights.
+ * Space: O(V + E) ints, no per-edge objects.
+ */
+public final class CsrGraph implements GraphView {
+    private final int n;
+    private final String weightModel;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] weights;
+    private final int[] revOffsets;
+    private final int[] revTargets;
+    private final int[] revWeights;
+    private final int[] nodeWeights;
+    
+    private CsrGraph(int n, String weightModel,
+                     int[] offsets, int[] targets, int[] weights,
+                     int[] revOffsets, int[] revTargets, int[] revWeights,
+                     int[] nodeWeights) {
+        this.n = n;
+        this.weightModel = weightModel;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.revOffsets = revOffsets;
+        this.revTargets = revTargets;
+        this.revWeights = revWeights;
+        this.nodeWeights = nodeWeights;
+    }
+    
+    /**
+     * Wrap ready-made forward CSR arrays (offsets has n + 1 entries) and derive
+     * the reverse adjacency. The arrays are adopted, not copied.
+     */
+    public static CsrGraph fromForward(int n, String weightModel,
+                                       int[] offsets, int[] targets, int[] weights) {
+        return fromForward(n, weightModel, offsets, targets, weights, new int[n]);
+    }
+    
+    public static CsrGraph fromForward(int n, String weightModel, int[] offsets,
+                                       int[] targets, int[] weights, int[] nodeWeights) {
+        if (nodeWeights.length != n) {
+            throw new IllegalArgumentException("Expected " + n + " node weights");
+        }
+        if (offsets.length != n + 1 || targets.length != offsets[n] || weights.length != offsets[n]) {
+            throw new IllegalArgumentException("Inconsistent CSR arrays for " + n + " vertices");
+        }
+        int m = targets.length;
+        int[] revOffsets = new int[n + 1];
+        for (int e = 0; e < m; e++) {
+            revOffsets[targets[e] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            revOffsets[v + 1] += revOffsets[v];
+        }
+        int[] cursor = Arrays.copyOf(revOffsets, n);
+        int[] revTargets = new int[m];
+        int[] revWeights = new int[m];
+        for (int u = 0; u < n; u++) {
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int slot = cursor[targets[e]]++;
+                revTargets[slot] = u;
+                revWeights[slot] = weights[e];
+            }
+        }
+        return new CsrGraph(n, weightModel, offsets, targets, weights,
+                            revOffsets, revTargets, revWeights, nodeWeights);
+    }
+    
+    /**
+     * Copy any graph view (e.g. an adjacency-list Graph) into CSR form.
+     * Edge order per vertex is preserved in both directions.
+     */
+    public static CsrGraph copyOf(GraphView graph) {
+        if (graph instanceof CsrGraph) {
+            return (CsrGraph) graph;
+        }
+        Builder builder = new Builder(graph.getVertexCount(), graph.getWeightModel(),
+                                      graph.getEdgeCount());
+        for (int u = 0; u < graph.getVertexCount(); u++) {
+            int degree = graph.getOutDegree(u);
+            for (int i = 0; i < degree; i++) {
+                builder.addEdge(u, graph.getTarget(u, i), graph.getWeight(u, i));
+            }
+            builder.setNodeWeight(u, graph.getNodeWeight(u));
+        }
+        return builder.build();
+    }
+    
+    @Override
+    public int getVertexCount() {
+        return n;
+    }
+    
+    @Override
+    public int getEdgeCount() {
+        return targets.length;
+    }
+    
+    @Override
+    public String getWeightModel() {
+        return weightModel;
+    }
+    
+    @Override
+    public long getModificationCount() {
+        return 0;
+    }
+    
+    @Override
+    public int getNodeWeight(int v) {
+        return nodeWeights[v];
+    }
+    
+    @Override
+    public int getOutDegree(int u) {
+        return offsets[u + 1] - offsets[u];
+    }
+    
+    @Override
+    public int getTarget(int u, int i) {
+        return targets[offsets[u] + i];
+    }
+    
+    @Override
+    public int getWeight(int u, int i) {
+        return weights[offsets[u] + i];
+    }
+    
+    @Override
+    public int getInDegree(int v) {
+        return revOffsets[v + 1] - revOffsets[v];
+    }
+    
+    @Override
+    public int getReverseTarget(int v, int i) {
+        return revTargets[revOffsets[v] + i];
+    }
+    
+    @Override
+    public int getReverseWeight(int v, int i) {
+        return revWeights[revOffsets[v] + i];
+    }
+    
+    @Override
+    public String toString() {
+        return "CsrGraph: " + n + " nodes, " + targets.length + " edges";
+    }
+    
+    /**
+     * Mutable edge accumulator for CsrGraph.
+     * Edges are buffered in primitive arrays and bucketed by counting sort in build().
+     */
+    public static final class Builder {
+        private final int n;
+        private final String weightModel;
+        private int[] from;
+        private int[] to;
+        private int[] weight;
+        private final int[] nodeWeights;
+        private int size;
+        
+        public Builder(int n, String weightModel) {
+            this(n, weightModel, 16);
+        }
+        
+        public Builder(int n, String weightModel, int expectedEdges) {
+            if (n < 0) {
+                throw new IllegalArgumentException("Negative vertex count: " + n);
+            }
+            this.n = n;
+            this.weightModel = weightModel;
+            int capacity = Math.max(expectedEdges, 1);
+            this.from = new int[capacity];
+            this.to = new int[capacity];
+            this.weight = new int[capacity];
+            this.nodeWeights = new int[n];
+        }
+        
+        public Builder addEdge(int u, int v, int w) {
+            Objects.checkIndex(u, n);
+            Objects.checkIndex(v, n);
+            if (size == from.length) {
+                int capacity = Math.max(size + (size >> 1), size + 1);
+                from = Arrays.copyOf(from, capacity);
+                to = Arrays.copyOf(to, capacity);
+                weight = Arrays.copyOf(weight, capacity);
+            }
+            from[size] = u;
+            to[size] = v;
+            weight[size] = w;
+            size++;
+            return this;
+        }
+        
+        public Builder setNodeWeight(int v, int w) {
+            nodeWeights[v] = w;
+            return this;
+        }
+        
+        public int getVertexCount() {
+            return n;
+        }
+        
+        public int getEdgeCount() {
+            return size;
+        }
+        
+        public CsrGraph build() {
+            int[] offsets = new int[n + 1];
+            int[] targets = new int[size];
+            int[] weights = new int[size];
+            bucket(from, to, offsets, targets, weights);
+            
+            int[] revOffsets = new int[n + 1];
+            int[] revTargets = new int[size];
+            int[] revWeights = new int[size];
+            bucket(to, from, revOffsets, revTargets, revWeights);
+            
+            return new CsrGraph(n, weightModel, offsets, targets, weights,
+                                revOffsets, revTargets, revWeights, nodeWeights.clone());
+        }
+        
+        // Stable counting sort of edges by key; keeps insertion order per vertex.
+        private void bucket(int[] keys, int[] values, int[] offsets,
+                            int[] outValues, int[] outWeights) {
+            for (int e = 0; e < size; e++) {
+                offsets[keys[e] + 1]++;
+            }
+            for (int v = 0; v < n; v++) {
+                offsets[v + 1] += offsets[v];
+            }
+            int[] cursor = Arrays.copyOf(offsets, n);
+            for (int e = 0; e < size; e++) {
+                int slot = cursor[keys[e]]++;
+                outValues[slot] = values[e];
+                outWeights[slot] = weight[e];
+            }
+        }
+    }
+}
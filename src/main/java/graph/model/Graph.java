@@ -1,27 +1,27 @@
 package graph.model;
 
-import com.google.gson.Gson;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
-import java.io.FileReader;
 import java.io.IOException;
 import java.util.*;
 
 /**
  * Graph representation with adjacency lists.
  * Supports loading from JSON files.
+ * Implements GraphView so algorithms accept it interchangeably with CsrGraph.
  */
-public class Graph {
+public class Graph implements GraphView {
     private final int n;
     private final List<List<Edge>> adj;
     private final List<List<Edge>> revAdj;
     private final String weightModel;
+    private final int[] nodeWeights;
+    private long modCount;
     
     public Graph(int n, String weightModel) {
         this.n = n;
         this.weightModel = weightModel;
         this.adj = new ArrayList<>();
         this.revAdj = new ArrayList<>();
+        this.nodeWeights = new int[n];
         
         for (int i = 0; i < n; i++) {
             adj.add(new ArrayList<>());
@@ -32,6 +32,38 @@ public class Graph {
     public void addEdge(int u, int v, int weight) {
         adj.get(u).add(new Edge(u, v, weight));
         revAdj.get(v).add(new Edge(v, u, weight));
+        modCount++;
+    }
+    
+    /**
+     * Set the duration of task v (used by the "node" weight model).
+     */
+    public void setNodeWeight(int v, int weight) {
+        nodeWeights[v] = weight;
+        modCount++;
+    }
+    
+    /**
+     * Remove one edge u -> v (the earliest added if there are parallel edges).
+     * Returns false if no such edge exists.
+     */
+    public boolean removeEdge(int u, int v) {
+        List<Edge> out = adj.get(u);
+        for (int i = 0; i < out.size(); i++) {
+            if (out.get(i).to == v) {
+                out.remove(i);
+                List<Edge> in = revAdj.get(v);
+                for (int j = 0; j < in.size(); j++) {
+                    if (in.get(j).to == u) {
+                        in.remove(j);
+                        break;
+                    }
+                }
+                modCount++;
+                return true;
+            }
+        }
+        return false;
     }
     
     public List<Edge> getNeighbors(int u) {
@@ -42,10 +74,64 @@ public class Graph {
         return revAdj.get(u);
     }
     
+    @Override
     public int getVertexCount() {
         return n;
     }
     
+    @Override
+    public String getWeightModel() {
+        return weightModel;
+    }
+    
+    @Override
+    public long getModificationCount() {
+        return modCount;
+    }
+    
+    @Override
+    public int getNodeWeight(int v) {
+        return nodeWeights[v];
+    }
+    
+    @Override
+    public int getOutDegree(int u) {
+        return adj.get(u).size();
+    }
+    
+    @Override
+    public int getTarget(int u, int i) {
+        return adj.get(u).get(i).to;
+    }
+    
+    @Override
+    public int getWeight(int u, int i) {
+        return adj.get(u).get(i).weight;
+    }
+    
+    @Override
+    public int getInDegree(int v) {
+        return revAdj.get(v).size();
+    }
+    
+    @Override
+    public int getReverseTarget(int v, int i) {
+        return revAdj.get(v).get(i).to;
+    }
+    
+    @Override
+    public int getReverseWeight(int v, int i) {
+        return revAdj.get(v).get(i).weight;
+    }
+    
+    /**
+     * Freeze this graph into an immutable CSR copy.
+     */
+    public CsrGraph toCsr() {
+        return CsrGraph.copyOf(this);
+    }
+    
+    @Override
     public int getEdgeCount() {
         int count = 0;
         for (List<Edge> edges : adj) {
@@ -64,31 +150,11 @@ public class Graph {
      *   "source": 0,
      *   "weight_model": "edge"
      * }
+     * An optional "node_weights" array gives per-vertex durations for the "node" model.
+     * Parsed by the streaming JsonGraphReader; no JSON tree is built.
      */
     public static GraphData fromJsonFile(String filename) throws IOException {
-        try (FileReader reader = new FileReader(filename)) {
-            Gson gson = new Gson();
-            JsonObject json = gson.fromJson(reader, JsonObject.class);
-            
-            int n = json.get("n").getAsInt();
-            String weightModel = json.has("weight_model") ? 
-                               json.get("weight_model").getAsString() : "edge";
-            
-            Graph graph = new Graph(n, weightModel);
-            
-            JsonArray edges = json.getAsJsonArray("edges");
-            for (int i = 0; i < edges.size(); i++) {
-                JsonObject edge = edges.get(i).getAsJsonObject();
-                int u = edge.get("u").getAsInt();
-                int v = edge.get("v").getAsInt();
-                int w = edge.get("w").getAsInt();
-                graph.addEdge(u, v, w);
-            }
-            
-            Integer source = json.has("source") ? json.get("source").getAsInt() : null;
-            
-            return new GraphData(graph, source);
-        }
+        return JsonGraphReader.loadAdjacency(filename);
     }
     
     public static class GraphData {
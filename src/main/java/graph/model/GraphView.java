@@ -0,0 +1,60 @@
+package graph.model;
+
+/**
+ * Read-only view of a directed weighted graph.
+ * Edges are addressed by vertex and local index, so algorithms can
+ * iterate forward and reverse adjacency without allocating.
+ */
+public interface GraphView {
+    /** Path cost is the sum of edge weights. */
+    String EDGE_WEIGHTS = "edge";
+    /** Path cost is the sum of vertex (task duration) weights. */
+    String NODE_WEIGHTS = "node";
+    
+    int getVertexCount();
+    
+    int getEdgeCount();
+    
+    String getWeightModel();
+    
+    /**
+     * Counter bumped on every structural change; immutable views return a constant.
+     * Lets callers detect that cached derived data (orders, results) is stale.
+     */
+    long getModificationCount();
+    
+    /**
+     * Weight (duration) of vertex v; 0 unless set.
+     */
+    int getNodeWeight(int v);
+    
+    /**
+     * Number of outgoing edges of u.
+     */
+    int getOutDegree(int u);
+    
+    /**
+     * Target of the i-th outgoing edge of u.
+     */
+    int getTarget(int u, int i);
+    
+    /**
+     * Weight of the i-th outgoing edge of u.
+     */
+    int getWeight(int u, int i);
+    
+    /**
+     * Number of incoming edges of v.
+     */
+    int getInDegree(int v);
+    
+    /**
+     * Source of the i-th incoming edge of v.
+     */
+    int getReverseTarget(int v, int i);
+    
+    /**
+     * Weight of the i-th incoming edge of v.
+     */
+    int getReverseWeight(int v, int i);
+}
@@ -0,0 +1,130 @@
+package graph.model;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * An int array outside the Java heap: a file mapping or direct memory, split
+ * into chunks of at most 1 GB to stay below the 2 GB limit of one buffer.
+ */
+final class IntRegion {
+    /** Ints per chunk (1 GB). */
+    static final int CHUNK_SHIFT = 28;
+    private static final int CHUNK_MASK = (1 << CHUNK_SHIFT) - 1;
+    
+    // sun.misc.Unsafe.invokeCleaner releases direct memory without waiting for GC
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+    
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> type = Class.forName("sun.misc.Unsafe");
+            Field field = type.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+            invokeCleaner = type.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Fall back to freeing when the buffers are collected
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+    
+    private final int length;
+    private final ByteBuffer[] bytes;
+    private final IntBuffer[] chunks;
+    
+    private IntRegion(int length) {
+        this.length = length;
+        int count = (int) (((long) length + CHUNK_MASK) >>> CHUNK_SHIFT);
+        this.bytes = new ByteBuffer[count];
+        this.chunks = new IntBuffer[count];
+    }
+    
+    private static long chunkInts(int length, int chunk) {
+        return Math.min(1L << CHUNK_SHIFT, length - ((long) chunk << CHUNK_SHIFT));
+    }
+    
+    /**
+     * Map length ints of a file starting at byte position, read-only.
+     */
+    static IntRegion map(FileChannel channel, long position, int length) throws IOException {
+        IntRegion region = new IntRegion(length);
+        for (int c = 0; c < region.chunks.length; c++) {
+            long first = (long) c << CHUNK_SHIFT;
+            region.bytes[c] = channel.map(FileChannel.MapMode.READ_ONLY,
+                                          position + first * Integer.BYTES,
+                                          chunkInts(length, c) * Integer.BYTES)
+                                     .order(BinaryGraphFormat.ORDER);
+            region.chunks[c] = region.bytes[c].asIntBuffer();
+        }
+        return region;
+    }
+    
+    /**
+     * Zero-filled direct memory for length ints.
+     */
+    static IntRegion allocate(int length) {
+        IntRegion region = new IntRegion(length);
+        for (int c = 0; c < region.chunks.length; c++) {
+            region.bytes[c] = ByteBuffer.allocateDirect((int) chunkInts(length, c) * Integer.BYTES)
+                                        .order(BinaryGraphFormat.ORDER);
+            region.chunks[c] = region.bytes[c].asIntBuffer();
+        }
+        return region;
+    }
+    
+    /**
+     * Fill an allocated region from length ints of a file starting at byte position.
+     */
+    void readFrom(FileChannel channel, long position) throws IOException {
+        for (int c = 0; c < bytes.length; c++) {
+            ByteBuffer target = bytes[c].duplicate();
+            target.clear();
+            long offset = position + ((long) c << CHUNK_SHIFT) * Integer.BYTES;
+            while (target.hasRemaining()) {
+                int read = channel.read(target, offset + target.position());
+                if (read < 0) {
+                    throw new EOFException("Unexpected end of file at byte " + (offset + target.position()));
+                }
+            }
+        }
+    }
+    
+    long byteSize() {
+        return (long) length * Integer.BYTES;
+    }
+    
+    int get(int index) {
+        return chunks[index >>> CHUNK_SHIFT].get(index & CHUNK_MASK);
+    }
+    
+    void set(int index, int value) {
+        chunks[index >>> CHUNK_SHIFT].put(index & CHUNK_MASK, value);
+    }
+    
+    /**
+     * Release direct memory now. The region must not be used afterwards.
+     */
+    void free() {
+        for (int c = 0; c < bytes.length; c++) {
+            ByteBuffer buffer = bytes[c];
+            bytes[c] = null;
+            chunks[c] = null;
+            if (buffer != null && buffer.isDirect() && INVOKE_CLEANER != null) {
+                try {
+                    INVOKE_CLEANER.invoke(UNSAFE, buffer);
+                } catch (ReflectiveOperationException | RuntimeException e) {
+                    // Left to the garbage collector
+                }
+            }
+        }
+    }
+}
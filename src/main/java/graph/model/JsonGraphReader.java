@@ -0,0 +1,255 @@
+package graph.model;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import graph.metrics.Metrics;
+import graph.util.IntList;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * Streaming loader for the JSON graph format (see Graph.fromJsonFile).
+ * Tokens are pulled with Gson's JsonReader straight into primitive edge
+ * buffers, so no JsonObject tree is ever built. When "n" precedes "edges"
+ * it is used to pre-size the buffers. Peak heap is the edge buffer plus the
+ * forward CSR arrays, dropping to the final CsrGraph size once built.
+ */
+public final class JsonGraphReader {
+    private static final int READ_BUFFER_CHARS = 1 << 16;
+    private static final int EXPECTED_DEGREE = 2;
+    
+    private int n = -1;
+    private String weightModel = GraphView.EDGE_WEIGHTS;
+    private Integer source;
+    private IntList from;
+    private IntList to;
+    private IntList weight;
+    private IntList nodeWeights;
+    
+    private JsonGraphReader() {
+    }
+    
+    /**
+     * Load a JSON graph file into an immutable CSR graph.
+     */
+    public static LoadResult load(String filename) throws IOException {
+        return load(filename, new Metrics());
+    }
+    
+    /**
+     * Load a JSON graph file into an immutable CSR graph, recording
+     * bytes_read, edges_loaded and the elapsed time in metrics.
+     */
+    public static LoadResult load(String filename, Metrics metrics) throws IOException {
+        Path path = Paths.get(filename);
+        long bytes = Files.size(path);
+        metrics.startTimer();
+        try {
+            long start = System.nanoTime();
+            
+            JsonGraphReader parsed = parse(path);
+            CsrGraph graph = parsed.toCsr();
+            
+            long elapsed = System.nanoTime() - start;
+            metrics.add("bytes_read", bytes);
+            metrics.add("edges_loaded", graph.getEdgeCount());
+            return new LoadResult(graph, parsed.source, bytes, elapsed);
+        } finally {
+            metrics.stopTimer();
+        }
+    }
+    
+    /**
+     * Load a JSON graph file into a mutable adjacency-list Graph.
+     */
+    static Graph.GraphData loadAdjacency(String filename) throws IOException {
+        JsonGraphReader parsed = parse(Paths.get(filename));
+        Graph graph = new Graph(parsed.n, parsed.weightModel);
+        for (int e = 0; e < parsed.from.size(); e++) {
+            graph.addEdge(parsed.from.get(e), parsed.to.get(e), parsed.weight.get(e));
+        }
+        for (int v = 0; v < parsed.nodeWeights.size(); v++) {
+            graph.setNodeWeight(v, parsed.nodeWeights.get(v));
+        }
+        return new Graph.GraphData(graph, parsed.source);
+    }
+    
+    private static JsonGraphReader parse(Path path) throws IOException {
+        try (Reader reader = new BufferedReader(new InputStreamReader(
+                Files.newInputStream(path), StandardCharsets.UTF_8), READ_BUFFER_CHARS);
+             JsonReader json = new JsonReader(reader)) {
+            JsonGraphReader parsed = new JsonGraphReader();
+            parsed.read(json);
+            return parsed;
+        }
+    }
+    
+    private void read(JsonReader json) throws IOException {
+        json.beginObject();
+        while (json.hasNext()) {
+            switch (json.nextName()) {
+                case "n":
+                    n = json.nextInt();
+                    break;
+                case "weight_model":
+                    weightModel = json.nextString();
+                    break;
+                case "source":
+                    if (json.peek() == JsonToken.NULL) {
+                        json.nextNull();
+                    } else {
+                        source = json.nextInt();
+                    }
+                    break;
+                case "edges":
+                    readEdges(json);
+                    break;
+                case "node_weights":
+                    readNodeWeights(json);
+                    break;
+                default:
+                    json.skipValue();
+            }
+        }
+        json.endObject();
+        
+        if (n < 0) {
+            throw new IOException("Missing vertex count \"n\"");
+        }
+        if (from == null) {
+            from = new IntList(1);
+            to = new IntList(1);
+            weight = new IntList(1);
+        }
+        if (nodeWeights == null) {
+            nodeWeights = new IntList(1);
+        }
+        if (nodeWeights.size() > n) {
+            throw new IOException("More node weights than vertices");
+        }
+    }
+    
+    private void readEdges(JsonReader json) throws IOException {
+        int capacity = n > 0 ? n * EXPECTED_DEGREE : 1024;
+        from = new IntList(capacity);
+        to = new IntList(capacity);
+        weight = new IntList(capacity);
+        
+        json.beginArray();
+        while (json.hasNext()) {
+            int u = -1;
+            int v = -1;
+            int w = 0;
+            boolean weighted = false;
+            json.beginObject();
+            while (json.hasNext()) {
+                switch (json.nextName()) {
+                    case "u":
+                        u = json.nextInt();
+                        break;
+                    case "v":
+                        v = json.nextInt();
+                        break;
+                    case "w":
+                        w = json.nextInt();
+                        weighted = true;
+                        break;
+                    default:
+                        json.skipValue();
+                }
+            }
+            json.endObject();
+            if (u < 0 || v < 0) {
+                throw new IOException("Edge " + from.size() + " is missing \"u\" or \"v\"");
+            }
+            if (!weighted) {
+                throw new IOException("Edge " + from.size() + " is missing \"w\"");
+            }
+            from.add(u);
+            to.add(v);
+            weight.add(w);
+        }
+        json.endArray();
+    }
+    
+    private void readNodeWeights(JsonReader json) throws IOException {
+        nodeWeights = new IntList(Math.max(n, 16));
+        json.beginArray();
+        while (json.hasNext()) {
+            nodeWeights.add(json.nextInt());
+        }
+        json.endArray();
+    }
+    
+    /**
+     * Bucket the edge buffer into forward CSR, release it, then derive reverse adjacency.
+     */
+    private CsrGraph toCsr() throws IOException {
+        int m = from.size();
+        int[] offsets = new int[n + 1];
+        for (int e = 0; e < m; e++) {
+            int u = from.get(e);
+            int v = to.get(e);
+            if (u >= n || v >= n) {
+                throw new IOException("Edge " + u + "->" + v + " out of range for n=" + n);
+            }
+            offsets[u + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] cursor = Arrays.copyOf(offsets, n);
+        int[] targets = new int[m];
+        int[] weights = new int[m];
+        for (int e = 0; e < m; e++) {
+            int slot = cursor[from.get(e)]++;
+            targets[slot] = to.get(e);
+            weights[slot] = weight.get(e);
+        }
+        from = null;
+        to = null;
+        weight = null;
+        
+        int[] durations = Arrays.copyOf(nodeWeights.toArray(), n);
+        return CsrGraph.fromForward(n, weightModel, offsets, targets, weights, durations);
+    }
+    
+    /**
+     * Loaded graph plus parse throughput.
+     */
+    public static class LoadResult {
+        public final CsrGraph graph;
+        public final Integer source;
+        public final long bytesRead;
+        public final long elapsedNanos;
+        
+        public LoadResult(CsrGraph graph, Integer source, long bytesRead, long elapsedNanos) {
+            this.graph = graph;
+            this.source = source;
+            this.bytesRead = bytesRead;
+            this.elapsedNanos = elapsedNanos;
+        }
+        
+        public double getMegabytesPerSecond() {
+            return elapsedNanos == 0 ? 0 : bytesRead / 1e6 / (elapsedNanos / 1e9);
+        }
+        
+        public double getEdgesPerSecond() {
+            return elapsedNanos == 0 ? 0 : graph.getEdgeCount() / (elapsedNanos / 1e9);
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("Loaded %d nodes, %d edges in %.3f ms (%.1f MB/s, %.0f edges/s)",
+                                 graph.getVertexCount(), graph.getEdgeCount(), elapsedNanos / 1e6,
+                                 getMegabytesPerSecond(), getEdgesPerSecond());
+        }
+    }
+}
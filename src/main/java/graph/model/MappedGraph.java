@@ -0,0 +1,130 @@
+package graph.model;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only graph served straight from a memory-mapped BinaryGraphFormat file.
+ * Nothing is copied onto the heap: adjacency is read from the page cache,
+ * so opening is O(1) in the edge count and processes mapping the same file
+ * share its pages. Sections are mapped in chunks of at most 1 GB to stay
+ * below the 2 GB limit of a single mapping.
+ */
+public final class MappedGraph implements GraphView {
+    private final Path path;
+    private final int n;
+    private final int m;
+    private final String weightModel;
+    private final Integer source;
+    private final IntRegion nodeWeights;
+    private final IntRegion offsets;
+    private final IntRegion targets;
+    private final IntRegion weights;
+    private final IntRegion revOffsets;
+    private final IntRegion revTargets;
+    private final IntRegion revWeights;
+    
+    private MappedGraph(Path path, FileChannel channel) throws IOException {
+        this.path = path;
+        BinaryGraphFormat.Header header = new BinaryGraphFormat.Header(channel, path);
+        this.n = header.n;
+        this.m = header.m;
+        this.weightModel = header.weightModel;
+        this.source = header.source;
+        
+        long position = BinaryGraphFormat.HEADER_BYTES;
+        this.nodeWeights = IntRegion.map(channel, position, n);
+        position += 4L * n;
+        this.offsets = IntRegion.map(channel, position, n + 1);
+        position += 4L * (n + 1);
+        this.targets = IntRegion.map(channel, position, m);
+        position += 4L * m;
+        this.weights = IntRegion.map(channel, position, m);
+        position += 4L * m;
+        this.revOffsets = IntRegion.map(channel, position, n + 1);
+        position += 4L * (n + 1);
+        this.revTargets = IntRegion.map(channel, position, m);
+        position += 4L * m;
+        this.revWeights = IntRegion.map(channel, position, m);
+    }
+    
+    /**
+     * Map a file written by BinaryGraphFormat.write. The file must not be
+     * modified while mapped.
+     */
+    public static MappedGraph open(Path path) throws IOException {
+        // Mappings stay valid after the channel is closed
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new MappedGraph(path, channel);
+        }
+    }
+    
+    /**
+     * Source vertex stored in the file, or null.
+     */
+    public Integer getSource() {
+        return source;
+    }
+    
+    @Override
+    public int getVertexCount() {
+        return n;
+    }
+    
+    @Override
+    public int getEdgeCount() {
+        return m;
+    }
+    
+    @Override
+    public String getWeightModel() {
+        return weightModel;
+    }
+    
+    @Override
+    public long getModificationCount() {
+        return 0;
+    }
+    
+    @Override
+    public int getNodeWeight(int v) {
+        return nodeWeights.get(v);
+    }
+    
+    @Override
+    public int getOutDegree(int u) {
+        return offsets.get(u + 1) - offsets.get(u);
+    }
+    
+    @Override
+    public int getTarget(int u, int i) {
+        return targets.get(offsets.get(u) + i);
+    }
+    
+    @Override
+    public int getWeight(int u, int i) {
+        return weights.get(offsets.get(u) + i);
+    }
+    
+    @Override
+    public int getInDegree(int v) {
+        return revOffsets.get(v + 1) - revOffsets.get(v);
+    }
+    
+    @Override
+    public int getReverseTarget(int v, int i) {
+        return revTargets.get(revOffsets.get(v) + i);
+    }
+    
+    @Override
+    public int getReverseWeight(int v, int i) {
+        return revWeights.get(revOffsets.get(v) + i);
+    }
+    
+    @Override
+    public String toString() {
+        return "MappedGraph: " + n + " nodes, " + m + " edges (" + path + ")";
+    }
+}
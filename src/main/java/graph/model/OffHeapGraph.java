@@ -0,0 +1,210 @@
+package graph.model;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Immutable CSR graph whose arrays live in direct memory, outside the Java heap.
+ * The heap holds a few dozen small objects whatever the edge count, so GC
+ * pauses do not grow with the graph. Memory is released by close() rather
+ * than by the collector; the JVM must allow enough direct memory
+ * (-XX:MaxDirectMemorySize, which defaults to the maximum heap size).
+ * Arrays are split into 1 GB chunks, so graphs up to Integer.MAX_VALUE edges fit.
+ * The graph must not be closed while an algorithm is still reading it.
+ * Afterwards getVertexCount() and getEdgeCount() throw IllegalStateException,
+ * so an algorithm started on a closed graph fails before reading any edge.
+ * The per-vertex and per-edge accessors are not checked, which keeps a
+ * volatile read out of the hot loops; they must not be called after close().
+ */
+public final class OffHeapGraph implements GraphView, AutoCloseable {
+    private final int n;
+    private final int m;
+    private final String weightModel;
+    private final Integer source;
+    private final IntRegion nodeWeights;
+    private final IntRegion offsets;
+    private final IntRegion targets;
+    private final IntRegion weights;
+    private final IntRegion revOffsets;
+    private final IntRegion revTargets;
+    private final IntRegion revWeights;
+    private volatile boolean closed;
+    
+    private OffHeapGraph(int n, int m, String weightModel, Integer source) {
+        this.n = n;
+        this.m = m;
+        this.weightModel = weightModel;
+        this.source = source;
+        this.nodeWeights = IntRegion.allocate(n);
+        this.offsets = IntRegion.allocate(n + 1);
+        this.targets = IntRegion.allocate(m);
+        this.weights = IntRegion.allocate(m);
+        this.revOffsets = IntRegion.allocate(n + 1);
+        this.revTargets = IntRegion.allocate(m);
+        this.revWeights = IntRegion.allocate(m);
+    }
+    
+    /**
+     * Copy any graph view into direct memory. Copying from a MappedGraph moves
+     * a file-backed graph off the page cache without touching the heap.
+     */
+    public static OffHeapGraph copyOf(GraphView graph) {
+        int n = graph.getVertexCount();
+        OffHeapGraph copy = new OffHeapGraph(n, graph.getEdgeCount(), graph.getWeightModel(), null);
+        int offset = 0;
+        int revOffset = 0;
+        for (int v = 0; v < n; v++) {
+            copy.nodeWeights.set(v, graph.getNodeWeight(v));
+            copy.offsets.set(v, offset);
+            int degree = graph.getOutDegree(v);
+            for (int i = 0; i < degree; i++) {
+                copy.targets.set(offset, graph.getTarget(v, i));
+                copy.weights.set(offset, graph.getWeight(v, i));
+                offset++;
+            }
+            copy.revOffsets.set(v, revOffset);
+            int inDegree = graph.getInDegree(v);
+            for (int i = 0; i < inDegree; i++) {
+                copy.revTargets.set(revOffset, graph.getReverseTarget(v, i));
+                copy.revWeights.set(revOffset, graph.getReverseWeight(v, i));
+                revOffset++;
+            }
+        }
+        copy.offsets.set(n, offset);
+        copy.revOffsets.set(n, revOffset);
+        return copy;
+    }
+    
+    /**
+     * Read a BinaryGraphFormat file into direct memory. Unlike MappedGraph the
+     * file may be deleted or rewritten afterwards.
+     */
+    public static OffHeapGraph load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            BinaryGraphFormat.Header header = new BinaryGraphFormat.Header(channel, path);
+            OffHeapGraph graph = new OffHeapGraph(header.n, header.m, header.weightModel, header.source);
+            try {
+                long position = BinaryGraphFormat.HEADER_BYTES;
+                for (IntRegion region : graph.regions()) {
+                    region.readFrom(channel, position);
+                    position += region.byteSize();
+                }
+            } catch (IOException | RuntimeException e) {
+                graph.close();
+                throw e;
+            }
+            return graph;
+        }
+    }
+    
+    // In file section order
+    private IntRegion[] regions() {
+        return new IntRegion[]{nodeWeights, offsets, targets, weights, revOffsets, revTargets, revWeights};
+    }
+    
+    /**
+     * Source vertex stored in the loaded file, or null.
+     */
+    public Integer getSource() {
+        return source;
+    }
+    
+    /**
+     * Direct memory held by this graph in bytes.
+     */
+    public long getOffHeapBytes() {
+        long bytes = 0;
+        for (IntRegion region : regions()) {
+            bytes += region.byteSize();
+        }
+        return bytes;
+    }
+    
+    public boolean isClosed() {
+        return closed;
+    }
+    
+    /**
+     * Release the direct memory immediately. Idempotent.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (IntRegion region : regions()) {
+            region.free();
+        }
+    }
+    
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("OffHeapGraph is closed");
+        }
+    }
+    
+    @Override
+    public int getVertexCount() {
+        ensureOpen();
+        return n;
+    }
+    
+    @Override
+    public int getEdgeCount() {
+        ensureOpen();
+        return m;
+    }
+    
+    @Override
+    public String getWeightModel() {
+        return weightModel;
+    }
+    
+    @Override
+    public long getModificationCount() {
+        return 0;
+    }
+    
+    @Override
+    public int getNodeWeight(int v) {
+        return nodeWeights.get(v);
+    }
+    
+    @Override
+    public int getOutDegree(int u) {
+        return offsets.get(u + 1) - offsets.get(u);
+    }
+    
+    @Override
+    public int getTarget(int u, int i) {
+        return targets.get(offsets.get(u) + i);
+    }
+    
+    @Override
+    public int getWeight(int u, int i) {
+        return weights.get(offsets.get(u) + i);
+    }
+    
+    @Override
+    public int getInDegree(int v) {
+        return revOffsets.get(v + 1) - revOffsets.get(v);
+    }
+    
+    @Override
+    public int getReverseTarget(int v, int i) {
+        return revTargets.get(revOffsets.get(v) + i);
+    }
+    
+    @Override
+    public int getReverseWeight(int v, int i) {
+        return revWeights.get(revOffsets.get(v) + i);
+    }
+    
+    @Override
+    public String toString() {
+        return "OffHeapGraph: " + n + " nodes, " + m + " edges" + (closed ? " (closed)" : "");
+    }
+}
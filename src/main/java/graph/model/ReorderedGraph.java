@@ -0,0 +1,288 @@
+package graph.model;
+
+import java.util.*;
+
+/**
+ * A graph relabelled for memory locality, plus the id maps to translate back.
+ * Ids that come from asset numbers scatter neighbours across the CSR arrays, so
+ * every DFS step is a cache miss; after relabelling, vertices visited close
+ * together in time sit close together in memory.
+ * Strategies: BFS (breadth-first over edges in both directions), RCM (reverse
+ * Cuthill-McKee: BFS from a minimum-degree vertex, neighbours by increasing
+ * degree, reversed) and TOPOLOGICAL (Kahn order, acyclic graphs only).
+ * Build once and reuse: relabelling costs O(V + E) plus an O(V + E) copy.
+ * TarjanSCC and TopologicalSort accept a ReorderedGraph directly and return
+ * results in original ids.
+ */
+public final class ReorderedGraph {
+    public enum Strategy { BFS, RCM, TOPOLOGICAL }
+    
+    private final CsrGraph graph;
+    private final Strategy strategy;
+    private final int[] toNew;
+    private final int[] toOriginal;
+    
+    private ReorderedGraph(CsrGraph graph, Strategy strategy, int[] toNew, int[] toOriginal) {
+        this.graph = graph;
+        this.strategy = strategy;
+        this.toNew = toNew;
+        this.toOriginal = toOriginal;
+    }
+    
+    /**
+     * Relabel graph by strategy.
+     * Throws IllegalStateException("Graph has cycles!") for TOPOLOGICAL on a cyclic graph.
+     */
+    public static ReorderedGraph of(GraphView graph, Strategy strategy) {
+        return build(graph, strategy, order(graph, strategy));
+    }
+    
+    /**
+     * Relabel graph so that new vertex k is original vertex order[k].
+     */
+    public static ReorderedGraph of(GraphView graph, int[] order) {
+        return build(graph, null, order);
+    }
+    
+    private static ReorderedGraph build(GraphView graph, Strategy strategy, int[] order) {
+        int n = graph.getVertexCount();
+        if (order.length != n) {
+            throw new IllegalArgumentException("Expected an order of " + n + " vertices");
+        }
+        int[] toNew = new int[n];
+        Arrays.fill(toNew, -1);
+        for (int k = 0; k < n; k++) {
+            if (toNew[order[k]] != -1) {
+                throw new IllegalArgumentException("Vertex listed twice: " + order[k]);
+            }
+            toNew[order[k]] = k;
+        }
+        
+        // Edge order per vertex is kept, so traversals make the same choices
+        int[] offsets = new int[n + 1];
+        int[] nodeWeights = new int[n];
+        for (int k = 0; k < n; k++) {
+            offsets[k + 1] = offsets[k] + graph.getOutDegree(order[k]);
+            nodeWeights[k] = graph.getNodeWeight(order[k]);
+        }
+        int[] targets = new int[offsets[n]];
+        int[] weights = new int[offsets[n]];
+        for (int k = 0; k < n; k++) {
+            int u = order[k];
+            int e = offsets[k];
+            int degree = graph.getOutDegree(u);
+            for (int i = 0; i < degree; i++, e++) {
+                targets[e] = toNew[graph.getTarget(u, i)];
+                weights[e] = graph.getWeight(u, i);
+            }
+        }
+        CsrGraph permuted = CsrGraph.fromForward(n, graph.getWeightModel(), offsets,
+                                                 targets, weights, nodeWeights);
+        return new ReorderedGraph(permuted, strategy, toNew, order.clone());
+    }
+    
+    /**
+     * New-to-original order for a strategy, without building the graph.
+     */
+    public static int[] order(GraphView graph, Strategy strategy) {
+        switch (strategy) {
+            case BFS:
+                return breadthFirst(graph, false);
+            case RCM:
+                return breadthFirst(graph, true);
+            case TOPOLOGICAL:
+                return topological(graph);
+            default:
+                throw new IllegalArgumentException("Unknown strategy: " + strategy);
+        }
+    }
+    
+    private static int degree(GraphView graph, int v) {
+        return graph.getOutDegree(v) + graph.getInDegree(v);
+    }
+    
+    // BFS over the undirected view; RCM starts each component at its lowest-degree
+    // vertex, visits neighbours by increasing degree, and reverses the result
+    private static int[] breadthFirst(GraphView graph, boolean cuthillMcKee) {
+        int n = graph.getVertexCount();
+        int[] order = new int[n];
+        boolean[] visited = new boolean[n];
+        int[] starts = cuthillMcKee ? verticesByDegree(graph) : null;
+        long[] scratch = cuthillMcKee ? new long[16] : null;
+        int tail = 0;
+        
+        for (int s = 0; s < n; s++) {
+            int root = cuthillMcKee ? starts[s] : s;
+            if (visited[root]) {
+                continue;
+            }
+            visited[root] = true;
+            order[tail++] = root;
+            for (int head = tail - 1; head < tail; head++) {
+                int u = order[head];
+                int first = tail;
+                int out = graph.getOutDegree(u);
+                for (int i = 0; i < out; i++) {
+                    int v = graph.getTarget(u, i);
+                    if (!visited[v]) {
+                        visited[v] = true;
+                        order[tail++] = v;
+                    }
+                }
+                int in = graph.getInDegree(u);
+                for (int i = 0; i < in; i++) {
+                    int v = graph.getReverseTarget(u, i);
+                    if (!visited[v]) {
+                        visited[v] = true;
+                        order[tail++] = v;
+                    }
+                }
+                if (cuthillMcKee && tail - first > 1) {
+                    scratch = sortByDegree(graph, order, first, tail, scratch);
+                }
+            }
+        }
+        if (cuthillMcKee) {
+            for (int i = 0, j = n - 1; i < j; i++, j--) {
+                int t = order[i];
+                order[i] = order[j];
+                order[j] = t;
+            }
+        }
+        return order;
+    }
+    
+    // Counting sort of all vertices by undirected degree
+    private static int[] verticesByDegree(GraphView graph) {
+        int n = graph.getVertexCount();
+        int maxDegree = 0;
+        for (int v = 0; v < n; v++) {
+            maxDegree = Math.max(maxDegree, degree(graph, v));
+        }
+        int[] count = new int[maxDegree + 2];
+        for (int v = 0; v < n; v++) {
+            count[degree(graph, v) + 1]++;
+        }
+        for (int d = 0; d <= maxDegree; d++) {
+            count[d + 1] += count[d];
+        }
+        int[] sorted = new int[n];
+        for (int v = 0; v < n; v++) {
+            sorted[count[degree(graph, v)]++] = v;
+        }
+        return sorted;
+    }
+    
+    // Sort order[from, to) by (degree, id) using packed long keys
+    private static long[] sortByDegree(GraphView graph, int[] order, int from, int to, long[] scratch) {
+        int size = to - from;
+        if (scratch.length < size) {
+            scratch = new long[Math.max(size, scratch.length * 2)];
+        }
+        for (int i = 0; i < size; i++) {
+            int v = order[from + i];
+            scratch[i] = ((long) degree(graph, v) << 32) | v;
+        }
+        Arrays.sort(scratch, 0, size);
+        for (int i = 0; i < size; i++) {
+            order[from + i] = (int) scratch[i];
+        }
+        return scratch;
+    }
+    
+    private static int[] topological(GraphView graph) {
+        int n = graph.getVertexCount();
+        int[] remaining = new int[n];
+        int[] order = new int[n];
+        int tail = 0;
+        for (int v = 0; v < n; v++) {
+            remaining[v] = graph.getInDegree(v);
+            if (remaining[v] == 0) {
+                order[tail++] = v;
+            }
+        }
+        for (int head = 0; head < tail; head++) {
+            int u = order[head];
+            int degree = graph.getOutDegree(u);
+            for (int i = 0; i < degree; i++) {
+                int v = graph.getTarget(u, i);
+                if (--remaining[v] == 0) {
+                    order[tail++] = v;
+                }
+            }
+        }
+        if (tail != n) {
+            throw new IllegalStateException("Graph has cycles!");
+        }
+        return order;
+    }
+    
+    /**
+     * The relabelled graph; run algorithms on it and translate results back.
+     */
+    public CsrGraph getGraph() {
+        return graph;
+    }
+    
+    /**
+     * Strategy used, or null for a caller-supplied order.
+     */
+    public Strategy getStrategy() {
+        return strategy;
+    }
+    
+    public int toNew(int original) {
+        return toNew[original];
+    }
+    
+    public int toOriginal(int reordered) {
+        return toOriginal[reordered];
+    }
+    
+    /**
+     * Map a list of new ids (a path, an order, a component) to original ids.
+     */
+    public List<Integer> toOriginal(List<Integer> reordered) {
+        List<Integer> result = new ArrayList<>(reordered.size());
+        for (int v : reordered) {
+            result.add(toOriginal[v]);
+        }
+        return result;
+    }
+    
+    /**
+     * Map an array of new ids to original ids.
+     */
+    public int[] toOriginalIds(int[] reordered) {
+        int[] result = new int[reordered.length];
+        for (int i = 0; i < reordered.length; i++) {
+            result[i] = toOriginal[reordered[i]];
+        }
+        return result;
+    }
+    
+    /**
+     * Re-index a per-vertex array (distances, component ids) from new ids to original ids.
+     */
+    public int[] toOriginalIndex(int[] byNewId) {
+        int[] result = new int[byNewId.length];
+        for (int k = 0; k < byNewId.length; k++) {
+            result[toOriginal[k]] = byNewId[k];
+        }
+        return result;
+    }
+    
+    public long[] toOriginalIndex(long[] byNewId) {
+        long[] result = new long[byNewId.length];
+        for (int k = 0; k < byNewId.length; k++) {
+            result[toOriginal[k]] = byNewId[k];
+        }
+        return result;
+    }
+    
+    @Override
+    public String toString() {
+        return "ReorderedGraph (" + (strategy == null ? "custom" : strategy) + "): "
+            + graph.getVertexCount() + " nodes, " + graph.getEdgeCount() + " edges";
+    }
+}
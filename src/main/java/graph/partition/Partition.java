@@ -0,0 +1,191 @@
+package graph.partition;
+
+import graph.model.GraphView;
+import graph.model.ReorderedGraph;
+import java.util.*;
+
+/**
+ * A graph split into shards, each owning a set of vertices and the edges
+ * leaving them. Edges between shards are cut and recorded in both shards'
+ * boundary tables. Strategies:
+ * - VERTEX_RANGE: contiguous id ranges;
+ * - EDGE_CUT: consecutive runs of a breadth-first order, which keeps
+ *   neighbourhoods together and cuts fewer edges when ids are scattered.
+ * Both balance shards by vertices plus out-edges. A Partition holds the owner
+ * table and each shard's vertex list (a few ints per vertex) and reads the
+ * source graph, which must stay available, whenever a shard body is built.
+ * getShard builds one body per call, so ShardCluster ships shards one at a
+ * time and keeps only the owner table afterwards.
+ */
+public final class Partition {
+    public enum Strategy { VERTEX_RANGE, EDGE_CUT }
+    
+    private final int n;
+    private final String weightModel;
+    private final Strategy strategy;
+    private final GraphView graph;
+    private final int[] owner;
+    private final int[] local;
+    private final int[][] vertices;
+    private final long cutEdges;
+    
+    private Partition(GraphView graph, Strategy strategy, int[] owner, int[] local, int[][] vertices,
+                      long cutEdges) {
+        this.n = graph.getVertexCount();
+        this.weightModel = graph.getWeightModel();
+        this.strategy = strategy;
+        this.graph = graph;
+        this.owner = owner;
+        this.local = local;
+        this.vertices = vertices;
+        this.cutEdges = cutEdges;
+    }
+    
+    /**
+     * Split graph into shardCount shards (fewer if the graph has fewer vertices).
+     * Only the assignment is computed here; graph must stay readable (in memory
+     * or mapped, e.g. a MappedGraph) until every shard has been built.
+     */
+    public static Partition of(GraphView graph, int shardCount, Strategy strategy) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("shardCount must be positive: " + shardCount);
+        }
+        int n = graph.getVertexCount();
+        int[] order = strategy == Strategy.EDGE_CUT ? ReorderedGraph.order(graph, ReorderedGraph.Strategy.BFS) : null;
+        int[] owner = new int[n];
+        int[] sizes = new int[Math.max(1, Math.min(shardCount, n))];
+        int shards = sizes.length;
+        
+        // Close a shard once it holds its share of vertices + edges
+        long total = (long) n + graph.getEdgeCount();
+        long load = 0;
+        int s = 0;
+        for (int k = 0; k < n; k++) {
+            int v = order != null ? order[k] : k;
+            if (s < shards - 1 && load >= total * (s + 1) / shards && sizes[s] > 0) {
+                s++;
+            }
+            owner[v] = s;
+            sizes[s]++;
+            load += 1 + graph.getOutDegree(v);
+        }
+        
+        int[][] vertices = new int[shards][];
+        int[] local = new int[n];
+        for (int i = 0; i < shards; i++) {
+            vertices[i] = new int[sizes[i]];
+        }
+        int[] fill = new int[shards];
+        for (int v = 0; v < n; v++) {
+            local[v] = fill[owner[v]];
+            vertices[owner[v]][fill[owner[v]]++] = v;
+        }
+        
+        long cut = 0;
+        for (int u = 0; u < n; u++) {
+            int degree = graph.getOutDegree(u);
+            for (int e = 0; e < degree; e++) {
+                if (owner[graph.getTarget(u, e)] != owner[u]) {
+                    cut++;
+                }
+            }
+        }
+        return new Partition(graph, strategy, owner, local, vertices, cut);
+    }
+    
+    private Shard buildShard(int id) {
+        int[] vertices = this.vertices[id];
+        int size = vertices.length;
+        int[] nodeWeights = new int[size];
+        int[] offsets = new int[size + 1];
+        int[] cutOffsets = new int[size + 1];
+        int[] cutInDegree = new int[size];
+        for (int i = 0; i < size; i++) {
+            int u = vertices[i];
+            nodeWeights[i] = graph.getNodeWeight(u);
+            int internal = 0;
+            int degree = graph.getOutDegree(u);
+            for (int e = 0; e < degree; e++) {
+                if (owner[graph.getTarget(u, e)] == id) {
+                    internal++;
+                }
+            }
+            offsets[i + 1] = offsets[i] + internal;
+            cutOffsets[i + 1] = cutOffsets[i] + degree - internal;
+            int inDegree = graph.getInDegree(u);
+            for (int e = 0; e < inDegree; e++) {
+                if (owner[graph.getReverseTarget(u, e)] != id) {
+                    cutInDegree[i]++;
+                }
+            }
+        }
+        int[] targets = new int[offsets[size]];
+        int[] weights = new int[offsets[size]];
+        int[] cutTargets = new int[cutOffsets[size]];
+        int[] cutWeights = new int[cutOffsets[size]];
+        for (int i = 0; i < size; i++) {
+            int u = vertices[i];
+            int e = offsets[i];
+            int c = cutOffsets[i];
+            int degree = graph.getOutDegree(u);
+            for (int j = 0; j < degree; j++) {
+                int v = graph.getTarget(u, j);
+                if (owner[v] == id) {
+                    targets[e] = local[v];
+                    weights[e++] = graph.getWeight(u, j);
+                } else {
+                    cutTargets[c] = v;
+                    cutWeights[c++] = graph.getWeight(u, j);
+                }
+            }
+        }
+        return new Shard(id, graph.getWeightModel(), vertices, nodeWeights, offsets, targets, weights,
+                         cutOffsets, cutTargets, cutWeights, cutInDegree);
+    }
+    
+    public int getVertexCount() {
+        return n;
+    }
+    
+    public String getWeightModel() {
+        return weightModel;
+    }
+    
+    public Strategy getStrategy() {
+        return strategy;
+    }
+    
+    public int getShardCount() {
+        return vertices.length;
+    }
+    
+    /**
+     * Build shard i from the source graph. Not cached: each call reads the
+     * shard's vertices and edges again and returns a new Shard.
+     */
+    public Shard getShard(int i) {
+        return buildShard(i);
+    }
+    
+    public int getOwner(int vertex) {
+        return owner[vertex];
+    }
+    
+    // Shared, not copied; callers must not modify it
+    int[] ownerTable() {
+        return owner;
+    }
+    
+    /**
+     * Edges whose endpoints are in different shards.
+     */
+    public long getCutEdgeCount() {
+        return cutEdges;
+    }
+    
+    @Override
+    public String toString() {
+        return "Partition (" + strategy + "): " + n + " nodes, " + vertices.length + " shards, "
+            + cutEdges + " cut edges";
+    }
+}
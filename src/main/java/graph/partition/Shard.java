@@ -0,0 +1,126 @@
+package graph.partition;
+
+import graph.model.CsrGraph;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * One shard of a Partition: the vertices it owns (global ids, ascending), the
+ * edges between them as local CSR arrays, and its boundary tables: cut edges
+ * leaving the shard (local source, global target, weight) and, per owned
+ * vertex, the number of cut edges entering it.
+ */
+public final class Shard {
+    private final int id;
+    private final String weightModel;
+    private final int[] vertices;
+    private final int[] nodeWeights;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] weights;
+    private final int[] cutOffsets;
+    private final int[] cutTargets;
+    private final int[] cutWeights;
+    private final int[] cutInDegree;
+    
+    Shard(int id, String weightModel, int[] vertices, int[] nodeWeights,
+          int[] offsets, int[] targets, int[] weights,
+          int[] cutOffsets, int[] cutTargets, int[] cutWeights, int[] cutInDegree) {
+        this.id = id;
+        this.weightModel = weightModel;
+        this.vertices = vertices;
+        this.nodeWeights = nodeWeights;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.cutOffsets = cutOffsets;
+        this.cutTargets = cutTargets;
+        this.cutWeights = cutWeights;
+        this.cutInDegree = cutInDegree;
+    }
+    
+    public int getId() {
+        return id;
+    }
+    
+    public int getVertexCount() {
+        return vertices.length;
+    }
+    
+    /**
+     * Global id of local vertex i.
+     */
+    public int getVertex(int i) {
+        return vertices[i];
+    }
+    
+    /**
+     * Local index of an owned global vertex, or a negative value.
+     */
+    public int localIndex(int vertex) {
+        return Arrays.binarySearch(vertices, vertex);
+    }
+    
+    public int getLocalEdgeCount() {
+        return targets.length;
+    }
+    
+    public int getCutEdgeCount() {
+        return cutTargets.length;
+    }
+    
+    int getCutOutDegree(int local) {
+        return cutOffsets[local + 1] - cutOffsets[local];
+    }
+    
+    int getCutTarget(int local, int i) {
+        return cutTargets[cutOffsets[local] + i];
+    }
+    
+    int getCutWeight(int local, int i) {
+        return cutWeights[cutOffsets[local] + i];
+    }
+    
+    int getCutInDegree(int local) {
+        return cutInDegree[local];
+    }
+    
+    String getWeightModel() {
+        return weightModel;
+    }
+    
+    /**
+     * Edges inside the shard as a graph over local indices.
+     */
+    CsrGraph localGraph() {
+        return CsrGraph.fromForward(vertices.length, weightModel, offsets, targets, weights, nodeWeights);
+    }
+    
+    void write(DataOutputStream out) throws IOException {
+        out.writeInt(id);
+        out.writeUTF(weightModel);
+        for (int[] array : new int[][]{vertices, nodeWeights, offsets, targets, weights,
+                                       cutOffsets, cutTargets, cutWeights, cutInDegree}) {
+            Wire.writeInts(out, array);
+        }
+    }
+    
+    static Shard read(DataInputStream in) throws IOException {
+        int id = in.readInt();
+        String weightModel = in.readUTF();
+        int[][] arrays = new int[9][];
+        for (int i = 0; i < arrays.length; i++) {
+            arrays[i] = Wire.readInts(in);
+        }
+        return new Shard(id, weightModel, arrays[0], arrays[1], arrays[2], arrays[3], arrays[4],
+                         arrays[5], arrays[6], arrays[7], arrays[8]);
+    }
+    
+    @Override
+    public String toString() {
+        return "Shard " + id + ": " + vertices.length + " nodes, " + targets.length + " local edges, "
+            + cutTargets.length + " cut edges";
+    }
+}
@@ -0,0 +1,555 @@
+package graph.partition;
+
+import graph.dagsp.DAGShortestPath.LongPathResult;
+import graph.metrics.Counter;
+import graph.metrics.Metrics;
+import graph.model.CsrGraph;
+import graph.scc.SCCResult;
+import graph.scc.TarjanSCC;
+import graph.util.IntList;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coordinator for a partitioned graph: one ShardWorker per shard over loopback
+ * sockets, as separate JVMs (startProcesses) or threads (startThreads). Keeps
+ * only the owner table; SCC, critical path and topological order are shard-local
+ * passes plus boundary exchange. A failed request closes the cluster.
+ */
+public class ShardCluster implements AutoCloseable {
+    private static final long NO_PATH = Long.MIN_VALUE;
+    private static final int ACCEPT_TIMEOUT_MS = 60_000;
+    
+    private final int n;
+    private final int[] owner;
+    private final Socket[] sockets;
+    private final DataInputStream[] in;
+    private final DataOutputStream[] out;
+    private final List<Process> processes;
+    private final List<Thread> threads;
+    private final Counter rounds;
+    private final Counter messages;
+    private final Counter summaryNodes;
+    private Summary summary;
+    private boolean closed;
+    private boolean failed;
+    
+    private ShardCluster(Partition partition, Metrics metrics, Socket[] sockets,
+                         List<Process> processes, List<Thread> threads) throws IOException {
+        this.n = partition.getVertexCount();
+        this.owner = partition.ownerTable();
+        this.sockets = sockets;
+        this.processes = processes;
+        this.threads = threads;
+        this.rounds = metrics.counter("partition_rounds");
+        this.messages = metrics.counter("boundary_messages");
+        this.summaryNodes = metrics.counter("summary_nodes");
+        int k = sockets.length;
+        this.in = new DataInputStream[k];
+        this.out = new DataOutputStream[k];
+        for (int s = 0; s < k; s++) {
+            sockets[s].setTcpNoDelay(true);
+            in[s] = new DataInputStream(new BufferedInputStream(sockets[s].getInputStream(), Wire.BUFFER));
+            out[s] = new DataOutputStream(new BufferedOutputStream(sockets[s].getOutputStream(), Wire.BUFFER));
+        }
+    }
+    
+    /**
+     * One worker JVM per shard, started with this JVM's java binary and class
+     * path plus jvmArgs (e.g. "-Xmx8g").
+     */
+    public static ShardCluster startProcesses(Partition partition, Metrics metrics,
+                                              String... jvmArgs) throws IOException {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        try (ServerSocket server = new ServerSocket(0, partition.getShardCount(), InetAddress.getLoopbackAddress())) {
+            server.setSoTimeout(ACCEPT_TIMEOUT_MS);
+            List<Process> processes = new ArrayList<>();
+            try {
+                for (int s = 0; s < partition.getShardCount(); s++) {
+                    List<String> command = new ArrayList<>();
+                    command.add(java);
+                    command.addAll(Arrays.asList(jvmArgs));
+                    command.add("-cp");
+                    command.add(System.getProperty("java.class.path"));
+                    command.add(ShardWorker.class.getName());
+                    command.add(server.getInetAddress().getHostAddress());
+                    command.add(String.valueOf(server.getLocalPort()));
+                    processes.add(new ProcessBuilder(command).inheritIO().start());
+                }
+                return connect(partition, metrics, server, processes, Collections.emptyList());
+            } catch (IOException | RuntimeException e) {
+                for (Process process : processes) {
+                    process.destroyForcibly();
+                }
+                throw e;
+            }
+        }
+    }
+    
+    /**
+     * One worker thread per shard in this JVM, talking over loopback sockets.
+     */
+    public static ShardCluster startThreads(Partition partition, Metrics metrics) throws IOException {
+        try (ServerSocket server = new ServerSocket(0, partition.getShardCount(), InetAddress.getLoopbackAddress())) {
+            server.setSoTimeout(ACCEPT_TIMEOUT_MS);
+            List<Thread> threads = new ArrayList<>();
+            for (int s = 0; s < partition.getShardCount(); s++) {
+                Thread thread = new Thread(() -> {
+                    try (Socket socket = new Socket(server.getInetAddress(), server.getLocalPort())) {
+                        new ShardWorker().serve(socket);
+                    } catch (IOException e) {
+                        // Coordinator closed the connection
+                    }
+                }, "shard-worker-" + s);
+                thread.setDaemon(true);
+                thread.start();
+                threads.add(thread);
+            }
+            return connect(partition, metrics, server, Collections.emptyList(), threads);
+        }
+    }
+    
+    // Accept one connection per shard and ship each its shard; each body is
+    // built just before it is sent and dropped right after
+    private static ShardCluster connect(Partition partition, Metrics metrics, ServerSocket server,
+                                        List<Process> processes, List<Thread> threads) throws IOException {
+        Socket[] sockets = new Socket[partition.getShardCount()];
+        try {
+            for (int s = 0; s < sockets.length; s++) {
+                sockets[s] = server.accept();
+            }
+            ShardCluster cluster = new ShardCluster(partition, metrics, sockets, processes, threads);
+            for (int s = 0; s < sockets.length; s++) {
+                cluster.out[s].writeByte(ShardWorker.LOAD);
+                partition.getShard(s).write(cluster.out[s]);
+                cluster.out[s].flush();
+            }
+            for (int s = 0; s < sockets.length; s++) {
+                cluster.await(s).readInt();
+            }
+            return cluster;
+        } catch (IOException | RuntimeException e) {
+            for (Socket socket : sockets) {
+                if (socket != null) {
+                    socket.close();
+                }
+            }
+            throw e;
+        }
+    }
+    
+    public int getVertexCount() {
+        return n;
+    }
+    
+    public int getShardCount() {
+        return sockets.length;
+    }
+    
+    // Read a reply header; worker failures surface as IllegalStateException
+    private DataInputStream await(int s) throws IOException {
+        if (in[s].readByte() != ShardWorker.OK) {
+            throw new IllegalStateException("Shard " + s + ": " + in[s].readUTF());
+        }
+        return in[s];
+    }
+    
+    private void broadcast(byte command) throws IOException {
+        for (DataOutputStream o : out) {
+            o.writeByte(command);
+            o.flush();
+        }
+    }
+    
+    private void ensureOpen() {
+        if (failed) {
+            throw new IllegalStateException("ShardCluster was closed after a failed request");
+        }
+        if (closed) {
+            throw new IllegalStateException("ShardCluster is closed");
+        }
+    }
+    
+    // Other shards' replies to the failed round may still be unread, so the
+    // streams are out of step: close rather than read stale replies later
+    private RuntimeException fail(Exception e) {
+        failed = true;
+        close();
+        return e instanceof IOException ? new UncheckedIOException((IOException) e) : (RuntimeException) e;
+    }
+    
+    /**
+     * Strongly connected components of the whole graph, equal to TarjanSCC up
+     * to component numbering. Local components off the cross-shard skeleton are
+     * already global; the skeleton Tarjan merges the rest.
+     */
+    public synchronized SCCResult stronglyConnectedComponents() {
+        ensureOpen();
+        try {
+            Summary sum = summary();
+            int k = out.length;
+            int base = sum.groups;
+            for (int s = 0; s < k; s++) {
+                out[s].writeByte(ShardWorker.ASSIGN_SCC);
+                Wire.writeInts(out[s], sum.groupOf[s]);
+                out[s].writeInt(base);
+                out[s].flush();
+                base += sum.localCounts[s];
+            }
+            int[][] labels = new int[k][];
+            for (int s = 0; s < k; s++) {
+                labels[s] = Wire.readInts(await(s));
+            }
+            
+            // Vertices of each shard arrive in increasing global id order
+            int[] remap = new int[base];
+            Arrays.fill(remap, -1);
+            int[] cursor = new int[k];
+            int[] componentId = new int[n];
+            int count = 0;
+            for (int v = 0; v < n; v++) {
+                int s = owner[v];
+                int label = labels[s][cursor[s]++];
+                if (remap[label] < 0) {
+                    remap[label] = count++;
+                }
+                componentId[v] = remap[label];
+            }
+            return SCCResult.fromComponentIds(componentId, count);
+        } catch (IOException | RuntimeException e) {
+            throw fail(e);
+        }
+    }
+    
+    /**
+     * False if any cycle exists, inside a shard or across shards.
+     */
+    public synchronized boolean isAcyclic() {
+        ensureOpen();
+        try {
+            return summary().acyclic;
+        } catch (IOException | RuntimeException e) {
+            throw fail(e);
+        }
+    }
+    
+    // Local SCC pass on every shard, then Tarjan on the joined skeletons
+    private Summary summary() throws IOException {
+        if (summary != null) {
+            return summary;
+        }
+        int k = out.length;
+        broadcast(ShardWorker.LOCAL_SCC);
+        int[] localCounts = new int[k];
+        int[] nodeBase = new int[k + 1];
+        boolean localCycle = false;
+        int[][] edges = new int[k][];
+        int[][] cutFrom = new int[k][];
+        int[][] cutTo = new int[k][];
+        int[][] entering = new int[k][];
+        int[][] enteringAt = new int[k][];
+        for (int s = 0; s < k; s++) {
+            DataInputStream reply = await(s);
+            localCounts[s] = reply.readInt();
+            localCycle |= reply.readBoolean();
+            nodeBase[s + 1] = nodeBase[s] + reply.readInt();
+            edges[s] = Wire.readInts(reply);
+            cutFrom[s] = Wire.readInts(reply);
+            cutTo[s] = Wire.readInts(reply);
+            entering[s] = Wire.readInts(reply);
+            enteringAt[s] = Wire.readInts(reply);
+        }
+        
+        // Entering boundary vertex -> summary node, sorted for binary search
+        int boundary = 0;
+        for (int s = 0; s < k; s++) {
+            boundary += entering[s].length;
+        }
+        long[] enteringNodes = new long[boundary];
+        int b = 0;
+        for (int s = 0; s < k; s++) {
+            for (int i = 0; i < entering[s].length; i++) {
+                enteringNodes[b++] = ((long) entering[s][i] << 32) | (nodeBase[s] + enteringAt[s][i]);
+            }
+        }
+        Arrays.sort(enteringNodes);
+        
+        int nodes = nodeBase[k];
+        CsrGraph.Builder builder = new CsrGraph.Builder(nodes, "edge");
+        for (int s = 0; s < k; s++) {
+            for (int i = 0; i < edges[s].length; i += 2) {
+                builder.addEdge(nodeBase[s] + edges[s][i], nodeBase[s] + edges[s][i + 1], 0);
+            }
+            for (int i = 0; i < cutFrom[s].length; i++) {
+                int target = findNode(enteringNodes, cutTo[s][i]);
+                if (target >= 0) {
+                    builder.addEdge(nodeBase[s] + cutFrom[s][i], target, 0);
+                }
+            }
+        }
+        SCCResult merged = new TarjanSCC(builder.build(), Metrics.NOOP).decompose();
+        summaryNodes.add(nodes);
+        
+        int[] groupOfComponent = new int[merged.getComponentCount()];
+        int groups = 0;
+        for (int c = 0; c < groupOfComponent.length; c++) {
+            groupOfComponent[c] = merged.getComponentSize(c) > 1 ? groups++ : -1;
+        }
+        int[][] groupOf = new int[k][];
+        for (int s = 0; s < k; s++) {
+            groupOf[s] = new int[nodeBase[s + 1] - nodeBase[s]];
+            for (int p = 0; p < groupOf[s].length; p++) {
+                groupOf[s][p] = groupOfComponent[merged.getComponentId(nodeBase[s] + p)];
+            }
+        }
+        summary = new Summary(localCounts, groupOf, groups, !localCycle && groups == 0);
+        return summary;
+    }
+    
+    private static int findNode(long[] enteringNodes, int vertex) {
+        int lo = 0;
+        int hi = enteringNodes.length - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int key = (int) (enteringNodes[mid] >>> 32);
+            if (key < vertex) {
+                lo = mid + 1;
+            } else if (key > vertex) {
+                hi = mid - 1;
+            } else {
+                return (int) enteringNodes[mid];
+            }
+        }
+        return -1;
+    }
+    
+    private void checkAcyclic() {
+        if (!isAcyclic()) {
+            throw new IllegalStateException("Graph has cycles!");
+        }
+    }
+    
+    // Distributed Kahn: shard-local passes plus boundary exchange until no
+    // message is sent; rounds grow with the shard crossings on the longest chain
+    private void runPaths() throws IOException {
+        int k = out.length;
+        broadcast(ShardWorker.PATH_START);
+        Inbox[] inbox = collect();
+        while (!isEmpty(inbox)) {
+            for (int s = 0; s < k; s++) {
+                inbox[s].send(out[s]);
+            }
+            inbox = collect();
+        }
+    }
+    
+    // Read every shard's outgoing messages and route them to the owners
+    private Inbox[] collect() throws IOException {
+        int k = out.length;
+        Inbox[] inbox = new Inbox[k];
+        for (int s = 0; s < k; s++) {
+            inbox[s] = new Inbox();
+        }
+        long sent = 0;
+        for (int s = 0; s < k; s++) {
+            DataInputStream reply = await(s);
+            int[] targets = Wire.readInts(reply);
+            long[] values = Wire.readLongs(reply);
+            int[] levels = Wire.readInts(reply);
+            int[] senders = Wire.readInts(reply);
+            for (int i = 0; i < targets.length; i++) {
+                inbox[owner[targets[i]]].add(targets[i], values[i], levels[i], senders[i]);
+            }
+            sent += targets.length;
+        }
+        rounds.increment();
+        messages.add(sent);
+        return inbox;
+    }
+    
+    private static boolean isEmpty(Inbox[] inbox) {
+        for (Inbox box : inbox) {
+            if (box.targets.size() > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Longest source-to-any path, equal in length to DAGShortestPath.criticalPathLong().
+     * Throws IllegalStateException("Graph has cycles!") if the graph is cyclic.
+     */
+    public synchronized LongPathResult criticalPath() {
+        checkAcyclic();
+        try {
+            runPaths();
+            broadcast(ShardWorker.PATH_BEST);
+            long best = NO_PATH;
+            int end = -1;
+            for (int s = 0; s < out.length; s++) {
+                DataInputStream reply = await(s);
+                long length = reply.readLong();
+                int vertex = reply.readInt();
+                if (length > best || (length == best && vertex < end)) {
+                    best = length;
+                    end = vertex;
+                }
+            }
+            
+            // Walk parents back, one request per shard crossing
+            List<Integer> path = new ArrayList<>();
+            int v = end;
+            while (v >= 0) {
+                int s = owner[v];
+                out[s].writeByte(ShardWorker.PATH_TRACE);
+                out[s].writeInt(v);
+                out[s].flush();
+                DataInputStream reply = await(s);
+                for (int u : Wire.readInts(reply)) {
+                    path.add(u);
+                }
+                v = reply.readInt();
+            }
+            Collections.reverse(path);
+            return new LongPathResult(path, best == NO_PATH ? 0 : best);
+        } catch (IOException | RuntimeException e) {
+            throw fail(e);
+        }
+    }
+    
+    /**
+     * Topological order: vertices by longest hop distance from a source, ties by id.
+     * Throws IllegalStateException("Graph has cycles!") if the graph is cyclic.
+     */
+    public synchronized int[] topologicalOrder() {
+        checkAcyclic();
+        try {
+            runPaths();
+            broadcast(ShardWorker.LEVELS);
+            int k = out.length;
+            int[][] levels = new int[k][];
+            int maxLevel = 0;
+            for (int s = 0; s < k; s++) {
+                levels[s] = Wire.readInts(await(s));
+                for (int level : levels[s]) {
+                    maxLevel = Math.max(maxLevel, level);
+                }
+            }
+            // Counting sort by level, stable in vertex id
+            int[] level = new int[n];
+            int[] start = new int[maxLevel + 2];
+            int[] cursor = new int[k];
+            for (int v = 0; v < n; v++) {
+                int s = owner[v];
+                level[v] = levels[s][cursor[s]++];
+                start[level[v] + 1]++;
+            }
+            for (int l = 0; l <= maxLevel; l++) {
+                start[l + 1] += start[l];
+            }
+            int[] order = new int[n];
+            for (int v = 0; v < n; v++) {
+                order[start[level[v]]++] = v;
+            }
+            return order;
+        } catch (IOException | RuntimeException e) {
+            throw fail(e);
+        }
+    }
+    
+    /**
+     * Stop the workers and wait for worker processes to exit. Idempotent.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (int s = 0; s < sockets.length; s++) {
+            try {
+                out[s].writeByte(ShardWorker.SHUTDOWN);
+                out[s].flush();
+                sockets[s].close();
+            } catch (IOException e) {
+                // Worker already gone
+            }
+        }
+        for (Process process : processes) {
+            try {
+                if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join(10_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    @Override
+    public String toString() {
+        return "ShardCluster: " + sockets.length + (processes.isEmpty() ? " worker threads" : " worker processes")
+            + (closed ? " (closed)" : "");
+    }
+    
+    // Result of the local SCC pass and the skeleton Tarjan
+    private static final class Summary {
+        final int[] localCounts;
+        final int[][] groupOf;
+        final int groups;
+        final boolean acyclic;
+        
+        Summary(int[] localCounts, int[][] groupOf, int groups, boolean acyclic) {
+            this.localCounts = localCounts;
+            this.groupOf = groupOf;
+            this.groups = groups;
+            this.acyclic = acyclic;
+        }
+    }
+    
+    // Boundary messages bound for one shard
+    private static final class Inbox {
+        final IntList targets = new IntList();
+        final IntList levels = new IntList();
+        final IntList senders = new IntList();
+        long[] values = new long[16];
+        
+        void add(int target, long value, int level, int sender) {
+            if (targets.size() == values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            values[targets.size()] = value;
+            targets.add(target);
+            levels.add(level);
+            senders.add(sender);
+        }
+        
+        void send(DataOutputStream out) throws IOException {
+            out.writeByte(ShardWorker.PATH_ROUND);
+            Wire.writeInts(out, targets.toArray());
+            Wire.writeLongs(out, values, targets.size());
+            Wire.writeInts(out, levels.toArray());
+            Wire.writeInts(out, senders.toArray());
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,379 @@
+package graph.partition;
+
+import graph.metrics.Metrics;
+import graph.model.CsrGraph;
+import graph.model.GraphView;
+import graph.scc.CondensationGraph;
+import graph.scc.SCCResult;
+import graph.scc.TarjanSCC;
+import graph.util.IntList;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.*;
+
+/**
+ * Holds one shard and answers a ShardCluster coordinator over a socket.
+ * Run as a separate process with: java graph.partition.ShardWorker host port
+ * Every request is read in full before it is handled; replies start with OK
+ * or FAILED plus a message.
+ */
+public final class ShardWorker {
+    static final byte LOAD = 1;
+    static final byte LOCAL_SCC = 2;
+    static final byte ASSIGN_SCC = 3;
+    static final byte PATH_START = 4;
+    static final byte PATH_ROUND = 5;
+    static final byte PATH_BEST = 6;
+    static final byte PATH_TRACE = 7;
+    static final byte LEVELS = 8;
+    static final byte SHUTDOWN = 9;
+    static final byte OK = 0;
+    static final byte FAILED = 1;
+    
+    private static final long NO_PATH = Long.MIN_VALUE;
+    
+    private Shard shard;
+    private CsrGraph graph;
+    private SCCResult components;
+    private int[] skeletonIndex;
+    private long[] dist;
+    private int[] level;
+    private int[] parent;
+    private int[] remaining;
+    
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: ShardWorker <host> <port>");
+            System.exit(2);
+        }
+        try (Socket socket = new Socket(args[0], Integer.parseInt(args[1]))) {
+            new ShardWorker().serve(socket);
+        }
+    }
+    
+    /**
+     * Answer requests until SHUTDOWN or end of stream.
+     */
+    void serve(Socket socket) throws IOException {
+        socket.setTcpNoDelay(true);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), Wire.BUFFER));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), Wire.BUFFER));
+        while (true) {
+            byte command = in.readByte();
+            if (command == SHUTDOWN) {
+                return;
+            }
+            try {
+                handle(command, in, out);
+            } catch (RuntimeException e) {
+                out.writeByte(FAILED);
+                out.writeUTF(String.valueOf(e.getMessage()));
+            }
+            out.flush();
+        }
+    }
+    
+    private void handle(byte command, DataInputStream in, DataOutputStream out) throws IOException {
+        switch (command) {
+            case LOAD:
+                load(Shard.read(in), out);
+                break;
+            case LOCAL_SCC:
+                localComponents(out);
+                break;
+            case ASSIGN_SCC:
+                assignComponents(Wire.readInts(in), in.readInt(), out);
+                break;
+            case PATH_START:
+                startPaths(out);
+                break;
+            case PATH_ROUND:
+                pathRound(Wire.readInts(in), Wire.readLongs(in), Wire.readInts(in), Wire.readInts(in), out);
+                break;
+            case PATH_BEST:
+                bestPath(out);
+                break;
+            case PATH_TRACE:
+                trace(in.readInt(), out);
+                break;
+            case LEVELS:
+                checkPaths();
+                out.writeByte(OK);
+                Wire.writeInts(out, level);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown command: " + command);
+        }
+    }
+    
+    private void load(Shard loaded, DataOutputStream out) throws IOException {
+        shard = loaded;
+        graph = loaded.localGraph();
+        components = null;
+        dist = null;
+        out.writeByte(OK);
+        out.writeInt(shard.getId());
+    }
+    
+    // Local Tarjan, then the "through" skeleton: local components reachable from
+    // an entering cut edge that also reach a leaving one. Only these can lie on
+    // a cycle through another shard. A self-loop is a cycle Tarjan leaves as a
+    // singleton; it is always a local edge.
+    private void localComponents(DataOutputStream out) throws IOException {
+        components = new TarjanSCC(graph, Metrics.NOOP).decompose();
+        int size = graph.getVertexCount();
+        int count = components.getComponentCount();
+        boolean localCycle = count < size;
+        for (int v = 0; v < size && !localCycle; v++) {
+            int degree = graph.getOutDegree(v);
+            for (int i = 0; i < degree; i++) {
+                if (graph.getTarget(v, i) == v) {
+                    localCycle = true;
+                    break;
+                }
+            }
+        }
+        CsrGraph dag = new CondensationGraph(graph, components).getGraph();
+        
+        boolean[] fromBoundary = new boolean[count];
+        boolean[] toBoundary = new boolean[count];
+        IntList stack = new IntList();
+        for (int v = 0; v < size; v++) {
+            int c = components.getComponentId(v);
+            if (shard.getCutInDegree(v) > 0 && !fromBoundary[c]) {
+                fromBoundary[c] = true;
+                stack.add(c);
+            }
+        }
+        mark(dag, stack, fromBoundary, true);
+        for (int v = 0; v < size; v++) {
+            int c = components.getComponentId(v);
+            if (shard.getCutOutDegree(v) > 0 && !toBoundary[c]) {
+                toBoundary[c] = true;
+                stack.add(c);
+            }
+        }
+        mark(dag, stack, toBoundary, false);
+        
+        skeletonIndex = new int[count];
+        IntList through = new IntList();
+        for (int c = 0; c < count; c++) {
+            skeletonIndex[c] = -1;
+            if (fromBoundary[c] && toBoundary[c]) {
+                skeletonIndex[c] = through.size();
+                through.add(c);
+            }
+        }
+        int[] skeleton = through.toArray();
+        
+        IntList edges = new IntList();
+        for (int c : skeleton) {
+            int degree = dag.getOutDegree(c);
+            for (int i = 0; i < degree; i++) {
+                int d = dag.getTarget(c, i);
+                if (skeletonIndex[d] >= 0) {
+                    edges.add(skeletonIndex[c]);
+                    edges.add(skeletonIndex[d]);
+                }
+            }
+        }
+        // Boundary tables restricted to the skeleton: leaving cut edges by
+        // skeleton position, entering vertices with their skeleton position
+        IntList cutFrom = new IntList();
+        IntList cutTo = new IntList();
+        IntList entering = new IntList();
+        IntList enteringAt = new IntList();
+        for (int v = 0; v < size; v++) {
+            int p = skeletonIndex[components.getComponentId(v)];
+            if (p < 0) {
+                continue;
+            }
+            int degree = shard.getCutOutDegree(v);
+            for (int i = 0; i < degree; i++) {
+                cutFrom.add(p);
+                cutTo.add(shard.getCutTarget(v, i));
+            }
+            if (shard.getCutInDegree(v) > 0) {
+                entering.add(shard.getVertex(v));
+                enteringAt.add(p);
+            }
+        }
+        
+        out.writeByte(OK);
+        out.writeInt(count);
+        out.writeBoolean(localCycle);
+        out.writeInt(skeleton.length);
+        Wire.writeInts(out, edges.toArray());
+        Wire.writeInts(out, cutFrom.toArray());
+        Wire.writeInts(out, cutTo.toArray());
+        Wire.writeInts(out, entering.toArray());
+        Wire.writeInts(out, enteringAt.toArray());
+    }
+    
+    private static void mark(GraphView dag, IntList stack, boolean[] marked, boolean forward) {
+        while (!stack.isEmpty()) {
+            int c = stack.removeLast();
+            int degree = forward ? dag.getOutDegree(c) : dag.getInDegree(c);
+            for (int i = 0; i < degree; i++) {
+                int d = forward ? dag.getTarget(c, i) : dag.getReverseTarget(c, i);
+                if (!marked[d]) {
+                    marked[d] = true;
+                    stack.add(d);
+                }
+            }
+        }
+    }
+    
+    // group[p] is the merged component of skeleton position p, or -1; other
+    // local components become base + local id
+    private void assignComponents(int[] group, int base, DataOutputStream out) throws IOException {
+        if (components == null) {
+            throw new IllegalStateException("LOCAL_SCC must run first");
+        }
+        int size = graph.getVertexCount();
+        int[] labels = new int[size];
+        for (int v = 0; v < size; v++) {
+            int c = components.getComponentId(v);
+            int p = skeletonIndex[c];
+            labels[v] = p >= 0 && group[p] >= 0 ? group[p] : base + c;
+        }
+        out.writeByte(OK);
+        Wire.writeInts(out, labels);
+    }
+    
+    private void checkPaths() {
+        if (dist == null) {
+            throw new IllegalStateException("PATH_START must run first");
+        }
+    }
+    
+    private boolean nodeWeighted() {
+        return GraphView.NODE_WEIGHTS.equals(shard.getWeightModel());
+    }
+    
+    // Distributed Kahn: a vertex is settled once all its local and entering cut
+    // edges have delivered, so every cut edge carries exactly one message.
+    // Tracks the longest distance and the longest hop count (level).
+    private void startPaths(DataOutputStream out) throws IOException {
+        int size = graph.getVertexCount();
+        dist = new long[size];
+        level = new int[size];
+        parent = new int[size];
+        remaining = new int[size];
+        Arrays.fill(dist, NO_PATH);
+        Arrays.fill(parent, -1);
+        IntList ready = new IntList();
+        for (int v = 0; v < size; v++) {
+            remaining[v] = graph.getInDegree(v) + shard.getCutInDegree(v);
+            if (remaining[v] == 0) {
+                dist[v] = nodeWeighted() ? graph.getNodeWeight(v) : 0;
+                ready.add(v);
+            }
+        }
+        settle(ready, out);
+    }
+    
+    // Apply boundary messages: value is the sender's distance plus the edge
+    // weight; the target's own duration is added here in the node model
+    private void pathRound(int[] targets, long[] values, int[] levels, int[] senders,
+                           DataOutputStream out) throws IOException {
+        checkPaths();
+        boolean nodeWeighted = nodeWeighted();
+        IntList ready = new IntList();
+        for (int i = 0; i < targets.length; i++) {
+            int v = shard.localIndex(targets[i]);
+            long candidate = nodeWeighted ? values[i] + graph.getNodeWeight(v) : values[i];
+            if (candidate > dist[v]) {
+                dist[v] = candidate;
+                parent[v] = senders[i];
+            }
+            level[v] = Math.max(level[v], levels[i]);
+            if (--remaining[v] == 0) {
+                ready.add(v);
+            }
+        }
+        settle(ready, out);
+    }
+    
+    // Settle ready vertices (and local successors that become ready), then emit
+    // one message per leaving cut edge of every settled vertex
+    private void settle(IntList ready, DataOutputStream out) throws IOException {
+        boolean nodeWeighted = nodeWeighted();
+        for (int head = 0; head < ready.size(); head++) {
+            int u = ready.get(head);
+            long du = dist[u];
+            int degree = graph.getOutDegree(u);
+            for (int i = 0; i < degree; i++) {
+                int v = graph.getTarget(u, i);
+                long candidate = du + (nodeWeighted ? graph.getNodeWeight(v) : graph.getWeight(u, i));
+                if (candidate > dist[v]) {
+                    dist[v] = candidate;
+                    parent[v] = shard.getVertex(u);
+                }
+                level[v] = Math.max(level[v], level[u] + 1);
+                if (--remaining[v] == 0) {
+                    ready.add(v);
+                }
+            }
+        }
+        
+        IntList targets = new IntList();
+        IntList levels = new IntList();
+        IntList senders = new IntList();
+        long[] values = new long[16];
+        for (int k = 0; k < ready.size(); k++) {
+            int u = ready.get(k);
+            int degree = shard.getCutOutDegree(u);
+            for (int i = 0; i < degree; i++) {
+                if (targets.size() == values.length) {
+                    values = Arrays.copyOf(values, values.length * 2);
+                }
+                values[targets.size()] = nodeWeighted ? dist[u] : dist[u] + shard.getCutWeight(u, i);
+                targets.add(shard.getCutTarget(u, i));
+                levels.add(level[u] + 1);
+                senders.add(shard.getVertex(u));
+            }
+        }
+        out.writeByte(OK);
+        Wire.writeInts(out, targets.toArray());
+        Wire.writeLongs(out, values, targets.size());
+        Wire.writeInts(out, levels.toArray());
+        Wire.writeInts(out, senders.toArray());
+    }
+    
+    // Largest distance in the shard and the lowest global id reaching it
+    private void bestPath(DataOutputStream out) throws IOException {
+        checkPaths();
+        long best = NO_PATH;
+        int vertex = -1;
+        for (int v = 0; v < dist.length; v++) {
+            if (dist[v] > best) {
+                best = dist[v];
+                vertex = shard.getVertex(v);
+            }
+        }
+        out.writeByte(OK);
+        out.writeLong(best);
+        out.writeInt(vertex);
+    }
+    
+    // Follow parents from a global vertex while they stay in this shard
+    private void trace(int vertex, DataOutputStream out) throws IOException {
+        checkPaths();
+        IntList path = new IntList();
+        int v = vertex;
+        int local = shard.localIndex(v);
+        while (local >= 0) {
+            path.add(v);
+            v = parent[local];
+            local = v < 0 ? -1 : shard.localIndex(v);
+        }
+        out.writeByte(OK);
+        Wire.writeInts(out, path.toArray());
+        out.writeInt(v);
+    }
+}
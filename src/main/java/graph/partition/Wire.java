@@ -0,0 +1,49 @@
+package graph.partition;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Length-prefixed primitive arrays on the coordinator/worker sockets.
+ */
+final class Wire {
+    static final int BUFFER = 1 << 16;
+    
+    private Wire() {
+    }
+    
+    static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        writeInts(out, values, values.length);
+    }
+    
+    static void writeInts(DataOutputStream out, int[] values, int length) throws IOException {
+        out.writeInt(length);
+        for (int i = 0; i < length; i++) {
+            out.writeInt(values[i]);
+        }
+    }
+    
+    static int[] readInts(DataInputStream in) throws IOException {
+        int[] values = new int[in.readInt()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.readInt();
+        }
+        return values;
+    }
+    
+    static void writeLongs(DataOutputStream out, long[] values, int length) throws IOException {
+        out.writeInt(length);
+        for (int i = 0; i < length; i++) {
+            out.writeLong(values[i]);
+        }
+    }
+    
+    static long[] readLongs(DataInputStream in) throws IOException {
+        long[] values = new long[in.readInt()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.readLong();
+        }
+        return values;
+    }
+}
@@ -0,0 +1,506 @@
+package graph.reach;
+
+import graph.dagsp.PreparedDAG;
+import graph.metrics.Counter;
+import graph.metrics.Metrics;
+import graph.model.CsrGraph;
+import graph.model.GraphView;
+import graph.scc.CondensationGraph;
+import graph.scc.TarjanSCC;
+import graph.util.IntList;
+import graph.util.IntPriorityQueue;
+import java.util.*;
+
+/**
+ * "Does task A (transitively) block task B?" over the condensation DAG, filtered
+ * by topological levels, GRAIL intervals, BFL labels and pivot masks before a
+ * pruned DFS. Size per component: 24 + 16 * labelWords + 16 * ceil(pivots / 64)
+ * bytes. Immutable; queries are thread-safe.
+ */
+public class ReachabilityIndex {
+    private static final int POS = 0;
+    private static final int LEVEL = 1;
+    private static final int REVERSE_LEVEL = 2;
+    private static final int PRE = 3;
+    private static final int POST = 4;
+    private static final int LOW = 5;
+    private static final int STRIDE = 6;
+    private static final int NO = 0;
+    private static final int YES = 1;
+    private static final int UNKNOWN = 2;
+    // Smaller groups search per pair: bounds over a few scattered targets
+    // prune less than each pair's own filters
+    private static final int GROUP_SEARCH_MIN = 8;
+    
+    private final CsrGraph dag;
+    private final CondensationGraph condensation;
+    private final int words;
+    private final int labelStride;
+    private final int[] meta;
+    private final long[] labels;
+    private final int pivotWords;
+    private final int pivotStride;
+    private final long[] pivotMasks;
+    private final Counter queries;
+    private final Counter fallbacks;
+    private final Counter fallbackVisits;
+    private final ThreadLocal<Scratch> scratch;
+    
+    /**
+     * Index with 128-bit labels and 256 pivots (120 bytes per component).
+     */
+    public ReachabilityIndex(CondensationGraph condensation, Metrics metrics) {
+        this(condensation, metrics, 2, 256);
+    }
+    
+    /**
+     * labelWords: 64-bit words per BFL label (at least 1); pivots: number of pivot components.
+     */
+    public ReachabilityIndex(CondensationGraph condensation, Metrics metrics, int labelWords, int pivots) {
+        if (labelWords < 1) {
+            throw new IllegalArgumentException("labelWords must be positive: " + labelWords);
+        }
+        if (pivots < 0) {
+            throw new IllegalArgumentException("pivots must be non-negative: " + pivots);
+        }
+        this.condensation = condensation;
+        this.dag = condensation.getGraph();
+        this.words = labelWords;
+        this.labelStride = 2 * labelWords;
+        this.pivotWords = (pivots + Long.SIZE - 1) / Long.SIZE;
+        this.pivotStride = 2 * pivotWords;
+        int n = dag.getVertexCount();
+        this.meta = new int[n * STRIDE];
+        this.labels = new long[n * labelStride];
+        this.pivotMasks = new long[n * pivotStride];
+        this.queries = metrics.counter("reach_queries");
+        this.fallbacks = metrics.counter("reach_fallbacks");
+        this.fallbackVisits = metrics.counter("reach_fallback_visits");
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(n));
+        
+        metrics.startTimer();
+        try {
+            int[] order = new PreparedDAG(dag).getOrder();
+            buildLevels(order);
+            buildIntervals(order);
+            buildLabels(order);
+            buildPivots(order, pivots);
+        } finally {
+            metrics.stopTimer();
+        }
+    }
+    
+    /**
+     * Decompose graph with TarjanSCC and index its condensation.
+     */
+    public static ReachabilityIndex build(GraphView graph, Metrics metrics) {
+        return new ReachabilityIndex(new CondensationGraph(graph, new TarjanSCC(graph, metrics).decompose()),
+                                     metrics);
+    }
+    
+    private void buildLevels(int[] order) {
+        int n = order.length;
+        for (int k = 0; k < n; k++) {
+            int u = order[k];
+            meta[u * STRIDE + POS] = k;
+            int level = meta[u * STRIDE + LEVEL];
+            int degree = dag.getOutDegree(u);
+            for (int i = 0; i < degree; i++) {
+                int v = dag.getTarget(u, i);
+                meta[v * STRIDE + LEVEL] = Math.max(meta[v * STRIDE + LEVEL], level + 1);
+            }
+        }
+        for (int k = n - 1; k >= 0; k--) {
+            int u = order[k];
+            int level = 0;
+            int degree = dag.getOutDegree(u);
+            for (int i = 0; i < degree; i++) {
+                level = Math.max(level, meta[dag.getTarget(u, i) * STRIDE + REVERSE_LEVEL] + 1);
+            }
+            meta[u * STRIDE + REVERSE_LEVEL] = level;
+        }
+    }
+    
+    // Iterative DFS from the sources; low is the smallest post number reachable
+    private void buildIntervals(int[] order) {
+        int n = order.length;
+        int[] cursor = new int[n];
+        boolean[] visited = new boolean[n];
+        IntList stack = new IntList();
+        int pre = 0;
+        int post = 0;
+        for (int root : order) {
+            if (visited[root]) {
+                continue;
+            }
+            visited[root] = true;
+            meta[root * STRIDE + PRE] = pre++;
+            stack.add(root);
+            while (!stack.isEmpty()) {
+                int u = stack.get(stack.size() - 1);
+                if (cursor[u] < dag.getOutDegree(u)) {
+                    int v = dag.getTarget(u, cursor[u]++);
+                    if (!visited[v]) {
+                        visited[v] = true;
+                        meta[v * STRIDE + PRE] = pre++;
+                        stack.add(v);
+                    }
+                    continue;
+                }
+                stack.removeLast();
+                int low = post;
+                int degree = dag.getOutDegree(u);
+                for (int i = 0; i < degree; i++) {
+                    low = Math.min(low, meta[dag.getTarget(u, i) * STRIDE + LOW]);
+                }
+                meta[u * STRIDE + POST] = post++;
+                meta[u * STRIDE + LOW] = low;
+            }
+        }
+    }
+    
+    // Components with nearby post numbers share a bit, so subtrees stay compact
+    private void buildLabels(int[] order) {
+        int n = order.length;
+        int bits = words * Long.SIZE;
+        for (int c = 0; c < n; c++) {
+            int bit = (int) ((long) meta[c * STRIDE + POST] * bits / n);
+            labels[c * labelStride + (bit >>> 6)] |= 1L << bit;
+            labels[c * labelStride + words + (bit >>> 6)] |= 1L << bit;
+        }
+        // Descendant labels in reverse topological order, ancestor labels forward
+        for (int k = n - 1; k >= 0; k--) {
+            int u = order[k];
+            int degree = dag.getOutDegree(u);
+            for (int i = 0; i < degree; i++) {
+                int v = dag.getTarget(u, i);
+                for (int w = 0; w < words; w++) {
+                    labels[u * labelStride + w] |= labels[v * labelStride + w];
+                }
+            }
+        }
+        for (int k = 0; k < n; k++) {
+            int u = order[k];
+            int degree = dag.getOutDegree(u);
+            for (int i = 0; i < degree; i++) {
+                int v = dag.getTarget(u, i);
+                for (int w = words; w < 2 * words; w++) {
+                    labels[v * labelStride + w] |= labels[u * labelStride + w];
+                }
+            }
+        }
+    }
+    
+    // Pivots are the components with the largest (in + 1) * (out + 1) degree product
+    private void buildPivots(int[] order, int count) {
+        int n = order.length;
+        if (count == 0 || n == 0) {
+            return;
+        }
+        IntPriorityQueue top = new IntPriorityQueue(count + 1);
+        for (int c = 0; c < n; c++) {
+            top.add(c, pivotScore(c));
+            if (top.size() > count) {
+                top.poll();
+            }
+        }
+        for (int bit = 0; !top.isEmpty(); bit++) {
+            int c = top.poll();
+            pivotMasks[c * pivotStride + (bit >>> 6)] |= 1L << bit;
+            pivotMasks[c * pivotStride + pivotWords + (bit >>> 6)] |= 1L << bit;
+        }
+        for (int k = n - 1; k >= 0; k--) {
+            int u = order[k];
+            int degree = dag.getOutDegree(u);
+            for (int i = 0; i < degree; i++) {
+                int v = dag.getTarget(u, i);
+                for (int w = 0; w < pivotWords; w++) {
+                    pivotMasks[u * pivotStride + w] |= pivotMasks[v * pivotStride + w];
+                }
+            }
+        }
+        for (int k = 0; k < n; k++) {
+            int u = order[k];
+            int degree = dag.getOutDegree(u);
+            for (int i = 0; i < degree; i++) {
+                int v = dag.getTarget(u, i);
+                for (int w = pivotWords; w < 2 * pivotWords; w++) {
+                    pivotMasks[v * pivotStride + w] |= pivotMasks[u * pivotStride + w];
+                }
+            }
+        }
+    }
+    
+    private long pivotScore(int c) {
+        return (long) (dag.getInDegree(c) + 1) * (dag.getOutDegree(c) + 1);
+    }
+    
+    /**
+     * True if there is a path from vertex `from` to vertex `to` in the original graph.
+     */
+    public boolean reaches(int from, int to) {
+        queries.increment();
+        return componentReaches(condensation.getComponentId(from), condensation.getComponentId(to),
+                                scratch.get());
+    }
+    
+    /**
+     * Answer result[i] = reaches(from[i], to[i]) for every pair. Pairs the
+     * filters leave undecided are grouped by source component; each group of
+     * GROUP_SEARCH_MIN or more is answered by a single search (see groupSearch).
+     */
+    public void reachesAll(int[] from, int[] to, boolean[] result) {
+        if (from.length != to.length || result.length < from.length) {
+            throw new IllegalArgumentException("Mismatched batch lengths: " + from.length + ", "
+                                               + to.length + ", " + result.length);
+        }
+        Scratch s = scratch.get();
+        // Undecided pairs keyed by (source component, pair index)
+        long[] pending = new long[16];
+        int count = 0;
+        for (int i = 0; i < from.length; i++) {
+            int a = condensation.getComponentId(from[i]);
+            int b = condensation.getComponentId(to[i]);
+            int answer = a == b ? YES : filter(a, b);
+            if (answer == UNKNOWN) {
+                if (count == pending.length) {
+                    pending = Arrays.copyOf(pending, count * 2);
+                }
+                pending[count++] = ((long) a << 32) | i;
+            } else {
+                result[i] = answer == YES;
+            }
+        }
+        Arrays.sort(pending, 0, count);
+        for (int start = 0; start < count; ) {
+            int a = (int) (pending[start] >>> 32);
+            int end = start + 1;
+            while (end < count && (int) (pending[end] >>> 32) == a) {
+                end++;
+            }
+            if (end - start >= GROUP_SEARCH_MIN) {
+                groupSearch(a, pending, start, end, to, result, s);
+            } else {
+                for (int k = start; k < end; k++) {
+                    int i = (int) pending[k];
+                    result[i] = search(a, condensation.getComponentId(to[i]), s);
+                }
+            }
+            start = end;
+        }
+        queries.add(from.length);
+    }
+    
+    public boolean[] reachesAll(int[] from, int[] to) {
+        boolean[] result = new boolean[from.length];
+        reachesAll(from, to, result);
+        return result;
+    }
+    
+    /**
+     * Reachability between two components of the condensation.
+     */
+    public boolean componentReaches(int from, int to) {
+        return componentReaches(from, to, scratch.get());
+    }
+    
+    private boolean componentReaches(int a, int b, Scratch s) {
+        if (a == b) {
+            return true;
+        }
+        int answer = filter(a, b);
+        return answer == UNKNOWN ? search(a, b, s) : answer == YES;
+    }
+    
+    // Positions and levels must increase, a's interval must contain b's, b's
+    // descendant label must be a subset of a's (ancestors the other way round);
+    // DFS-tree containment or a shared pivot proves reachability
+    private int filter(int a, int b) {
+        int ma = a * STRIDE;
+        int mb = b * STRIDE;
+        if (meta[ma + POS] >= meta[mb + POS]
+            || meta[ma + LEVEL] >= meta[mb + LEVEL]
+            || meta[ma + REVERSE_LEVEL] <= meta[mb + REVERSE_LEVEL]
+            || meta[ma + LOW] > meta[mb + LOW]
+            || meta[ma + POST] < meta[mb + POST]) {
+            return NO;
+        }
+        if (meta[ma + PRE] <= meta[mb + PRE]) {
+            return YES;
+        }
+        int la = a * labelStride;
+        int lb = b * labelStride;
+        for (int w = 0; w < words; w++) {
+            if ((labels[lb + w] & ~labels[la + w]) != 0
+                || (labels[la + words + w] & ~labels[lb + words + w]) != 0) {
+                return NO;
+            }
+        }
+        int pa = a * pivotStride;
+        int pb = b * pivotStride + pivotWords;
+        for (int w = 0; w < pivotWords; w++) {
+            if ((pivotMasks[pa + w] & pivotMasks[pb + w]) != 0) {
+                return YES;
+            }
+        }
+        return UNKNOWN;
+    }
+    
+    // DFS from a, pruning every successor the filters rule out
+    private boolean search(int a, int b, Scratch s) {
+        int stamp = s.nextStamp();
+        IntList stack = s.stack;
+        stack.clear();
+        stack.add(a);
+        s.mark[a] = stamp;
+        long visits = 0;
+        boolean found = false;
+        while (!found && !stack.isEmpty()) {
+            int u = stack.removeLast();
+            visits++;
+            int degree = dag.getOutDegree(u);
+            for (int i = 0; i < degree; i++) {
+                int v = dag.getTarget(u, i);
+                if (s.mark[v] == stamp) {
+                    continue;
+                }
+                s.mark[v] = stamp;
+                int answer = v == b ? YES : filter(v, b);
+                if (answer == YES) {
+                    found = true;
+                    break;
+                }
+                if (answer == UNKNOWN) {
+                    stack.add(v);
+                }
+            }
+        }
+        fallbacks.increment();
+        fallbackVisits.add(visits);
+        return found;
+    }
+    
+    /**
+     * One DFS from a for the pairs pending[start, end), which all have source
+     * a. A component is expanded only if it could reach at least one target:
+     * its position, levels and interval lie within the targets' bounds and
+     * its descendant label holds every bit shared by all target labels. The
+     * search stops once every target is marked.
+     */
+    private void groupSearch(int a, long[] pending, int start, int end, int[] to, boolean[] result, Scratch s) {
+        int stamp = s.nextStamp();
+        int maxPos = 0;
+        int maxLevel = 0;
+        int minReverseLevel = Integer.MAX_VALUE;
+        int maxLow = 0;
+        int minPost = Integer.MAX_VALUE;
+        long[] common = s.common(words);
+        Arrays.fill(common, 0, words, -1L);
+        int targets = 0;
+        for (int k = start; k < end; k++) {
+            int b = condensation.getComponentId(to[(int) pending[k]]);
+            if (s.goal[b] == stamp) {
+                continue;
+            }
+            s.goal[b] = stamp;
+            targets++;
+            int mb = b * STRIDE;
+            maxPos = Math.max(maxPos, meta[mb + POS]);
+            maxLevel = Math.max(maxLevel, meta[mb + LEVEL]);
+            minReverseLevel = Math.min(minReverseLevel, meta[mb + REVERSE_LEVEL]);
+            maxLow = Math.max(maxLow, meta[mb + LOW]);
+            minPost = Math.min(minPost, meta[mb + POST]);
+            for (int w = 0; w < words; w++) {
+                common[w] &= labels[b * labelStride + w];
+            }
+        }
+        
+        IntList stack = s.stack;
+        stack.clear();
+        stack.add(a);
+        s.mark[a] = stamp;
+        long visits = 0;
+        while (targets > 0 && !stack.isEmpty()) {
+            int u = stack.removeLast();
+            visits++;
+            int degree = dag.getOutDegree(u);
+            for (int i = 0; i < degree && targets > 0; i++) {
+                int v = dag.getTarget(u, i);
+                if (s.mark[v] == stamp) {
+                    continue;
+                }
+                s.mark[v] = stamp;
+                if (s.goal[v] == stamp) {
+                    targets--;
+                }
+                int mv = v * STRIDE;
+                if (meta[mv + POS] > maxPos
+                    || meta[mv + LEVEL] > maxLevel
+                    || meta[mv + REVERSE_LEVEL] < minReverseLevel
+                    || meta[mv + LOW] > maxLow
+                    || meta[mv + POST] < minPost
+                    || !covers(v, common)) {
+                    continue;
+                }
+                stack.add(v);
+            }
+        }
+        for (int k = start; k < end; k++) {
+            int i = (int) pending[k];
+            result[i] = s.mark[condensation.getComponentId(to[i])] == stamp;
+        }
+        fallbacks.increment();
+        fallbackVisits.add(visits);
+    }
+    
+    private boolean covers(int c, long[] bits) {
+        int lc = c * labelStride;
+        for (int w = 0; w < words; w++) {
+            if ((bits[w] & ~labels[lc + w]) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Heap bytes held by the index arrays (the condensation itself excluded).
+     */
+    public long getIndexBytes() {
+        return 4L * meta.length + 8L * labels.length + 8L * pivotMasks.length;
+    }
+    
+    public CondensationGraph getCondensation() {
+        return condensation;
+    }
+    
+    // Per-thread visited and target stamps for the fallback searches
+    private static final class Scratch {
+        final int[] mark;
+        final int[] goal;
+        final IntList stack = new IntList();
+        long[] common = new long[0];
+        int stamp;
+        
+        Scratch(int n) {
+            mark = new int[n];
+            goal = new int[n];
+        }
+        
+        int nextStamp() {
+            if (stamp == Integer.MAX_VALUE) {
+                Arrays.fill(mark, 0);
+                Arrays.fill(goal, 0);
+                stamp = 0;
+            }
+            return ++stamp;
+        }
+        
+        long[] common(int words) {
+            if (common.length < words) {
+                common = new long[words];
+            }
+            return common;
+        }
+    }
+}
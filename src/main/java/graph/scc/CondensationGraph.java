@@ -1,57 +1,162 @@
 package graph.scc;
 
-import graph.model.Graph;
-import graph.model.Graph.Edge;
+import graph.model.CsrGraph;
+import graph.model.GraphView;
 import java.util.*;
 
 /**
  * Builds condensation graph (DAG) from SCCs.
  * Each SCC becomes a single vertex.
+ * Inter-component edges are bucketed by source component and deduplicated
+ * with a per-target marker array, so construction allocates only O(V + E) ints.
  */
 public class CondensationGraph {
-    private final Graph condensation;
+    private final CsrGraph condensation;
     private final int[] componentId;
+    private final int[] memberOffsets;
+    private final int[] members;
     
-    public CondensationGraph(Graph original, List<List<Integer>> sccs) {
-        int numComponents = sccs.size();
-        this.condensation = new Graph(numComponents, "edge");
-        this.componentId = new int[original.getVertexCount()];
+    public CondensationGraph(GraphView original, List<List<Integer>> sccs) {
+        this(original, toResult(original.getVertexCount(), sccs), EdgeMergePolicy.FIRST);
+    }
+    
+    public CondensationGraph(GraphView original, SCCResult sccs) {
+        this(original, sccs, EdgeMergePolicy.FIRST);
+    }
+    
+    public CondensationGraph(GraphView original, SCCResult sccs, EdgeMergePolicy policy) {
+        int n = original.getVertexCount();
+        int numComponents = sccs.getComponentCount();
+        this.componentId = sccs.componentIds();
+        this.memberOffsets = sccs.offsets();
+        this.members = sccs.members();
         
-        // Map vertices to component IDs
-        for (int i = 0; i < sccs.size(); i++) {
-            for (int v : sccs.get(i)) {
-                componentId[v] = i;
+        // Count inter-component edges per source component
+        int[] offsets = new int[numComponents + 1];
+        for (int u = 0; u < n; u++) {
+            int compU = componentId[u];
+            int degree = original.getOutDegree(u);
+            for (int i = 0; i < degree; i++) {
+                if (componentId[original.getTarget(u, i)] != compU) {
+                    offsets[compU + 1]++;
+                }
             }
         }
+        for (int c = 0; c < numComponents; c++) {
+            offsets[c + 1] += offsets[c];
+        }
         
-        // Add inter-component edges
-        Set<String> added = new HashSet<>();
-        for (int u = 0; u < original.getVertexCount(); u++) {
+        // Stable bucket fill, preserving original vertex order within a component
+        int total = offsets[numComponents];
+        int[] targets = new int[total];
+        int[] weights = new int[total];
+        int[] cursor = Arrays.copyOf(offsets, numComponents);
+        for (int u = 0; u < n; u++) {
             int compU = componentId[u];
-            for (Edge edge : original.getNeighbors(u)) {
-                int compV = componentId[edge.to];
-                if (compU != compV) {
-                    String key = compU + "->" + compV;
-                    if (!added.contains(key)) {
-                        condensation.addEdge(compU, compV, edge.weight);
-                        added.add(key);
-                    }
+            int degree = original.getOutDegree(u);
+            for (int i = 0; i < degree; i++) {
+                int compV = componentId[original.getTarget(u, i)];
+                if (compV != compU) {
+                    int slot = cursor[compU]++;
+                    targets[slot] = compV;
+                    weights[slot] = original.getWeight(u, i);
+                }
+            }
+        }
+        
+        // Deduplicate each bucket in place, merging parallel edge weights
+        int[] lastSource = new int[numComponents];
+        int[] position = new int[numComponents];
+        Arrays.fill(lastSource, -1);
+        int write = 0;
+        int start = 0;
+        for (int c = 0; c < numComponents; c++) {
+            int end = offsets[c + 1];
+            offsets[c] = write;
+            for (int e = start; e < end; e++) {
+                int target = targets[e];
+                if (lastSource[target] != c) {
+                    lastSource[target] = c;
+                    position[target] = write;
+                    targets[write] = target;
+                    weights[write] = weights[e];
+                    write++;
+                } else {
+                    int p = position[target];
+                    weights[p] = policy.merge(weights[p], weights[e]);
                 }
             }
+            start = end;
+        }
+        offsets[numComponents] = write;
+        
+        // A component's duration is the total duration of its tasks; overflow
+        // throws ArithmeticException like EdgeMergePolicy.SUM
+        int[] nodeWeights = new int[numComponents];
+        for (int v = 0; v < n; v++) {
+            nodeWeights[componentId[v]] = Math.addExact(nodeWeights[componentId[v]], original.getNodeWeight(v));
+        }
+        
+        this.condensation = CsrGraph.fromForward(numComponents, original.getWeightModel(), offsets,
+                                                 Arrays.copyOf(targets, write),
+                                                 Arrays.copyOf(weights, write), nodeWeights);
+    }
+    
+    /**
+     * Wrap a condensation that is maintained elsewhere (see IncrementalSCC).
+     */
+    CondensationGraph(CsrGraph condensation, SCCResult sccs) {
+        this.condensation = condensation;
+        this.componentId = sccs.componentIds();
+        this.memberOffsets = sccs.offsets();
+        this.members = sccs.members();
+    }
+    
+    private static SCCResult toResult(int n, List<List<Integer>> sccs) {
+        int[] componentId = new int[n];
+        int[] offsets = new int[sccs.size() + 1];
+        int[] members = new int[n];
+        int count = 0;
+        for (int i = 0; i < sccs.size(); i++) {
+            for (int v : sccs.get(i)) {
+                componentId[v] = i;
+                members[count++] = v;
+            }
+            offsets[i + 1] = count;
         }
+        return new SCCResult(componentId, offsets, members);
     }
     
-    public Graph getGraph() {
+    public CsrGraph getGraph() {
         return condensation;
     }
     
+    public int getComponentCount() {
+        return condensation.getVertexCount();
+    }
+    
     public int getComponentId(int vertex) {
         return componentId[vertex];
     }
     
+    public int getComponentSize(int component) {
+        return memberOffsets[component + 1] - memberOffsets[component];
+    }
+    
+    public int getMember(int component, int i) {
+        return members[memberOffsets[component] + i];
+    }
+    
+    /**
+     * Original vertices of a component, for expanding condensed paths.
+     */
+    public int[] getMembers(int component) {
+        return Arrays.copyOfRange(members, memberOffsets[component], memberOffsets[component + 1]);
+    }
+    
     @Override
     public String toString() {
         return "Condensation: " + condensation.getVertexCount() + " nodes, " + 
                condensation.getEdgeCount() + " edges";
     }
-} 
+}
@@ -0,0 +1,34 @@
+package graph.scc;
+
+/**
+ * How parallel edges between two components are combined in the condensation.
+ */
+public enum EdgeMergePolicy {
+    /** Keep the weight of the first edge encountered (original vertex order). */
+    FIRST {
+        @Override
+        public int merge(int current, int next) {
+            return current;
+        }
+    },
+    MIN {
+        @Override
+        public int merge(int current, int next) {
+            return Math.min(current, next);
+        }
+    },
+    MAX {
+        @Override
+        public int merge(int current, int next) {
+            return Math.max(current, next);
+        }
+    },
+    SUM {
+        @Override
+        public int merge(int current, int next) {
+            return Math.addExact(current, next);
+        }
+    };
+    
+    public abstract int merge(int current, int next);
+}
@@ -0,0 +1,673 @@
+package graph.scc;
+
+import graph.model.CsrGraph;
+import graph.model.Graph;
+import graph.metrics.Metrics;
+import graph.util.IntList;
+import java.util.*;
+
+/**
+ * Incrementally maintained SCCs and condensation order.
+ * Components are kept in topological order (Pearce-Kelly on the component graph).
+ * Inserting an edge that closes a cycle merges exactly the components on the new
+ * cycle; batched deletions re-run Tarjan only inside the components they touch.
+ * Component ids are stable between events, and listeners are told about merges
+ * and splits once the order is consistent again. The component adjacency is
+ * maintained with the components: a merge unions the merged components' edge
+ * rows and drops the ones that became internal, a split rescans only the split
+ * component's edges. getCondensation then lays those rows out as a CSR graph
+ * without reading the original edges.
+ * The wrapped graph must be modified only through this class.
+ */
+public class IncrementalSCC {
+    
+    /**
+     * Receives component change events, e.g. to invalidate cached path results.
+     */
+    public interface Listener {
+        void componentsMerged(int survivor, int[] absorbed);
+        
+        void componentSplit(int original, int[] parts);
+    }
+    
+    private static final int NONE = -1;
+    
+    private final Graph graph;
+    private final Metrics metrics;
+    private final List<Listener> listeners = new ArrayList<>();
+    private final int[] compOf;
+    private final int[][] members;
+    private final int[] memberCount;
+    private final int[] ord;
+    private final int[] compAt;
+    private final int[] forwardMark;
+    private final int[] backwardMark;
+    private final int[] stack;
+    private final int[] localIndex;
+    private final int[] mergeMark;
+    // Component adjacency: outEdges[c] maps target component -> {edge count, weight};
+    // inEdges[d] holds the same records keyed by source. Null rows are empty.
+    private final List<Map<Integer, int[]>> outEdges;
+    private final List<Map<Integer, int[]>> inEdges;
+    private final IntList freeIds = new IntList();
+    private int componentCount;
+    private int epoch;
+    private CondensationGraph condensation;
+    
+    public IncrementalSCC(Graph graph, Metrics metrics) {
+        this.graph = graph;
+        this.metrics = metrics;
+        int n = graph.getVertexCount();
+        this.compOf = new int[n];
+        this.members = new int[n][];
+        this.memberCount = new int[n];
+        this.ord = new int[n];
+        this.compAt = new int[n];
+        this.forwardMark = new int[n];
+        this.backwardMark = new int[n];
+        this.stack = new int[n];
+        this.localIndex = new int[n];
+        this.mergeMark = new int[n];
+        this.outEdges = new ArrayList<>(Collections.nCopies(n, null));
+        this.inEdges = new ArrayList<>(Collections.nCopies(n, null));
+        Arrays.fill(ord, NONE);
+        Arrays.fill(compAt, NONE);
+        
+        // Tarjan completes components in reverse topological order
+        SCCResult sccs = new TarjanSCC(graph, new Metrics()).decompose();
+        componentCount = sccs.getComponentCount();
+        for (int c = 0; c < componentCount; c++) {
+            int size = sccs.getComponentSize(c);
+            members[c] = new int[size];
+            for (int i = 0; i < size; i++) {
+                int v = sccs.getMember(c, i);
+                members[c][i] = v;
+                compOf[v] = c;
+            }
+            memberCount[c] = size;
+            ord[c] = componentCount - 1 - c;
+            compAt[ord[c]] = c;
+        }
+        for (int c = n - 1; c >= componentCount; c--) {
+            freeIds.add(c);
+        }
+        for (int u = 0; u < n; u++) {
+            int degree = graph.getOutDegree(u);
+            for (int i = 0; i < degree; i++) {
+                int v = graph.getTarget(u, i);
+                if (compOf[u] != compOf[v]) {
+                    link(compOf[u], compOf[v], 1, graph.getWeight(u, i));
+                }
+            }
+        }
+    }
+    
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+    
+    public Graph getGraph() {
+        return graph;
+    }
+    
+    public int getComponentCount() {
+        return componentCount;
+    }
+    
+    public int getComponentId(int vertex) {
+        return compOf[vertex];
+    }
+    
+    /**
+     * Original vertices of a component (copy).
+     */
+    public int[] getMembers(int component) {
+        return Arrays.copyOf(members[component], memberCount[component]);
+    }
+    
+    /**
+     * Relative position of a component in the maintained topological order.
+     */
+    public int getPosition(int component) {
+        return ord[component];
+    }
+    
+    /**
+     * Current condensation DAG; vertices are numbered in topological order.
+     * Laid out from the maintained component rows after any change, in
+     * O(V + condensation edges). Parallel edges between two components keep
+     * the weight of one of them (the first linked), like EdgeMergePolicy.FIRST
+     * up to which edge counts as first.
+     */
+    public CondensationGraph getCondensation() {
+        if (condensation == null) {
+            int n = graph.getVertexCount();
+            int[] index = new int[n];
+            int[] order = new int[componentCount];
+            int count = 0;
+            for (int p = 0; p < compAt.length; p++) {
+                if (compAt[p] != NONE) {
+                    order[count] = compAt[p];
+                    index[compAt[p]] = count++;
+                }
+            }
+            int[] componentId = new int[n];
+            int[] memberOffsets = new int[count + 1];
+            int[] flatMembers = new int[n];
+            int[] nodeWeights = new int[count];
+            int[] offsets = new int[count + 1];
+            for (int i = 0; i < count; i++) {
+                int c = order[i];
+                int start = memberOffsets[i];
+                for (int m = 0; m < memberCount[c]; m++) {
+                    int x = members[c][m];
+                    componentId[x] = i;
+                    flatMembers[start + m] = x;
+                    nodeWeights[i] = Math.addExact(nodeWeights[i], graph.getNodeWeight(x));
+                }
+                memberOffsets[i + 1] = start + memberCount[c];
+                Map<Integer, int[]> row = outEdges.get(c);
+                offsets[i + 1] = offsets[i] + (row == null ? 0 : row.size());
+            }
+            int[] targets = new int[offsets[count]];
+            int[] weights = new int[offsets[count]];
+            for (int i = 0; i < count; i++) {
+                Map<Integer, int[]> row = outEdges.get(order[i]);
+                if (row == null) {
+                    continue;
+                }
+                int e = offsets[i];
+                for (Map.Entry<Integer, int[]> entry : row.entrySet()) {
+                    targets[e] = index[entry.getKey()];
+                    weights[e++] = entry.getValue()[1];
+                }
+            }
+            CsrGraph dag = CsrGraph.fromForward(count, graph.getWeightModel(), offsets, targets, weights,
+                                                nodeWeights);
+            condensation = new CondensationGraph(dag, new SCCResult(componentId, memberOffsets, flatMembers));
+        }
+        return condensation;
+    }
+    
+    /**
+     * Insert edge u -> v. If it closes a cycle, the components on that cycle merge.
+     */
+    public void addEdge(int u, int v, int weight) {
+        graph.addEdge(u, v, weight);
+        int cu = compOf[u];
+        int cv = compOf[v];
+        if (cu == cv) {
+            return;
+        }
+        link(cu, cv, 1, weight);
+        if (ord[cu] < ord[cv]) {
+            return;
+        }
+        
+        int forwardStamp = ++epoch;
+        int[] forward = search(cv, ord[cu], forwardMark, forwardStamp, true);
+        int backwardStamp = ++epoch;
+        int[] backward = search(cu, ord[cv], backwardMark, backwardStamp, false);
+        metrics.increment("reorders");
+        
+        if (forwardMark[cu] != forwardStamp) {
+            place(backward, NONE, forward, forward, backward);
+            return;
+        }
+        
+        // Components reachable from cv that also reach cu lie on the new cycle
+        IntList cycle = new IntList();
+        IntList before = new IntList();
+        IntList after = new IntList();
+        for (int c : backward) {
+            if (forwardMark[c] == forwardStamp) {
+                cycle.add(c);
+            } else {
+                before.add(c);
+            }
+        }
+        for (int c : forward) {
+            if (backwardMark[c] != backwardStamp) {
+                after.add(c);
+            }
+        }
+        
+        int[] positions = collectPositions(forward, backward, backwardStamp);
+        int[] merged = cycle.toArray();
+        int survivor = merge(merged);
+        place(before.toArray(), survivor, after.toArray(), positions);
+        
+        int[] absorbed = new int[merged.length - 1];
+        int k = 0;
+        for (int c : merged) {
+            if (c != survivor) {
+                absorbed[k++] = c;
+            }
+        }
+        for (Listener listener : listeners) {
+            listener.componentsMerged(survivor, absorbed.clone());
+        }
+    }
+    
+    /**
+     * Remove one edge u -> v; splits its component if the cycle is broken.
+     */
+    public void removeEdge(int u, int v) {
+        removeEdges(new int[] {u}, new int[] {v});
+    }
+    
+    /**
+     * Remove a batch of edges (from[i] -> to[i]), then recompute SCCs only
+     * inside components that lost an internal edge.
+     */
+    public void removeEdges(int[] from, int[] to) {
+        if (from.length != to.length) {
+            throw new IllegalArgumentException("Edge arrays differ in length");
+        }
+        int stamp = ++epoch;
+        IntList dirty = new IntList();
+        for (int i = 0; i < from.length; i++) {
+            int weight = firstWeight(from[i], to[i]);
+            if (!graph.removeEdge(from[i], to[i])) {
+                continue;
+            }
+            int c = compOf[from[i]];
+            if (c != compOf[to[i]]) {
+                unlink(c, compOf[to[i]], weight);
+            } else if (forwardMark[c] != stamp) {
+                forwardMark[c] = stamp;
+                dirty.add(c);
+            }
+        }
+        
+        Map<Integer, int[]> splits = new HashMap<>();
+        for (int i = 0; i < dirty.size(); i++) {
+            int c = dirty.get(i);
+            int[] parts = split(c);
+            if (parts != null) {
+                splits.put(c, parts);
+            }
+        }
+        if (splits.isEmpty()) {
+            return;
+        }
+        splitEdges(splits.values());
+        
+        // Split parts take the original's slot, in their own topological order
+        int[] order = new int[compAt.length];
+        int count = 0;
+        for (int p = 0; p < compAt.length; p++) {
+            int c = compAt[p];
+            if (c == NONE) {
+                continue;
+            }
+            int[] parts = splits.get(c);
+            if (parts == null) {
+                order[count++] = c;
+            } else {
+                for (int part : parts) {
+                    order[count++] = part;
+                }
+            }
+        }
+        Arrays.fill(compAt, NONE);
+        for (int p = 0; p < count; p++) {
+            compAt[p] = order[p];
+            ord[order[p]] = p;
+        }
+        
+        for (Map.Entry<Integer, int[]> entry : splits.entrySet()) {
+            for (Listener listener : listeners) {
+                listener.componentSplit(entry.getKey(), entry.getValue().clone());
+            }
+        }
+    }
+    
+    /**
+     * Components reachable from start (forward) or reaching start (backward),
+     * restricted to positions on the start's side of bound.
+     */
+    private int[] search(int start, int bound, int[] mark, int stamp, boolean forward) {
+        IntList found = new IntList();
+        long edges = 0;
+        int sp = 0;
+        stack[sp++] = start;
+        mark[start] = stamp;
+        while (sp > 0) {
+            int c = stack[--sp];
+            found.add(c);
+            for (int m = 0; m < memberCount[c]; m++) {
+                int x = members[c][m];
+                int degree = forward ? graph.getOutDegree(x) : graph.getInDegree(x);
+                for (int i = 0; i < degree; i++) {
+                    int y = forward ? graph.getTarget(x, i) : graph.getReverseTarget(x, i);
+                    int d = compOf[y];
+                    edges++;
+                    if (mark[d] == stamp || d == c) {
+                        continue;
+                    }
+                    if (forward ? ord[d] <= bound : ord[d] >= bound) {
+                        mark[d] = stamp;
+                        stack[sp++] = d;
+                    }
+                }
+            }
+        }
+        metrics.add("edges_explored", edges);
+        return found.toArray();
+    }
+    
+    private int[] collectPositions(int[] forward, int[] backward, int backwardStamp) {
+        IntList positions = new IntList(forward.length + backward.length);
+        for (int c : backward) {
+            positions.add(ord[c]);
+        }
+        for (int c : forward) {
+            if (backwardMark[c] != backwardStamp) {
+                positions.add(ord[c]);
+            }
+        }
+        int[] sorted = positions.toArray();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+    
+    private void place(int[] before, int middle, int[] after, int[] forward, int[] backward) {
+        int[] positions = new int[forward.length + backward.length];
+        for (int i = 0; i < backward.length; i++) {
+            positions[i] = ord[backward[i]];
+        }
+        for (int i = 0; i < forward.length; i++) {
+            positions[backward.length + i] = ord[forward[i]];
+        }
+        Arrays.sort(positions);
+        place(before, middle, after, positions);
+    }
+    
+    /**
+     * Reassign the pooled positions: the before-set takes the lowest, the after-set
+     * the highest, and the merged component (if any) follows the before-set.
+     * Before-set vertices only move down and after-set vertices only move up, so
+     * edges from untouched components stay ordered; leftover positions become holes.
+     */
+    private void place(int[] before, int middle, int[] after, int[] positions) {
+        sortByPosition(before);
+        sortByPosition(after);
+        for (int p : positions) {
+            compAt[p] = NONE;
+        }
+        int next = 0;
+        for (int c : before) {
+            assignPosition(c, positions[next++]);
+        }
+        if (middle != NONE) {
+            assignPosition(middle, positions[next]);
+        }
+        int first = positions.length - after.length;
+        for (int i = 0; i < after.length; i++) {
+            assignPosition(after[i], positions[first + i]);
+        }
+    }
+    
+    private void assignPosition(int c, int position) {
+        ord[c] = position;
+        compAt[position] = c;
+    }
+    
+    private void sortByPosition(int[] comps) {
+        long[] keyed = new long[comps.length];
+        for (int i = 0; i < comps.length; i++) {
+            keyed[i] = ((long) ord[comps[i]] << 32) | comps[i];
+        }
+        Arrays.sort(keyed);
+        for (int i = 0; i < comps.length; i++) {
+            comps[i] = (int) keyed[i];
+        }
+    }
+    
+    /**
+     * Merge components into the largest one; returns the survivor id.
+     * The caller places the survivor and then notifies listeners.
+     */
+    private int merge(int[] comps) {
+        int survivor = comps[0];
+        for (int c : comps) {
+            if (memberCount[c] > memberCount[survivor]) {
+                survivor = c;
+            }
+        }
+        int total = 0;
+        for (int c : comps) {
+            total += memberCount[c];
+        }
+        int[] merged = Arrays.copyOf(members[survivor], total);
+        int size = memberCount[survivor];
+        for (int c : comps) {
+            if (c == survivor) {
+                continue;
+            }
+            for (int m = 0; m < memberCount[c]; m++) {
+                int x = members[c][m];
+                merged[size++] = x;
+                compOf[x] = survivor;
+            }
+            members[c] = null;
+            memberCount[c] = 0;
+            ord[c] = NONE;
+            freeIds.add(c);
+        }
+        members[survivor] = merged;
+        memberCount[survivor] = size;
+        componentCount -= comps.length - 1;
+        mergeEdges(survivor, comps);
+        metrics.increment("merges");
+        return survivor;
+    }
+    
+    /**
+     * Union the rows of the merged components into the survivor's and drop
+     * edges between them. Costs O(condensation edges of the merged components).
+     */
+    private void mergeEdges(int survivor, int[] comps) {
+        int stamp = ++epoch;
+        for (int c : comps) {
+            mergeMark[c] = stamp;
+        }
+        Map<Integer, int[]> out = new HashMap<>();
+        Map<Integer, int[]> in = new HashMap<>();
+        for (int c : comps) {
+            Map<Integer, int[]> row = outEdges.set(c, null);
+            if (row != null) {
+                for (Map.Entry<Integer, int[]> entry : row.entrySet()) {
+                    int d = entry.getKey();
+                    if (mergeMark[d] != stamp) {
+                        inEdges.get(d).remove(c);
+                        combine(out, d, entry.getValue());
+                    }
+                }
+            }
+            row = inEdges.set(c, null);
+            if (row != null) {
+                for (Map.Entry<Integer, int[]> entry : row.entrySet()) {
+                    int x = entry.getKey();
+                    if (mergeMark[x] != stamp) {
+                        outEdges.get(x).remove(c);
+                        combine(in, x, entry.getValue());
+                    }
+                }
+            }
+        }
+        outEdges.set(survivor, out);
+        inEdges.set(survivor, in);
+        for (Map.Entry<Integer, int[]> entry : out.entrySet()) {
+            inEdges.get(entry.getKey()).put(survivor, entry.getValue());
+        }
+        for (Map.Entry<Integer, int[]> entry : in.entrySet()) {
+            outEdges.get(entry.getKey()).put(survivor, entry.getValue());
+        }
+        condensation = null;
+    }
+    
+    private static void combine(Map<Integer, int[]> row, int key, int[] edge) {
+        int[] current = row.get(key);
+        if (current == null) {
+            row.put(key, edge);
+        } else {
+            current[0] += edge[0];
+        }
+    }
+    
+    /**
+     * Rebuild the rows of split components from their members' edges. All old
+     * rows go first; an edge between two split components is then linked once,
+     * from its source side.
+     */
+    private void splitEdges(Collection<int[]> splits) {
+        // Parts add vertices even when no edge row changes
+        condensation = null;
+        int stamp = ++epoch;
+        for (int[] parts : splits) {
+            int c = parts[0];
+            Map<Integer, int[]> row = outEdges.set(c, null);
+            if (row != null) {
+                for (int d : row.keySet()) {
+                    inEdges.get(d).remove(c);
+                }
+            }
+            row = inEdges.set(c, null);
+            if (row != null) {
+                for (int x : row.keySet()) {
+                    outEdges.get(x).remove(c);
+                }
+            }
+            for (int part : parts) {
+                mergeMark[part] = stamp;
+            }
+        }
+        for (int[] parts : splits) {
+            for (int part : parts) {
+                for (int m = 0; m < memberCount[part]; m++) {
+                    int x = members[part][m];
+                    int degree = graph.getOutDegree(x);
+                    for (int i = 0; i < degree; i++) {
+                        int d = compOf[graph.getTarget(x, i)];
+                        if (d != part) {
+                            link(part, d, 1, graph.getWeight(x, i));
+                        }
+                    }
+                    degree = graph.getInDegree(x);
+                    for (int i = 0; i < degree; i++) {
+                        int d = compOf[graph.getReverseTarget(x, i)];
+                        if (mergeMark[d] != stamp) {
+                            link(d, part, 1, graph.getReverseWeight(x, i));
+                        }
+                    }
+                }
+            }
+        }
+    }
+    
+    private void link(int c, int d, int count, int weight) {
+        Map<Integer, int[]> row = outEdges.get(c);
+        if (row == null) {
+            row = new HashMap<>();
+            outEdges.set(c, row);
+        }
+        int[] edge = row.get(d);
+        if (edge == null) {
+            edge = new int[] {count, weight};
+            row.put(d, edge);
+            Map<Integer, int[]> reverse = inEdges.get(d);
+            if (reverse == null) {
+                reverse = new HashMap<>();
+                inEdges.set(d, reverse);
+            }
+            reverse.put(c, edge);
+        } else {
+            edge[0] += count;
+        }
+        condensation = null;
+    }
+    
+    // One edge c -> d of the given weight is gone; if it carried the row's
+    // weight, take it from a remaining parallel edge
+    private void unlink(int c, int d, int weight) {
+        int[] edge = outEdges.get(c).get(d);
+        if (--edge[0] == 0) {
+            outEdges.get(c).remove(d);
+            inEdges.get(d).remove(c);
+        } else if (edge[1] == weight) {
+            boolean found = false;
+            for (int m = 0; m < memberCount[c] && !found; m++) {
+                int x = members[c][m];
+                int degree = graph.getOutDegree(x);
+                for (int i = 0; i < degree && !found; i++) {
+                    if (compOf[graph.getTarget(x, i)] == d) {
+                        edge[1] = graph.getWeight(x, i);
+                        found = true;
+                    }
+                }
+            }
+        }
+        condensation = null;
+    }
+    
+    // Weight of the edge Graph.removeEdge(u, v) would remove
+    private int firstWeight(int u, int v) {
+        int degree = graph.getOutDegree(u);
+        for (int i = 0; i < degree; i++) {
+            if (graph.getTarget(u, i) == v) {
+                return graph.getWeight(u, i);
+            }
+        }
+        return 0;
+    }
+    
+    /**
+     * Re-run Tarjan on the subgraph induced by one component.
+     * Returns the new parts in topological order, or null if it is still strongly connected.
+     */
+    private int[] split(int c) {
+        int size = memberCount[c];
+        int[] vertices = Arrays.copyOf(members[c], size);
+        for (int i = 0; i < size; i++) {
+            localIndex[vertices[i]] = i;
+        }
+        CsrGraph.Builder builder = new CsrGraph.Builder(size, graph.getWeightModel(), size);
+        for (int i = 0; i < size; i++) {
+            int x = vertices[i];
+            int degree = graph.getOutDegree(x);
+            for (int e = 0; e < degree; e++) {
+                int y = graph.getTarget(x, e);
+                if (compOf[y] == c) {
+                    builder.addEdge(i, localIndex[y], graph.getWeight(x, e));
+                }
+            }
+        }
+        SCCResult local = new TarjanSCC(builder.build(), new Metrics()).decompose();
+        int count = local.getComponentCount();
+        if (count == 1) {
+            return null;
+        }
+        
+        // Local Tarjan ids are reverse topological; the topologically first part keeps id c
+        int[] parts = new int[count];
+        for (int p = 0; p < count; p++) {
+            int localComp = count - 1 - p;
+            int id = p == 0 ? c : freeIds.removeLast();
+            int partSize = local.getComponentSize(localComp);
+            int[] partMembers = new int[partSize];
+            for (int i = 0; i < partSize; i++) {
+                int x = vertices[local.getMember(localComp, i)];
+                partMembers[i] = x;
+                compOf[x] = id;
+            }
+            members[id] = partMembers;
+            memberCount[id] = partSize;
+            parts[p] = id;
+        }
+        componentCount += count - 1;
+        metrics.increment("splits");
+        return parts;
+    }
+}
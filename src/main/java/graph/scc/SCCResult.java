@@ -0,0 +1,92 @@
+package graph.scc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Flat SCC decomposition.
+ * Component c owns members[offsets[c] .. offsets[c + 1]),
+ * and componentId[v] names the component of vertex v.
+ */
+public final class SCCResult {
+    private final int[] componentId;
+    private final int[] offsets;
+    private final int[] members;
+    
+    public SCCResult(int[] componentId, int[] offsets, int[] members) {
+        this.componentId = componentId;
+        this.offsets = offsets;
+        this.members = members;
+    }
+    
+    /**
+     * Build a result from per-vertex component ids in [0, count).
+     * Members of each component are listed in increasing vertex order.
+     */
+    public static SCCResult fromComponentIds(int[] componentId, int count) {
+        int[] offsets = new int[count + 1];
+        for (int c : componentId) {
+            offsets[c + 1]++;
+        }
+        for (int c = 0; c < count; c++) {
+            offsets[c + 1] += offsets[c];
+        }
+        int[] cursor = new int[count];
+        System.arraycopy(offsets, 0, cursor, 0, count);
+        int[] members = new int[componentId.length];
+        for (int v = 0; v < componentId.length; v++) {
+            members[cursor[componentId[v]]++] = v;
+        }
+        return new SCCResult(componentId, offsets, members);
+    }
+    
+    public int getComponentCount() {
+        return offsets.length - 1;
+    }
+    
+    public int getVertexCount() {
+        return componentId.length;
+    }
+    
+    public int getComponentId(int vertex) {
+        return componentId[vertex];
+    }
+    
+    public int getComponentSize(int component) {
+        return offsets[component + 1] - offsets[component];
+    }
+    
+    public int getMember(int component, int i) {
+        return members[offsets[component] + i];
+    }
+    
+    /**
+     * Per-vertex component ids. The array is shared, not copied.
+     */
+    public int[] componentIds() {
+        return componentId;
+    }
+    
+    public int[] offsets() {
+        return offsets;
+    }
+    
+    public int[] members() {
+        return members;
+    }
+    
+    /**
+     * Boxed view in the legacy List-of-Lists shape.
+     */
+    public List<List<Integer>> toLists() {
+        List<List<Integer>> sccs = new ArrayList<>(getComponentCount());
+        for (int c = 0; c < getComponentCount(); c++) {
+            List<Integer> scc = new ArrayList<>(getComponentSize(c));
+            for (int i = offsets[c]; i < offsets[c + 1]; i++) {
+                scc.add(members[i]);
+            }
+            sccs.add(scc);
+        }
+        return sccs;
+    }
+}
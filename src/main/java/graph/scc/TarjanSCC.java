@@ -1,82 +1,131 @@
 package graph.scc;
 
-import graph.model.Graph;
-import graph.model.Graph.Edge;
+import graph.model.GraphView;
+import graph.model.ReorderedGraph;
 import graph.metrics.Metrics;
 import java.util.*;
 
 /**
  * Tarjan's algorithm for finding Strongly Connected Components.
+ * Iterative with explicit int[] stacks and per-vertex edge cursors,
+ * so recursion depth does not depend on path length.
  * Time: O(V + E), Space: O(V)
  */
 public class TarjanSCC {
-    private final Graph graph;
+    private final GraphView graph;
     private final Metrics metrics;
-    private final int[] disc;
-    private final int[] low;
-    private final boolean[] onStack;
-    private final Stack<Integer> stack;
-    private final List<List<Integer>> sccs;
-    private int time;
+    private final ReorderedGraph reordered;
+    private SCCResult result;
     
-    public TarjanSCC(Graph graph, Metrics metrics) {
+    public TarjanSCC(GraphView graph, Metrics metrics) {
         this.graph = graph;
         this.metrics = metrics;
-        int n = graph.getVertexCount();
-        this.disc = new int[n];
-        this.low = new int[n];
-        this.onStack = new boolean[n];
-        this.stack = new Stack<>();
-        this.sccs = new ArrayList<>();
-        Arrays.fill(disc, -1);
+        this.reordered = null;
+    }
+    
+    /**
+     * Traverse the relabelled graph for locality; results use original ids.
+     */
+    public TarjanSCC(ReorderedGraph reordered, Metrics metrics) {
+        this.graph = reordered.getGraph();
+        this.metrics = metrics;
+        this.reordered = reordered;
     }
     
     /**
      * Find all SCCs using Tarjan's algorithm.
      */
     public List<List<Integer>> findSCCs() {
-        metrics.startTimer();
-        
-        for (int v = 0; v < graph.getVertexCount(); v++) {
-            if (disc[v] == -1) {
-                dfs(v);
-            }
-        }
-        
-        metrics.stopTimer();
-        return sccs;
+        return decompose().toLists();
     }
     
-    private void dfs(int u) {
-        disc[u] = low[u] = time++;
-        stack.push(u);
-        onStack[u] = true;
-        metrics.increment("dfs_visits");
-        metrics.increment("push_ops");
-        
-        for (Edge edge : graph.getNeighbors(u)) {
-            int v = edge.to;
-            metrics.increment("edges_explored");
+    /**
+     * Find all SCCs as a flat component-id / offsets result.
+     * Components are numbered in the order Tarjan completes them
+     * (reverse topological order of the condensation).
+     */
+    public SCCResult decompose() {
+        if (result != null) {
+            return result;
+        }
+        metrics.startTimer();
+        try {
+            int n = graph.getVertexCount();
+            int[] disc = new int[n];
+            int[] low = new int[n];
+            int[] cursor = new int[n];
+            boolean[] onStack = new boolean[n];
+            int[] callStack = new int[n];
+            int[] stack = new int[n];
+            int[] componentId = new int[n];
+            int[] members = new int[n];
+            int[] offsets = new int[n + 1];
+            Arrays.fill(disc, -1);
+            
+            int time = 0;
+            int sp = 0;
+            int memberCount = 0;
+            int componentCount = 0;
+            long edges = 0;
+            
+            for (int root = 0; root < n; root++) {
+                if (disc[root] != -1) {
+                    continue;
+                }
+                int csp = 0;
+                disc[root] = low[root] = time++;
+                callStack[csp++] = root;
+                stack[sp++] = root;
+                onStack[root] = true;
             
-            if (disc[v] == -1) {
-                dfs(v);
-                low[u] = Math.min(low[u], low[v]);
-            } else if (onStack[v]) {
-                low[u] = Math.min(low[u], disc[v]);
+                while (csp > 0) {
+                    int u = callStack[csp - 1];
+                    if (cursor[u] < graph.getOutDegree(u)) {
+                        int v = graph.getTarget(u, cursor[u]++);
+                        edges++;
+            
+                        if (disc[v] == -1) {
+                            disc[v] = low[v] = time++;
+                            callStack[csp++] = v;
+                            stack[sp++] = v;
+                            onStack[v] = true;
+                        } else if (onStack[v]) {
+                            low[u] = Math.min(low[u], disc[v]);
+                        }
+                        continue;
+                    }
+            
+                    csp--;
+                    // Found SCC root
+                    if (low[u] == disc[u]) {
+                        int v;
+                        do {
+                            v = stack[--sp];
+                            onStack[v] = false;
+                            componentId[v] = componentCount;
+                            members[memberCount++] = v;
+                        } while (v != u);
+                        offsets[++componentCount] = memberCount;
+                    }
+                    if (csp > 0) {
+                        int parent = callStack[csp - 1];
+                        low[parent] = Math.min(low[parent], low[u]);
+                    }
+                }
             }
-        }
-        
-        // Found SCC root
-        if (low[u] == disc[u]) {
-            List<Integer> scc = new ArrayList<>();
-            int v;
-            do {
-                v = stack.pop();
-                metrics.increment("pop_ops");
-                onStack[v] = false;
-                scc.add(v);
-            } while (v != u);
-            sccs.add(scc);
+            
+            // Every vertex is visited, pushed and popped exactly once
+            metrics.add("dfs_visits", n);
+            metrics.add("push_ops", n);
+            metrics.add("pop_ops", n);
+            metrics.add("edges_explored", edges);
+            offsets = Arrays.copyOf(offsets, componentCount + 1);
+            result = reordered == null
+                ? new SCCResult(componentId, offsets, members)
+                : new SCCResult(reordered.toOriginalIndex(componentId), offsets, reordered.toOriginalIds(members));
+            return result;
+        } finally {
+            metrics.stopTimer();
         }
     }
     
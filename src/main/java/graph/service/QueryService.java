@@ -0,0 +1,278 @@
+package graph.service;
+
+import graph.dagsp.DAGShortestPath;
+import graph.dagsp.DAGShortestPath.LongPathResult;
+import graph.dagsp.PreparedDAG;
+import graph.metrics.Counter;
+import graph.metrics.Metrics;
+import graph.model.CsrGraph;
+import graph.model.Graph;
+import graph.model.GraphView;
+import graph.scc.SCCResult;
+import graph.scc.TarjanSCC;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Thread-safe query front end for many concurrent planners.
+ * The graph lives in an immutable Snapshot held by an AtomicReference:
+ * readers never lock, and a query started on one snapshot finishes on it even
+ * if a writer publishes a new one meanwhile. Writers copy on write: publish()
+ * freezes a copy of any GraphView into a CsrGraph, update() edits a mutable
+ * copy of the current snapshot. Writers are serialized among themselves only.
+ * Each snapshot computes its SCCs and topological plan once, on first use.
+ * Path queries borrow dist/parent arrays from a shared pool, so steady-state
+ * queries allocate only their results; the pool holds as many scratch sets as
+ * the peak number of concurrent queries.
+ * Use snapshot() for several queries that must see the same version.
+ */
+public class QueryService {
+    private final Metrics metrics;
+    private final AtomicReference<Snapshot> current;
+    private final Queue<Scratch> pool = new ConcurrentLinkedQueue<>();
+    private final Object writeLock = new Object();
+    private final Counter queries;
+    private final Counter published;
+    private final Counter scratchAllocations;
+    
+    public QueryService(GraphView graph, Metrics metrics) {
+        this.metrics = metrics;
+        this.queries = metrics.counter("service_queries");
+        this.published = metrics.counter("snapshots_published");
+        this.scratchAllocations = metrics.counter("scratch_allocations");
+        this.current = new AtomicReference<>(new Snapshot(this, CsrGraph.copyOf(graph), 1));
+    }
+    
+    /**
+     * The current snapshot; stays valid and unchanged after later publishes.
+     */
+    public Snapshot snapshot() {
+        return current.get();
+    }
+    
+    public long getVersion() {
+        return current.get().version;
+    }
+    
+    /**
+     * Replace the graph with a frozen copy of graph. Later edits to graph are not seen.
+     */
+    public Snapshot publish(GraphView graph) {
+        CsrGraph copy = CsrGraph.copyOf(graph);
+        synchronized (writeLock) {
+            return install(copy);
+        }
+    }
+    
+    /**
+     * Apply edit to a mutable copy of the current graph and publish the result.
+     * The vertex count is fixed; edit must not keep a reference to the copy.
+     */
+    public Snapshot update(Consumer<Graph> edit) {
+        synchronized (writeLock) {
+            Graph copy = toGraph(current.get().graph);
+            edit.accept(copy);
+            return install(CsrGraph.copyOf(copy));
+        }
+    }
+    
+    private Snapshot install(CsrGraph graph) {
+        Snapshot next = new Snapshot(this, graph, current.get().version + 1);
+        current.set(next);
+        published.increment();
+        return next;
+    }
+    
+    private static Graph toGraph(GraphView view) {
+        int n = view.getVertexCount();
+        Graph graph = new Graph(n, view.getWeightModel());
+        for (int u = 0; u < n; u++) {
+            graph.setNodeWeight(u, view.getNodeWeight(u));
+            int degree = view.getOutDegree(u);
+            for (int i = 0; i < degree; i++) {
+                graph.addEdge(u, view.getTarget(u, i), view.getWeight(u, i));
+            }
+        }
+        return graph;
+    }
+    
+    /**
+     * SCCs of the current snapshot.
+     */
+    public SCCResult components() {
+        return snapshot().components();
+    }
+    
+    public int[] topologicalOrder() {
+        return snapshot().topologicalOrder();
+    }
+    
+    public long[] shortestPaths(int source) {
+        return snapshot().shortestPaths(source);
+    }
+    
+    public long shortestDistance(int source, int target) {
+        return snapshot().shortestDistance(source, target);
+    }
+    
+    public LongPathResult criticalPath() {
+        return snapshot().criticalPath();
+    }
+    
+    private Scratch acquire(int n) {
+        Scratch s = pool.poll();
+        if (s == null) {
+            s = new Scratch();
+            scratchAllocations.increment();
+        }
+        s.ensure(n);
+        return s;
+    }
+    
+    private void release(Scratch s) {
+        pool.offer(s);
+    }
+    
+    /**
+     * One immutable graph version with its lazily computed, shared query plans.
+     * All methods are thread-safe. Returned SCCResult and PreparedDAG arrays are
+     * shared and must not be modified.
+     */
+    public static final class Snapshot {
+        private final QueryService service;
+        private final CsrGraph graph;
+        private final long version;
+        private volatile SCCResult components;
+        private volatile PreparedDAG plan;
+        private volatile boolean cyclic;
+        
+        private Snapshot(QueryService service, CsrGraph graph, long version) {
+            this.service = service;
+            this.graph = graph;
+            this.version = version;
+        }
+        
+        public CsrGraph getGraph() {
+            return graph;
+        }
+        
+        /**
+         * Publish sequence number, starting at 1.
+         */
+        public long getVersion() {
+            return version;
+        }
+        
+        /**
+         * SCCs via TarjanSCC, computed on the first call.
+         */
+        public SCCResult components() {
+            service.queries.increment();
+            SCCResult result = components;
+            if (result == null) {
+                synchronized (this) {
+                    result = components;
+                    if (result == null) {
+                        result = new TarjanSCC(graph, service.metrics).decompose();
+                        components = result;
+                    }
+                }
+            }
+            return result;
+        }
+        
+        /**
+         * Topological order, sources and sinks, computed on the first call.
+         * Throws IllegalStateException("Graph has cycles!") on a cyclic snapshot.
+         */
+        public PreparedDAG prepared() {
+            PreparedDAG result = plan;
+            if (result == null) {
+                synchronized (this) {
+                    result = plan;
+                    if (result == null && !cyclic) {
+                        try {
+                            result = new PreparedDAG(graph);
+                            plan = result;
+                        } catch (IllegalStateException e) {
+                            cyclic = true;
+                        }
+                    }
+                }
+                if (result == null) {
+                    throw new IllegalStateException("Graph has cycles!");
+                }
+            }
+            return result;
+        }
+        
+        /**
+         * Kahn topological order (a copy the caller may modify).
+         */
+        public int[] topologicalOrder() {
+            service.queries.increment();
+            return prepared().getOrder().clone();
+        }
+        
+        /**
+         * Distances from source, UNREACHABLE where there is no path.
+         */
+        public long[] shortestPaths(int source) {
+            checkVertex(source);
+            service.queries.increment();
+            return new DAGShortestPath(prepared(), service.metrics).shortestPathsLong(source);
+        }
+        
+        /**
+         * Distance from source to target, or DAGShortestPath.UNREACHABLE.
+         */
+        public long shortestDistance(int source, int target) {
+            checkVertex(source);
+            checkVertex(target);
+            service.queries.increment();
+            Scratch s = service.acquire(graph.getVertexCount());
+            try {
+                return new DAGShortestPath(prepared(), service.metrics).shortestPathsLong(source, s.dist)[target];
+            } finally {
+                service.release(s);
+            }
+        }
+        
+        public LongPathResult criticalPath() {
+            service.queries.increment();
+            Scratch s = service.acquire(graph.getVertexCount());
+            try {
+                return new DAGShortestPath(prepared(), service.metrics).criticalPathLong(s.dist, s.parent);
+            } finally {
+                service.release(s);
+            }
+        }
+        
+        private void checkVertex(int v) {
+            if (v < 0 || v >= graph.getVertexCount()) {
+                throw new IllegalArgumentException("Vertex out of range: " + v);
+            }
+        }
+        
+        @Override
+        public String toString() {
+            return "Snapshot v" + version + ": " + graph.getVertexCount() + " nodes, "
+                + graph.getEdgeCount() + " edges";
+        }
+    }
+    
+    // Path buffers, grown to the largest snapshot seen
+    private static final class Scratch {
+        long[] dist = new long[0];
+        int[] parent = new int[0];
+        
+        void ensure(int n) {
+            if (dist.length < n) {
+                dist = new long[n];
+                parent = new int[n];
+            }
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package graph.topo;
+
+import graph.model.Graph;
+import graph.metrics.Metrics;
+import graph.util.IntList;
+import java.util.*;
+
+/**
+ * Dynamic topological order (Pearce-Kelly).
+ * Maintains ord[v] under edge insertions and deletions. An insertion u -> v
+ * that violates the order searches only the affected region
+ * ord[v] .. ord[u] and reassigns positions within it.
+ * Time per insertion: O(|affected vertices + their edges| log), not O(V + E).
+ * The wrapped graph must be modified only through this class.
+ */
+public class DynamicTopologicalOrder {
+    private final Graph graph;
+    private final Metrics metrics;
+    private final int[] ord;
+    private final int[] vertexAt;
+    private final int[] mark;
+    private final int[] stack;
+    private int epoch;
+    
+    public DynamicTopologicalOrder(Graph graph, Metrics metrics) {
+        this.graph = graph;
+        this.metrics = metrics;
+        int n = graph.getVertexCount();
+        
+        List<Integer> initial = new TopologicalSort(graph, new Metrics()).sortKahn();
+        if (initial.size() != n) {
+            throw new IllegalArgumentException("Graph has cycles!");
+        }
+        
+        this.ord = new int[n];
+        this.vertexAt = new int[n];
+        for (int i = 0; i < n; i++) {
+            int v = initial.get(i);
+            ord[v] = i;
+            vertexAt[i] = v;
+        }
+        this.mark = new int[n];
+        this.stack = new int[n];
+    }
+    
+    /**
+     * Insert edge u -> v, updating the order if needed.
+     * Returns false and leaves the graph unchanged if the edge would close a cycle.
+     */
+    public boolean addEdge(int u, int v, int weight) {
+        if (u == v) {
+            metrics.increment("rejected_edges");
+            return false;
+        }
+        int lower = ord[v];
+        int upper = ord[u];
+        if (lower < upper) {
+            int forwardStamp = ++epoch;
+            int[] forward = searchForward(v, u, upper, forwardStamp);
+            if (forward == null) {
+                metrics.increment("rejected_edges");
+                return false;
+            }
+            int[] backward = searchBackward(u, lower, ++epoch);
+            reorder(backward, forward);
+            metrics.increment("reorders");
+            metrics.add("affected_vertices", forward.length + backward.length);
+        }
+        graph.addEdge(u, v, weight);
+        return true;
+    }
+    
+    /**
+     * Delete edge u -> v. Removing an edge never invalidates the order.
+     */
+    public boolean removeEdge(int u, int v) {
+        return graph.removeEdge(u, v);
+    }
+    
+    public int getPosition(int v) {
+        return ord[v];
+    }
+    
+    public int getVertexAt(int position) {
+        return vertexAt[position];
+    }
+    
+    /**
+     * Current order as vertex ids (copy).
+     */
+    public int[] getOrder() {
+        return vertexAt.clone();
+    }
+    
+    public Graph getGraph() {
+        return graph;
+    }
+    
+    /**
+     * Vertices reachable from start with ord <= upper. Returns null if target is reached.
+     */
+    private int[] searchForward(int start, int target, int upper, int stamp) {
+        IntList found = new IntList();
+        long edges = 0;
+        int sp = 0;
+        stack[sp++] = start;
+        mark[start] = stamp;
+        while (sp > 0) {
+            int w = stack[--sp];
+            found.add(w);
+            int degree = graph.getOutDegree(w);
+            for (int i = 0; i < degree; i++) {
+                int x = graph.getTarget(w, i);
+                edges++;
+                if (x == target) {
+                    metrics.add("edges_explored", edges);
+                    return null;
+                }
+                if (mark[x] != stamp && ord[x] < upper) {
+                    mark[x] = stamp;
+                    stack[sp++] = x;
+                }
+            }
+        }
+        metrics.add("edges_explored", edges);
+        return found.toArray();
+    }
+    
+    /**
+     * Vertices that reach start with ord >= lower.
+     */
+    private int[] searchBackward(int start, int lower, int stamp) {
+        IntList found = new IntList();
+        long edges = 0;
+        int sp = 0;
+        stack[sp++] = start;
+        mark[start] = stamp;
+        while (sp > 0) {
+            int w = stack[--sp];
+            found.add(w);
+            int degree = graph.getInDegree(w);
+            for (int i = 0; i < degree; i++) {
+                int x = graph.getReverseTarget(w, i);
+                edges++;
+                if (mark[x] != stamp && ord[x] > lower) {
+                    mark[x] = stamp;
+                    stack[sp++] = x;
+                }
+            }
+        }
+        metrics.add("edges_explored", edges);
+        return found.toArray();
+    }
+    
+    /**
+     * Place the backward set before the forward set, reusing their old positions.
+     */
+    private void reorder(int[] backward, int[] forward) {
+        sortByPosition(backward);
+        sortByPosition(forward);
+        
+        int total = backward.length + forward.length;
+        int[] positions = new int[total];
+        for (int i = 0; i < backward.length; i++) {
+            positions[i] = ord[backward[i]];
+        }
+        for (int i = 0; i < forward.length; i++) {
+            positions[backward.length + i] = ord[forward[i]];
+        }
+        Arrays.sort(positions);
+        
+        for (int i = 0; i < total; i++) {
+            int w = i < backward.length ? backward[i] : forward[i - backward.length];
+            ord[w] = positions[i];
+            vertexAt[positions[i]] = w;
+        }
+    }
+    
+    private void sortByPosition(int[] vertices) {
+        long[] keyed = new long[vertices.length];
+        for (int i = 0; i < vertices.length; i++) {
+            keyed[i] = ((long) ord[vertices[i]] << 32) | vertices[i];
+        }
+        Arrays.sort(keyed);
+        for (int i = 0; i < vertices.length; i++) {
+            vertices[i] = (int) keyed[i];
+        }
+    }
+}
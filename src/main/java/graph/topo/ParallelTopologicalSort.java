@@ -0,0 +1,189 @@
+package graph.topo;
+
+import graph.model.GraphView;
+import graph.metrics.Metrics;
+import graph.util.IntList;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Level-synchronous parallel Kahn's algorithm.
+ * Each frontier (all vertices whose predecessors are done) is split across
+ * worker threads; in-degrees live in a plain int[] decremented atomically.
+ * Besides the order, every vertex gets its level (longest distance in edges
+ * from a source), so vertices with equal level can run concurrently.
+ * Time: O(V + E) work, O(depth) synchronization rounds.
+ */
+public class ParallelTopologicalSort {
+    /** Frontiers smaller than this are expanded on the calling thread. */
+    static final int PARALLEL_THRESHOLD = 1 << 11;
+    private static final VarHandle IN_DEGREE = MethodHandles.arrayElementVarHandle(int[].class);
+    
+    private final GraphView graph;
+    private final Metrics metrics;
+    private final int parallelism;
+    
+    public ParallelTopologicalSort(GraphView graph, Metrics metrics) {
+        this(graph, metrics, ForkJoinPool.getCommonPoolParallelism());
+    }
+    
+    public ParallelTopologicalSort(GraphView graph, Metrics metrics, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        this.graph = graph;
+        this.metrics = metrics;
+        this.parallelism = parallelism;
+    }
+    
+    /**
+     * Sort by levels. Order within a level is unspecified.
+     * Returns an empty result if the graph has a cycle (as sortKahn does).
+     */
+    public LevelOrder sort() {
+        metrics.startTimer();
+        try {
+            int n = graph.getVertexCount();
+            int[] inDegree = new int[n];
+            int[] level = new int[n];
+            int[] order = new int[n];
+            IntList levelOffsets = new IntList();
+            int size = 0;
+            
+            for (int v = 0; v < n; v++) {
+                inDegree[v] = graph.getInDegree(v);
+                if (inDegree[v] == 0) {
+                    order[size++] = v;
+                }
+            }
+            
+            ForkJoinPool pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+            long edges = 0;
+            try {
+                int start = 0;
+                int depth = 0;
+                while (start < size) {
+                    int end = size;
+                    levelOffsets.add(start);
+                    for (int i = start; i < end; i++) {
+                        level[order[i]] = depth;
+                    }
+                    if (pool == null || end - start < PARALLEL_THRESHOLD) {
+                        for (int i = start; i < end; i++) {
+                            int u = order[i];
+                            int degree = graph.getOutDegree(u);
+                            for (int e = 0; e < degree; e++) {
+                                int v = graph.getTarget(u, e);
+                                if (--inDegree[v] == 0) {
+                                    order[size++] = v;
+                                }
+                            }
+                            edges += degree;
+                        }
+                    } else {
+                        size = expandParallel(pool, order, start, end, inDegree);
+                        for (int i = start; i < end; i++) {
+                            edges += graph.getOutDegree(order[i]);
+                        }
+                    }
+                    start = end;
+                    depth++;
+                }
+            } finally {
+                if (pool != null) {
+                    pool.shutdown();
+                }
+            }
+            
+            metrics.add("edges_explored", edges);
+            metrics.add("levels", levelOffsets.size());
+            
+            if (size != n) {
+                return new LevelOrder(new int[0], new int[0], new int[] {0});
+            }
+            levelOffsets.add(n);
+            return new LevelOrder(order, level, levelOffsets.toArray());
+        } finally {
+            metrics.stopTimer();
+        }
+    }
+    
+    /**
+     * Expand frontier order[start, end) in chunks; newly ready vertices are appended
+     * after end. Returns the new size of order.
+     */
+    private int expandParallel(ForkJoinPool pool, int[] order, int start, int end,
+                               int[] inDegree) {
+        int chunks = Math.min(parallelism * 4, (end - start + PARALLEL_THRESHOLD / 4 - 1)
+                                                / (PARALLEL_THRESHOLD / 4));
+        int chunkSize = (end - start + chunks - 1) / chunks;
+        List<Callable<int[]>> tasks = new ArrayList<>(chunks);
+        for (int from = start; from < end; from += chunkSize) {
+            int lo = from;
+            int hi = Math.min(end, from + chunkSize);
+            tasks.add(() -> {
+                IntList ready = new IntList();
+                for (int i = lo; i < hi; i++) {
+                    int u = order[i];
+                    int degree = graph.getOutDegree(u);
+                    for (int e = 0; e < degree; e++) {
+                        int v = graph.getTarget(u, e);
+                        if ((int) IN_DEGREE.getAndAdd(inDegree, v, -1) == 1) {
+                            ready.add(v);
+                        }
+                    }
+                }
+                return ready.toArray();
+            });
+        }
+        
+        int size = end;
+        try {
+            for (Future<int[]> future : pool.invokeAll(tasks)) {
+                int[] ready = future.get();
+                System.arraycopy(ready, 0, order, size, ready.length);
+                size += ready.length;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted during parallel sort", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Parallel sort failed", e.getCause());
+        }
+        return size;
+    }
+    
+    /**
+     * Topological order grouped by level.
+     * Level k occupies order[levelOffsets[k] .. levelOffsets[k + 1]).
+     */
+    public static class LevelOrder {
+        public final int[] order;
+        public final int[] level;
+        public final int[] levelOffsets;
+        
+        public LevelOrder(int[] order, int[] level, int[] levelOffsets) {
+            this.order = order;
+            this.level = level;
+            this.levelOffsets = levelOffsets;
+        }
+        
+        public int getLevelCount() {
+            return levelOffsets.length - 1;
+        }
+        
+        public boolean isEmpty() {
+            return order.length == 0;
+        }
+        
+        @Override
+        public String toString() {
+            return "Order: " + Arrays.toString(order) + ", Levels: " + getLevelCount();
+        }
+    }
+}
@@ -1,7 +1,7 @@
 package graph.topo;
 
-import graph.model.Graph;
-import graph.model.Graph.Edge;
+import graph.model.GraphView;
+import graph.model.ReorderedGraph;
 import graph.metrics.Metrics;
 import java.util.*;
 
@@ -10,12 +10,23 @@ import java.util.*;
  * Implements both DFS and Kahn's algorithm.
  */
 public class TopologicalSort {
-    private final Graph graph;
+    private final GraphView graph;
     private final Metrics metrics;
+    private final ReorderedGraph reordered;
     
-    public TopologicalSort(Graph graph, Metrics metrics) {
+    public TopologicalSort(GraphView graph, Metrics metrics) {
         this.graph = graph;
         this.metrics = metrics;
+        this.reordered = null;
+    }
+    
+    /**
+     * Sort the relabelled graph for locality; orders use original ids.
+     */
+    public TopologicalSort(ReorderedGraph reordered, Metrics metrics) {
+        this.graph = reordered.getGraph();
+        this.metrics = metrics;
+        this.reordered = reordered;
     }
     
     /**
@@ -24,40 +35,50 @@ public class TopologicalSort {
      */
     public List<Integer> sortDFS() {
         metrics.startTimer();
-        
-        int n = graph.getVertexCount();
-        boolean[] visited = new boolean[n];
-        Stack<Integer> stack = new Stack<>();
-        
-        for (int v = 0; v < n; v++) {
-            if (!visited[v]) {
-                dfs(v, visited, stack);
+        try {
+            int n = graph.getVertexCount();
+            boolean[] visited = new boolean[n];
+            Stack<Integer> stack = new Stack<>();
+            long edges = 0;
+            
+            for (int v = 0; v < n; v++) {
+                if (!visited[v]) {
+                    edges += dfs(v, visited, stack);
+                }
             }
+            
+            List<Integer> result = new ArrayList<>();
+            while (!stack.isEmpty()) {
+                result.add(stack.pop());
+            }
+            
+            metrics.add("dfs_visits", n);
+            metrics.add("push_ops", n);
+            metrics.add("pop_ops", n);
+            metrics.add("edges_explored", edges);
+            return reordered == null ? result : reordered.toOriginal(result);
+        } finally {
+            metrics.stopTimer();
         }
-        
-        List<Integer> result = new ArrayList<>();
-        while (!stack.isEmpty()) {
-            result.add(stack.pop());
-            metrics.increment("pop_ops");
-        }
-        
-        metrics.stopTimer();
-        return result;
     }
     
-    private void dfs(int u, boolean[] visited, Stack<Integer> stack) {
+    /**
+     * Returns the number of edges explored below u.
+     */
+    private long dfs(int u, boolean[] visited, Stack<Integer> stack) {
         visited[u] = true;
-        metrics.increment("dfs_visits");
         
-        for (Edge edge : graph.getNeighbors(u)) {
-            metrics.increment("edges_explored");
-            if (!visited[edge.to]) {
-                dfs(edge.to, visited, stack);
+        int degree = graph.getOutDegree(u);
+        long edges = degree;
+        for (int i = 0; i < degree; i++) {
+            int v = graph.getTarget(u, i);
+            if (!visited[v]) {
+                edges += dfs(v, visited, stack);
             }
         }
         
         stack.push(u);
-        metrics.increment("push_ops");
+        return edges;
     }
     
     /**
@@ -66,47 +87,51 @@ public class TopologicalSort {
      */
     public List<Integer> sortKahn() {
         metrics.startTimer();
-        
-        int n = graph.getVertexCount();
-        int[] inDegree = new int[n];
-        
-        // Calculate in-degrees
-        for (int u = 0; u < n; u++) {
-            for (Edge edge : graph.getNeighbors(u)) {
-                inDegree[edge.to]++;
+        try {
+            int n = graph.getVertexCount();
+            int[] inDegree = new int[n];
+            
+            // Calculate in-degrees
+            for (int v = 0; v < n; v++) {
+                inDegree[v] = graph.getInDegree(v);
             }
-        }
-        
-        // Initialize queue with zero in-degree vertices
-        Queue<Integer> queue = new LinkedList<>();
-        for (int v = 0; v < n; v++) {
-            if (inDegree[v] == 0) {
-                queue.offer(v);
-                metrics.increment("push_ops");
+            
+            // Initialize queue with zero in-degree vertices
+            Queue<Integer> queue = new LinkedList<>();
+            for (int v = 0; v < n; v++) {
+                if (inDegree[v] == 0) {
+                    queue.offer(v);
+                }
             }
-        }
-        
-        List<Integer> result = new ArrayList<>();
-        while (!queue.isEmpty()) {
-            int u = queue.poll();
-            metrics.increment("pop_ops");
-            result.add(u);
             
-            for (Edge edge : graph.getNeighbors(u)) {
-                metrics.increment("edges_explored");
-                inDegree[edge.to]--;
-                if (inDegree[edge.to] == 0) {
-                    queue.offer(edge.to);
-                    metrics.increment("push_ops");
+            List<Integer> result = new ArrayList<>();
+            long edges = 0;
+            while (!queue.isEmpty()) {
+                int u = queue.poll();
+                result.add(u);
+            
+                int degree = graph.getOutDegree(u);
+                edges += degree;
+                for (int i = 0; i < degree; i++) {
+                    int v = graph.getTarget(u, i);
+                    inDegree[v]--;
+                    if (inDegree[v] == 0) {
+                        queue.offer(v);
+                    }
                 }
             }
+            
+            // Each dequeued vertex was enqueued exactly once
+            metrics.add("push_ops", result.size());
+            metrics.add("pop_ops", result.size());
+            metrics.add("edges_explored", edges);
+            
+            if (result.size() != n) {
+                return new ArrayList<>(); // Cycle detected
+            }
+            return reordered == null ? result : reordered.toOriginal(result);
+        } finally {
+            metrics.stopTimer();
         }
-        
-        metrics.stopTimer();
-        
-        if (result.size() != n) {
-            return new ArrayList<>(); // Cycle detected
-        }
-        return result;
     }
 }
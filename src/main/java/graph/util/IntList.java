@@ -0,0 +1,64 @@
+package graph.util;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of primitive ints.
+ * Avoids boxing in traversal work lists and edge buffers.
+ */
+public final class IntList {
+    private int[] data;
+    private int size;
+    
+    public IntList() {
+        this(16);
+    }
+    
+    public IntList(int capacity) {
+        this.data = new int[Math.max(capacity, 1)];
+    }
+    
+    public void add(int value) {
+        if (size == data.length) {
+            data = Arrays.copyOf(data, Math.max(size + (size >> 1), size + 1));
+        }
+        data[size++] = value;
+    }
+    
+    public int get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + ", size " + size);
+        }
+        return data[index];
+    }
+    
+    public void set(int index, int value) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + ", size " + size);
+        }
+        data[index] = value;
+    }
+    
+    public int removeLast() {
+        if (size == 0) {
+            throw new IllegalStateException("List is empty");
+        }
+        return data[--size];
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    public void clear() {
+        size = 0;
+    }
+    
+    public int[] toArray() {
+        return Arrays.copyOf(data, size);
+    }
+}
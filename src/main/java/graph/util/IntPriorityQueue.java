@@ -0,0 +1,117 @@
+package graph.util;
+
+import java.util.Arrays;
+
+/**
+ * Min-heap of int items ordered by long keys, with no boxing or per-entry
+ * objects. Entries are stored interleaved (key, item) in one long[] and the
+ * heap is 4-ary: half the depth of a binary heap, and the four children of a
+ * node are adjacent in memory. Ties are broken by the smaller item so results
+ * are deterministic. For max-first order, add -key.
+ * Time: O(log n) add/poll, O(1) peek.
+ */
+public final class IntPriorityQueue {
+    private long[] heap;
+    private int size;
+    
+    public IntPriorityQueue() {
+        this(16);
+    }
+    
+    public IntPriorityQueue(int capacity) {
+        this.heap = new long[2 * Math.max(capacity, 1)];
+    }
+    
+    public void add(int item, long key) {
+        if (2 * size == heap.length) {
+            heap = Arrays.copyOf(heap, 2 * Math.max(size + (size >> 1), size + 1));
+        }
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 2;
+            if (!less(key, item, heap[2 * parent], (int) heap[2 * parent + 1])) {
+                break;
+            }
+            heap[2 * i] = heap[2 * parent];
+            heap[2 * i + 1] = heap[2 * parent + 1];
+            i = parent;
+        }
+        heap[2 * i] = key;
+        heap[2 * i + 1] = item;
+    }
+    
+    /**
+     * Item with the smallest key.
+     */
+    public int peek() {
+        checkNotEmpty();
+        return (int) heap[1];
+    }
+    
+    public long peekKey() {
+        checkNotEmpty();
+        return heap[0];
+    }
+    
+    /**
+     * Remove and return the item with the smallest key.
+     */
+    public int poll() {
+        checkNotEmpty();
+        int top = (int) heap[1];
+        size--;
+        long key = heap[2 * size];
+        int item = (int) heap[2 * size + 1];
+        int i = 0;
+        while (true) {
+            int first = 4 * i + 1;
+            if (first >= size) {
+                break;
+            }
+            int child = first;
+            long childKey = heap[2 * first];
+            int childItem = (int) heap[2 * first + 1];
+            int last = Math.min(first + 4, size);
+            for (int c = first + 1; c < last; c++) {
+                long k = heap[2 * c];
+                int it = (int) heap[2 * c + 1];
+                if (less(k, it, childKey, childItem)) {
+                    child = c;
+                    childKey = k;
+                    childItem = it;
+                }
+            }
+            if (!less(childKey, childItem, key, item)) {
+                break;
+            }
+            heap[2 * i] = childKey;
+            heap[2 * i + 1] = childItem;
+            i = child;
+        }
+        heap[2 * i] = key;
+        heap[2 * i + 1] = item;
+        return top;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    public void clear() {
+        size = 0;
+    }
+    
+    private static boolean less(long keyA, int a, long keyB, int b) {
+        return keyA < keyB || (keyA == keyB && a < b);
+    }
+    
+    private void checkNotEmpty() {
+        if (size == 0) {
+            throw new IllegalStateException("Queue is empty");
+        }
+    }
+}
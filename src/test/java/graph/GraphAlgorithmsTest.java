@@ -1,14 +1,53 @@
 package graph;
 
 import graph.dagsp.DAGShortestPath;
+import graph.dagsp.MultiSourceShortestPath;
+import graph.dagsp.PathCache;
+import graph.dagsp.PreparedDAG;
+import graph.dagsp.SlackAnalysis;
+import graph.exec.DAGExecutor;
+import graph.exec.ListScheduler;
+import graph.gen.WorkloadGenerator;
+import graph.model.CsrGraph;
 import graph.model.Graph;
+import graph.model.GraphView;
+import graph.model.BinaryGraphFormat;
+import graph.model.JsonGraphReader;
+import graph.model.MappedGraph;
+import graph.model.OffHeapGraph;
+import graph.model.ReorderedGraph;
+import graph.metrics.JsonSnapshotSink;
 import graph.metrics.Metrics;
+import graph.metrics.PrometheusTextSink;
+import graph.metrics.Span;
+import graph.partition.Partition;
+import graph.partition.ShardCluster;
+import graph.reach.ReachabilityIndex;
 import graph.scc.CondensationGraph;
+import graph.scc.EdgeMergePolicy;
+import graph.scc.IncrementalSCC;
+import graph.scc.ParallelSCC;
+import graph.scc.SCCResult;
 import graph.scc.TarjanSCC;
+import graph.service.QueryService;
+import graph.topo.DynamicTopologicalOrder;
+import graph.topo.ParallelTopologicalSort;
 import graph.topo.TopologicalSort;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -59,6 +98,202 @@ public class GraphAlgorithmsTest {
         assertEquals(2, sccs.size());
     }
     
+    @Test
+    public void testFlatSCCResult() {
+        Graph g = new Graph(5, "edge");
+        g.addEdge(0, 1, 1);
+        g.addEdge(1, 2, 1);
+        g.addEdge(2, 0, 1);
+        g.addEdge(2, 3, 1);
+        g.addEdge(3, 4, 1);
+        
+        SCCResult result = new TarjanSCC(g, new Metrics()).decompose();
+        
+        assertEquals(3, result.getComponentCount());
+        assertEquals(result.getComponentId(0), result.getComponentId(2));
+        assertNotEquals(result.getComponentId(3), result.getComponentId(4));
+        int cycle = result.getComponentId(1);
+        assertEquals(3, result.getComponentSize(cycle));
+        assertEquals(result.toLists(), new TarjanSCC(g, new Metrics()).findSCCs());
+    }
+    
+    @Test
+    public void testDeepChainDoesNotOverflowStack() {
+        int n = 500_000;
+        CsrGraph.Builder builder = new CsrGraph.Builder(n, "edge", n);
+        for (int v = 0; v + 1 < n; v++) {
+            builder.addEdge(v, v + 1, 1);
+        }
+        builder.addEdge(n - 1, 0, 1);
+        
+        SCCResult result = new TarjanSCC(builder.build(), new Metrics()).decompose();
+        
+        assertEquals(1, result.getComponentCount());
+        assertEquals(n, result.getComponentSize(0));
+    }
+    
+    @Test
+    public void testParallelSCCMatchesTarjan() {
+        int n = 30_000;
+        Random random = new Random(42);
+        CsrGraph.Builder builder = new CsrGraph.Builder(n, "edge", 2 * n);
+        for (int e = 0; e < 2 * n; e++) {
+            builder.addEdge(random.nextInt(n), random.nextInt(n), 1 + random.nextInt(9));
+        }
+        CsrGraph g = builder.build();
+        
+        SCCResult expected = new TarjanSCC(g, new Metrics()).decompose();
+        Metrics metrics = new Metrics();
+        SCCResult actual = new ParallelSCC(g, metrics, 4).decompose();
+        
+        assertEquals(expected.getComponentCount(), actual.getComponentCount());
+        assertArrayEquals(canonicalComponents(expected), canonicalComponents(actual));
+        assertTrue(metrics.get("trimmed") > 0);
+    }
+    
+    @Test
+    public void testParallelSCCSelfLoopAndCycle() {
+        Graph g = new Graph(4, "edge");
+        g.addEdge(0, 0, 1);
+        g.addEdge(1, 2, 1);
+        g.addEdge(2, 1, 1);
+        g.addEdge(2, 3, 1);
+        
+        SCCResult result = new ParallelSCC(g, new Metrics(), 2).decompose();
+        
+        assertEquals(3, result.getComponentCount());
+        assertEquals(result.getComponentId(1), result.getComponentId(2));
+    }
+    
+    @Test
+    public void testIncrementalSCCMergeAndSplitEvents() {
+        Graph g = new Graph(4, "edge");
+        g.addEdge(0, 1, 1);
+        g.addEdge(1, 2, 1);
+        g.addEdge(2, 3, 1);
+        
+        IncrementalSCC scc = new IncrementalSCC(g, new Metrics());
+        List<String> events = new java.util.ArrayList<>();
+        scc.addListener(new IncrementalSCC.Listener() {
+            @Override
+            public void componentsMerged(int survivor, int[] absorbed) {
+                events.add("merge " + absorbed.length);
+                // Listeners see the order and condensation after the merge
+                assertTrue(scc.getPosition(survivor) < scc.getPosition(scc.getComponentId(3)));
+                assertEquals(2, scc.getCondensation().getGraph().getVertexCount());
+            }
+            
+            @Override
+            public void componentSplit(int original, int[] parts) {
+                events.add("split " + parts.length);
+            }
+        });
+        
+        scc.addEdge(2, 0, 1);
+        assertEquals(2, scc.getComponentCount());
+        assertEquals(scc.getComponentId(0), scc.getComponentId(2));
+        assertEquals(2, scc.getCondensation().getGraph().getVertexCount());
+        
+        scc.removeEdges(new int[] {1}, new int[] {2});
+        assertEquals(4, scc.getComponentCount());
+        assertEquals(List.of("merge 2", "split 3"), events);
+        assertIncrementalMatchesTarjan(g, scc);
+    }
+    
+    @Test
+    public void testIncrementalSCCSplitIsolatedCycle() {
+        Graph g = new Graph(2, "edge");
+        g.addEdge(0, 1, 1);
+        g.addEdge(1, 0, 1);
+        IncrementalSCC scc = new IncrementalSCC(g, new Metrics());
+        assertEquals(1, scc.getCondensation().getComponentCount());
+        
+        // No edges remain, so only the split itself can invalidate the condensation
+        scc.removeEdges(new int[] {0, 1}, new int[] {1, 0});
+        assertEquals(2, scc.getComponentCount());
+        assertEquals(2, scc.getCondensation().getComponentCount());
+        assertEquals(0, scc.getCondensation().getGraph().getEdgeCount());
+        assertIncrementalMatchesTarjan(g, scc);
+    }
+    
+    @Test
+    public void testIncrementalSCCRandomUpdates() {
+        int n = 60;
+        Random random = new Random(11);
+        Graph g = new Graph(n, "edge");
+        IncrementalSCC scc = new IncrementalSCC(g, new Metrics());
+        List<int[]> edges = new java.util.ArrayList<>();
+        
+        for (int step = 0; step < 400; step++) {
+            if (!edges.isEmpty() && random.nextInt(4) == 0) {
+                int batch = 1 + random.nextInt(Math.min(3, edges.size()));
+                int[] from = new int[batch];
+                int[] to = new int[batch];
+                for (int i = 0; i < batch; i++) {
+                    int[] edge = edges.remove(random.nextInt(edges.size()));
+                    from[i] = edge[0];
+                    to[i] = edge[1];
+                }
+                scc.removeEdges(from, to);
+            } else {
+                int u = random.nextInt(n);
+                int v = random.nextInt(n);
+                scc.addEdge(u, v, 1);
+                edges.add(new int[] {u, v});
+            }
+            assertIncrementalMatchesTarjan(g, scc);
+        }
+    }
+    
+    private static void assertIncrementalMatchesTarjan(Graph g, IncrementalSCC scc) {
+        SCCResult expected = new TarjanSCC(g, new Metrics()).decompose();
+        assertEquals(expected.getComponentCount(), scc.getComponentCount());
+        for (int u = 0; u < g.getVertexCount(); u++) {
+            for (int i = 0; i < g.getOutDegree(u); i++) {
+                int v = g.getTarget(u, i);
+                boolean together = expected.getComponentId(u) == expected.getComponentId(v);
+                assertEquals(together, scc.getComponentId(u) == scc.getComponentId(v));
+                if (!together) {
+                    assertTrue(scc.getPosition(scc.getComponentId(u))
+                               < scc.getPosition(scc.getComponentId(v)));
+                }
+            }
+        }
+        CondensationGraph condensation = scc.getCondensation();
+        CsrGraph dag = condensation.getGraph();
+        assertEquals(expected.getComponentCount(), dag.getVertexCount());
+        assertEquals(new CondensationGraph(g, expected).getGraph().getEdgeCount(), dag.getEdgeCount());
+        for (int u = 0; u < g.getVertexCount(); u++) {
+            for (int i = 0; i < g.getOutDegree(u); i++) {
+                int cu = condensation.getComponentId(u);
+                int cv = condensation.getComponentId(g.getTarget(u, i));
+                if (cu != cv) {
+                    assertTrue(cu < cv);
+                    boolean found = false;
+                    for (int e = 0; e < dag.getOutDegree(cu); e++) {
+                        found |= dag.getTarget(cu, e) == cv;
+                    }
+                    assertTrue(found);
+                }
+            }
+        }
+    }
+    
+    // Label each vertex by the smallest vertex in its component
+    private static int[] canonicalComponents(SCCResult result) {
+        int[] smallest = new int[result.getComponentCount()];
+        Arrays.fill(smallest, Integer.MAX_VALUE);
+        for (int v = 0; v < result.getVertexCount(); v++) {
+            int c = result.getComponentId(v);
+            smallest[c] = Math.min(smallest[c], v);
+        }
+        int[] labels = new int[result.getVertexCount()];
+        for (int v = 0; v < labels.length; v++) {
+            labels[v] = smallest[result.getComponentId(v)];
+        }
+        return labels;
+    }
+    
     // ===== Condensation Tests =====
     
     @Test
@@ -73,12 +308,128 @@ public class GraphAlgorithmsTest {
         List<List<Integer>> sccs = tarjan.findSCCs();
         
         CondensationGraph cond = new CondensationGraph(g, sccs);
-        Graph condensation = cond.getGraph();
+        CsrGraph condensation = cond.getGraph();
         
         assertTrue(condensation.getVertexCount() < g.getVertexCount());
         assertTrue(condensation.getEdgeCount() > 0);
     }
     
+    @Test
+    public void testCondensationMergePolicies() {
+        Graph g = new Graph(4, "edge");
+        g.addEdge(0, 1, 1);
+        g.addEdge(1, 0, 1);
+        g.addEdge(0, 2, 5);
+        g.addEdge(1, 2, 3);
+        g.addEdge(1, 2, 4);
+        g.addEdge(2, 3, 2);
+        
+        SCCResult sccs = new TarjanSCC(g, new Metrics()).decompose();
+        int cycle = sccs.getComponentId(0);
+        int middle = sccs.getComponentId(2);
+        
+        assertEquals(5, mergedWeight(g, sccs, EdgeMergePolicy.FIRST, cycle, middle));
+        assertEquals(3, mergedWeight(g, sccs, EdgeMergePolicy.MIN, cycle, middle));
+        assertEquals(5, mergedWeight(g, sccs, EdgeMergePolicy.MAX, cycle, middle));
+        assertEquals(12, mergedWeight(g, sccs, EdgeMergePolicy.SUM, cycle, middle));
+        
+        CondensationGraph cond = new CondensationGraph(g, sccs, EdgeMergePolicy.SUM);
+        assertEquals(2, cond.getGraph().getEdgeCount());
+        assertEquals(2, cond.getComponentSize(cycle));
+        int[] members = cond.getMembers(cycle);
+        Arrays.sort(members);
+        assertArrayEquals(new int[] {0, 1}, members);
+    }
+    
+    private static int mergedWeight(Graph g, SCCResult sccs, EdgeMergePolicy policy,
+                                    int from, int to) {
+        CsrGraph dag = new CondensationGraph(g, sccs, policy).getGraph();
+        for (int i = 0; i < dag.getOutDegree(from); i++) {
+            if (dag.getTarget(from, i) == to) {
+                return dag.getWeight(from, i);
+            }
+        }
+        throw new AssertionError("Missing condensation edge " + from + "->" + to);
+    }
+    
+    // ===== Reachability Index Tests =====
+    
+    @Test
+    public void testReachabilityIndexMatchesTraversal() {
+        Random rnd = new Random(22);
+        for (int trial = 0; trial < 5; trial++) {
+            int n = 120;
+            CsrGraph.Builder builder = new CsrGraph.Builder(n, "edge");
+            for (int e = 0; e < 2 * n; e++) {
+                int u = rnd.nextInt(n);
+                int v = rnd.nextInt(n);
+                // Mostly forward edges, a few back edges to form SCCs
+                builder.addEdge(Math.min(u, v), Math.max(u, v), 1);
+                if (rnd.nextInt(20) == 0) {
+                    builder.addEdge(Math.max(u, v), Math.min(u, v), 1);
+                }
+            }
+            CsrGraph g = builder.build();
+            Metrics metrics = new Metrics();
+            // Tiny labels and few pivots force the fallback search to run
+            ReachabilityIndex index = new ReachabilityIndex(
+                new CondensationGraph(g, new TarjanSCC(g, metrics).decompose()), metrics, 1, 2);
+            
+            int[] from = new int[n * n];
+            int[] to = new int[n * n];
+            for (int a = 0; a < n; a++) {
+                boolean[] expected = reachableFrom(g, a);
+                for (int b = 0; b < n; b++) {
+                    assertEquals(expected[b], index.reaches(a, b), a + " -> " + b);
+                    from[a * n + b] = a;
+                    to[a * n + b] = b;
+                }
+            }
+            long singleFallbacks = metrics.get("reach_fallbacks");
+            boolean[] batch = index.reachesAll(from, to);
+            for (int i = 0; i < batch.length; i++) {
+                assertEquals(index.reaches(from[i], to[i]), batch[i]);
+            }
+            assertEquals(3L * n * n, metrics.get("reach_queries"));
+            assertTrue(singleFallbacks > 0);
+            // Sources shared by many undecided pairs are searched once
+            assertTrue(metrics.get("reach_fallbacks") - 2 * singleFallbacks < singleFallbacks);
+            
+            // Shuffled pairs group the same way
+            for (int i = from.length - 1; i > 0; i--) {
+                int j = rnd.nextInt(i + 1);
+                int t = from[i];
+                from[i] = from[j];
+                from[j] = t;
+                t = to[i];
+                to[i] = to[j];
+                to[j] = t;
+            }
+            boolean[] shuffled = index.reachesAll(from, to);
+            for (int i = 0; i < shuffled.length; i++) {
+                assertEquals(reachableFrom(g, from[i])[to[i]], shuffled[i]);
+            }
+        }
+    }
+    
+    private static boolean[] reachableFrom(GraphView g, int source) {
+        boolean[] seen = new boolean[g.getVertexCount()];
+        Deque<Integer> stack = new ArrayDeque<>();
+        stack.push(source);
+        seen[source] = true;
+        while (!stack.isEmpty()) {
+            int u = stack.pop();
+            for (int i = 0; i < g.getOutDegree(u); i++) {
+                int v = g.getTarget(u, i);
+                if (!seen[v]) {
+                    seen[v] = true;
+                    stack.push(v);
+                }
+            }
+        }
+        return seen;
+    }
+    
     // ===== Topological Sort Tests =====
     
     @Test
@@ -126,6 +477,118 @@ public class GraphAlgorithmsTest {
         assertTrue(order.isEmpty()); // Cycle detected
     }
     
+    @Test
+    public void testDynamicOrderReordersAffectedRegion() {
+        Graph g = new Graph(5, "edge");
+        g.addEdge(0, 1, 1);
+        g.addEdge(2, 3, 1);
+        
+        DynamicTopologicalOrder order = new DynamicTopologicalOrder(g, new Metrics());
+        assertTrue(order.addEdge(3, 0, 1));
+        assertTrue(order.addEdge(1, 4, 1));
+        
+        assertTopologicallyOrdered(g, order);
+        assertEquals(4, g.getEdgeCount());
+    }
+    
+    @Test
+    public void testDynamicOrderRejectsCycles() {
+        Graph g = new Graph(3, "edge");
+        g.addEdge(0, 1, 1);
+        g.addEdge(1, 2, 1);
+        
+        DynamicTopologicalOrder order = new DynamicTopologicalOrder(g, new Metrics());
+        assertFalse(order.addEdge(2, 0, 1));
+        assertFalse(order.addEdge(1, 1, 1));
+        assertEquals(2, g.getEdgeCount());
+        
+        assertTrue(order.removeEdge(0, 1));
+        assertTrue(order.addEdge(2, 0, 1)); // no longer closes a cycle
+        assertTopologicallyOrdered(g, order);
+    }
+    
+    @Test
+    public void testDynamicOrderRandomInsertions() {
+        int n = 200;
+        Random random = new Random(7);
+        Graph g = new Graph(n, "edge");
+        DynamicTopologicalOrder order = new DynamicTopologicalOrder(g, new Metrics());
+        
+        for (int i = 0; i < 2000; i++) {
+            int u = random.nextInt(n);
+            int v = random.nextInt(n);
+            boolean added = order.addEdge(u, v, 1);
+            boolean acyclic = new TopologicalSort(g, new Metrics()).sortKahn().size() == n;
+            assertTrue(acyclic);
+            if (!added) {
+                g.addEdge(u, v, 1);
+                assertTrue(u == v || new TopologicalSort(g, new Metrics()).sortKahn().isEmpty());
+                g.removeEdge(u, v);
+            }
+        }
+        assertTopologicallyOrdered(g, order);
+    }
+    
+    @Test
+    public void testParallelKahnLevels() {
+        int layers = 6;
+        int width = 5000;
+        int n = layers * width;
+        Random random = new Random(3);
+        CsrGraph.Builder builder = new CsrGraph.Builder(n, "edge", 3 * n);
+        for (int layer = 0; layer + 1 < layers; layer++) {
+            for (int i = 0; i < width; i++) {
+                int u = layer * width + i;
+                for (int k = 0; k < 3; k++) {
+                    int skip = 1 + random.nextInt(layers - layer - 1);
+                    builder.addEdge(u, (layer + skip) * width + random.nextInt(width), 1);
+                }
+            }
+        }
+        CsrGraph g = builder.build();
+        
+        ParallelTopologicalSort.LevelOrder result = new ParallelTopologicalSort(g, new Metrics(), 4).sort();
+        
+        assertEquals(n, result.order.length);
+        int[] position = new int[n];
+        for (int i = 0; i < n; i++) {
+            position[result.order[i]] = i;
+        }
+        int[] expectedLevel = new int[n];
+        for (int u : result.order) {
+            for (int i = 0; i < g.getOutDegree(u); i++) {
+                int v = g.getTarget(u, i);
+                assertTrue(position[u] < position[v]);
+                expectedLevel[v] = Math.max(expectedLevel[v], expectedLevel[u] + 1);
+            }
+        }
+        assertArrayEquals(expectedLevel, result.level);
+        for (int k = 0; k < result.getLevelCount(); k++) {
+            for (int i = result.levelOffsets[k]; i < result.levelOffsets[k + 1]; i++) {
+                assertEquals(k, result.level[result.order[i]]);
+            }
+        }
+    }
+    
+    @Test
+    public void testParallelKahnCycle() {
+        Graph g = new Graph(3, "edge");
+        g.addEdge(0, 1, 1);
+        g.addEdge(1, 2, 1);
+        g.addEdge(2, 1, 1);
+        
+        assertTrue(new ParallelTopologicalSort(g, new Metrics(), 2).sort().isEmpty());
+    }
+    
+    private static void assertTopologicallyOrdered(Graph g, DynamicTopologicalOrder order) {
+        for (int u = 0; u < g.getVertexCount(); u++) {
+            assertEquals(u, order.getVertexAt(order.getPosition(u)));
+            for (int i = 0; i < g.getOutDegree(u); i++) {
+                assertTrue(order.getPosition(u) < order.getPosition(g.getTarget(u, i)));
+            }
+        }
+    }
+    
     // ===== DAG Shortest Path Tests =====
     
     @Test
@@ -161,6 +624,186 @@ public class GraphAlgorithmsTest {
         assertFalse(result.path.isEmpty());
     }
     
+    @Test
+    public void testNodeWeightedCriticalPath() {
+        Graph g = new Graph(4, "node");
+        g.addEdge(0, 1, 100); // edge weights are ignored in the node model
+        g.addEdge(0, 2, 100);
+        g.addEdge(1, 3, 100);
+        g.addEdge(2, 3, 100);
+        g.setNodeWeight(0, 2);
+        g.setNodeWeight(1, 7);
+        g.setNodeWeight(2, 3);
+        g.setNodeWeight(3, 1);
+        
+        DAGShortestPath sp = new DAGShortestPath(g, new Metrics());
+        DAGShortestPath.PathResult critical = sp.criticalPath();
+        
+        assertEquals(10, critical.pathLength); // 2 + 7 + 1
+        assertEquals(List.of(0, 1, 3), critical.path);
+        assertEquals(6, sp.shortestPaths(0)[3]); // 2 + 3 + 1
+        assertEquals(6, new MultiSourceShortestPath(g, new Metrics())
+            .compute(new int[] {0}, false).dist[0][3]);
+    }
+    
+    @Test
+    public void testLongPathsDoNotOverflow() {
+        int n = 5;
+        Graph g = new Graph(n, "edge");
+        for (int v = 0; v + 1 < n; v++) {
+            g.addEdge(v, v + 1, 1_500_000_000);
+        }
+        
+        DAGShortestPath sp = new DAGShortestPath(g, new Metrics());
+        
+        assertEquals(6_000_000_000L, sp.criticalPathLong().pathLength);
+        assertEquals(4_500_000_000L, sp.shortestPathsLong(0)[3]);
+        assertEquals(DAGShortestPath.UNREACHABLE, sp.shortestPathsLong(2)[0]);
+        assertThrows(ArithmeticException.class, sp::criticalPath);
+    }
+    
+    @Test
+    public void testNodeWeightsFromJsonAndCondensation() throws Exception {
+        Path file = Files.createTempFile("node-model", ".json");
+        Files.writeString(file, "{\"directed\": true, \"n\": 3, "
+            + "\"edges\": [{\"u\": 0, \"v\": 1, \"w\": 1}, {\"u\": 1, \"v\": 0, \"w\": 1}, "
+            + "{\"u\": 1, \"v\": 2, \"w\": 1}], \"weight_model\": \"node\", "
+            + "\"node_weights\": [4, 5, 6]}");
+        try {
+            Graph g = Graph.fromJsonFile(file.toString()).graph;
+            assertEquals(5, g.getNodeWeight(1));
+            
+            CondensationGraph cond = new CondensationGraph(g, new TarjanSCC(g, new Metrics()).decompose());
+            CsrGraph dag = cond.getGraph();
+            assertEquals("node", dag.getWeightModel());
+            assertEquals(9, dag.getNodeWeight(cond.getComponentId(0)));
+            assertEquals(15, new DAGShortestPath(dag, new Metrics()).criticalPath().pathLength);
+        } finally {
+            Files.delete(file);
+        }
+    }
+    
+    @Test
+    public void testCondensationNodeWeightOverflowThrows() {
+        Graph g = new Graph(3, "node");
+        g.addEdge(0, 1, 1);
+        g.addEdge(1, 2, 1);
+        g.addEdge(2, 0, 1);
+        for (int v = 0; v < 3; v++) {
+            g.setNodeWeight(v, 1_000_000_000);
+        }
+        SCCResult sccs = new TarjanSCC(g, new Metrics()).decompose();
+        
+        assertThrows(ArithmeticException.class, () -> new CondensationGraph(g, sccs));
+    }
+    
+    @Test
+    public void testPreparedDAGInvalidatedByModification() {
+        Graph g = new Graph(4, "edge");
+        g.addEdge(0, 1, 2);
+        g.addEdge(1, 2, 2);
+        
+        DAGShortestPath sp = new DAGShortestPath(g, new Metrics());
+        PreparedDAG first = sp.prepare();
+        assertSame(first, sp.prepare()); // reused while unchanged
+        assertArrayEquals(new int[] {0, 3}, first.getSources());
+        assertArrayEquals(new int[] {2, 3}, first.getSinks());
+        
+        long before = g.getModificationCount();
+        g.addEdge(2, 3, 5);
+        assertEquals(before + 1, g.getModificationCount());
+        assertFalse(first.isCurrent());
+        
+        assertEquals(9, sp.shortestPaths(0)[3]);
+        assertNotSame(first, sp.prepare());
+        assertArrayEquals(new int[] {0}, sp.prepare().getSources());
+        assertEquals(9, sp.criticalPath().pathLength);
+    }
+    
+    @Test
+    public void testPreparedDAGRejectsCycle() {
+        Graph g = new Graph(2, "edge");
+        g.addEdge(0, 1, 1);
+        g.addEdge(1, 0, 1);
+        
+        assertThrows(IllegalStateException.class, () -> new PreparedDAG(g));
+    }
+    
+    @Test
+    public void testMultiSourceMatchesSingleSource() {
+        int n = 300;
+        Random random = new Random(5);
+        Graph g = new Graph(n, "edge");
+        for (int e = 0; e < 1200; e++) {
+            int u = random.nextInt(n - 1);
+            int v = u + 1 + random.nextInt(n - u - 1);
+            g.addEdge(u, v, 1 + random.nextInt(20));
+        }
+        int[] sources = {0, 5, 17, 42, 99, 150, 299};
+        
+        MultiSourceShortestPath batch = new MultiSourceShortestPath(g, new Metrics());
+        MultiSourceShortestPath.BatchResult result = batch.compute(sources, true);
+        
+        for (int i = 0; i < sources.length; i++) {
+            int[] expected = new DAGShortestPath(g, new Metrics()).shortestPaths(sources[i]);
+            assertArrayEquals(expected, result.dist[i]);
+            List<Integer> path = result.path(i, n - 1);
+            if (!path.isEmpty()) {
+                assertEquals(sources[i], (int) path.get(0));
+                assertEquals(n - 1, (int) path.get(path.size() - 1));
+            }
+        }
+    }
+    
+    @Test
+    public void testMultiSourceBlockedWithinBudget() {
+        Graph g = new Graph(50, "edge");
+        for (int v = 0; v + 1 < 50; v++) {
+            g.addEdge(v, v + 1, 2);
+        }
+        // Room for 3 sources per block, two blocks in flight
+        long budget = 3L * 2 * (Long.BYTES + Integer.BYTES) * 50;
+        MultiSourceShortestPath batch = new MultiSourceShortestPath(g, new Metrics(), budget, 2);
+        assertEquals(3, batch.getMaxBlockSize(false));
+        
+        List<MultiSourceShortestPath.BatchResult> blocks = new java.util.ArrayList<>();
+        batch.computeAllSources(false, blocks::add);
+        
+        assertEquals(17, blocks.size());
+        assertEquals(10, blocks.get(1).dist[2][10]); // source 5 -> 10
+        assertEquals(MultiSourceShortestPath.INF, blocks.get(16).dist[0][3]);
+        assertThrows(IllegalArgumentException.class, () -> batch.compute(new int[] {0, 1, 2, 3, 4, 5, 6}, false));
+    }
+    
+    @Test
+    public void testMultiSourceLargeWeightsMatchOrThrow() {
+        int n = 40;
+        Graph g = new Graph(n, "edge");
+        for (int v = 0; v + 1 < n; v++) {
+            g.addEdge(v, v + 1, 1_000_000_000);
+        }
+        DAGShortestPath single = new DAGShortestPath(g, new Metrics());
+        MultiSourceShortestPath batch = new MultiSourceShortestPath(g, new Metrics());
+        
+        // Sums past Integer.MAX_VALUE fail in both engines instead of wrapping
+        assertThrows(ArithmeticException.class, () -> single.shortestPaths(0));
+        assertThrows(ArithmeticException.class, () -> batch.compute(new int[] {0}, false));
+        assertThrows(ArithmeticException.class, () -> batch.compute(new int[] {0}, true));
+        // A finite sum at or above INF is not reported as unreachable
+        assertThrows(ArithmeticException.class, () -> batch.compute(new int[] {n - 3}, false));
+        assertThrows(ArithmeticException.class, () -> single.shortestPaths(n - 3));
+        
+        // Exactly INF: finite, so it must not read as unreachable
+        Graph edge = new Graph(2, "edge");
+        edge.addEdge(0, 1, MultiSourceShortestPath.INF);
+        assertThrows(ArithmeticException.class, () -> new DAGShortestPath(edge, new Metrics()).shortestPaths(0));
+        assertEquals(MultiSourceShortestPath.INF, new DAGShortestPath(edge, new Metrics()).shortestPathsLong(0)[1]);
+        
+        MultiSourceShortestPath.BatchResult last = batch.compute(new int[] {n - 2}, true);
+        assertArrayEquals(single.shortestPaths(n - 2), last.dist[0]);
+        assertEquals(List.of(n - 2, n - 1), last.path(0, n - 1));
+    }
+    
     @Test
     public void testSingleVertex() {
         Graph g = new Graph(1, "edge");
@@ -175,4 +818,957 @@ public class GraphAlgorithmsTest {
         int[] dist = sp.shortestPaths(0);
         assertEquals(0, dist[0]);
     }
+    
+    // ===== Path Cache Tests =====
+    
+    @Test
+    public void testPathCacheHitsEvictsAndInvalidates() {
+        Graph g = new Graph(4, "edge");
+        g.addEdge(0, 1, 2);
+        g.addEdge(1, 2, 3);
+        g.addEdge(0, 3, 10);
+        Metrics metrics = new Metrics();
+        PathCache cache = PathCache.withMaxEntries(g, metrics, 2);
+        
+        assertArrayEquals(new DAGShortestPath(g, Metrics.NOOP).shortestPathsLong(0), cache.shortestPaths(0));
+        assertEquals(5, cache.distance(0, 2));
+        assertEquals(DAGShortestPath.UNREACHABLE, cache.distance(1, 0));
+        assertEquals(10, cache.criticalPath().pathLength); // evicts source 0
+        assertEquals(List.of(0, 3), cache.criticalPath().path);
+        assertEquals(2, cache.size());
+        assertEquals(2, metrics.get("path_cache_hits"));
+        assertEquals(3, metrics.get("path_cache_misses"));
+        assertEquals(1, metrics.get("path_cache_evictions"));
+        
+        g.addEdge(2, 3, 20);
+        assertEquals(10, cache.distance(0, 3));
+        assertEquals(25, cache.criticalPath().pathLength);
+        assertEquals(List.of(0, 1, 2, 3), cache.criticalPath().path);
+        assertEquals(2, metrics.get("path_cache_invalidations"));
+    }
+    
+    @Test
+    public void testPathCacheByteBudget() {
+        CsrGraph dag = new WorkloadGenerator.Builder(1000, 4000).seed(24).layers(10).build().toCsr();
+        long entryBytes = 96 + 4L * dag.getVertexCount();
+        Metrics metrics = new Metrics();
+        PathCache cache = PathCache.withMaxBytes(dag, metrics, 3 * entryBytes);
+        DAGShortestPath reference = new DAGShortestPath(dag, Metrics.NOOP);
+        for (int round = 0; round < 2; round++) {
+            for (int source = 0; source < 5; source++) {
+                assertArrayEquals(reference.shortestPathsLong(source), cache.shortestPaths(source));
+            }
+        }
+        assertEquals(3, cache.size());
+        assertEquals(3 * entryBytes, cache.getBytes());
+        assertEquals(10, metrics.get("path_cache_misses"));
+        assertEquals(7, metrics.get("path_cache_evictions"));
+    }
+    
+    // ===== K Longest Paths Tests =====
+    
+    @Test
+    public void testLongestPathsInOrder() {
+        Graph g = new Graph(5, "edge");
+        g.addEdge(0, 1, 3);
+        g.addEdge(0, 2, 1);
+        g.addEdge(1, 3, 2);
+        g.addEdge(2, 3, 1);
+        g.addEdge(3, 4, 1);
+        g.addEdge(1, 4, 1);
+        
+        DAGShortestPath sp = new DAGShortestPath(g, new Metrics());
+        List<DAGShortestPath.LongPathResult> paths = sp.longestPaths(10);
+        
+        assertEquals(3, paths.size());
+        assertEquals(Arrays.asList(0, 1, 3, 4), paths.get(0).path);
+        assertEquals(6, paths.get(0).pathLength);
+        assertEquals(Arrays.asList(0, 1, 4), paths.get(1).path);
+        assertEquals(4, paths.get(1).pathLength);
+        assertEquals(Arrays.asList(0, 2, 3, 4), paths.get(2).path);
+        assertEquals(3, paths.get(2).pathLength);
+        assertEquals(sp.criticalPathLong().pathLength, paths.get(0).pathLength);
+    }
+    
+    @Test
+    public void testLongestPathsMatchBruteForce() {
+        Random rnd = new Random(18);
+        for (String model : new String[]{"edge", "node"}) {
+            for (int trial = 0; trial < 20; trial++) {
+                int n = 3 + rnd.nextInt(9);
+                Graph g = new Graph(n, model);
+                for (int u = 0; u < n; u++) {
+                    g.setNodeWeight(u, rnd.nextInt(5));
+                    for (int v = u + 1; v < n; v++) {
+                        if (rnd.nextInt(3) == 0) {
+                            g.addEdge(u, v, rnd.nextInt(9) - 4); // negative lags in the edge model
+                        }
+                    }
+                }
+                
+                List<Long> expected = new ArrayList<>();
+                for (int s = 0; s < n; s++) {
+                    if (g.getInDegree(s) == 0) {
+                        collectPathLengths(g, s, "node".equals(model) ? g.getNodeWeight(s) : 0, expected);
+                    }
+                }
+                expected.sort(Collections.reverseOrder());
+                
+                List<Long> actual = new ArrayList<>();
+                Iterator<DAGShortestPath.LongPathResult> it = new DAGShortestPath(g, new Metrics()).longestPaths();
+                while (it.hasNext()) {
+                    DAGShortestPath.LongPathResult r = it.next();
+                    List<Integer> p = r.path;
+                    long length = "node".equals(model) ? g.getNodeWeight(p.get(0)) : 0;
+                    for (int i = 1; i < p.size(); i++) {
+                        length += "node".equals(model) ? g.getNodeWeight(p.get(i))
+                                                       : edgeWeight(g, p.get(i - 1), p.get(i));
+                    }
+                    assertEquals(length, r.pathLength);
+                    assertEquals(0, g.getInDegree(p.get(0)));
+                    assertEquals(0, g.getOutDegree(p.get(p.size() - 1)));
+                    actual.add(r.pathLength);
+                }
+                assertEquals(expected, actual);
+            }
+        }
+        
+        // Negative lags must not end paths before the sink
+        Graph chain = new Graph(3, "edge");
+        chain.addEdge(0, 1, -2);
+        chain.addEdge(1, 2, -3);
+        List<DAGShortestPath.LongPathResult> paths = new DAGShortestPath(chain, new Metrics()).longestPaths(5);
+        assertEquals(1, paths.size());
+        assertEquals(List.of(0, 1, 2), paths.get(0).path);
+        assertEquals(-5, paths.get(0).pathLength);
+    }
+    
+    private static void collectPathLengths(Graph g, int u, long length, List<Long> out) {
+        if (g.getOutDegree(u) == 0) {
+            out.add(length);
+            return;
+        }
+        for (int i = 0; i < g.getOutDegree(u); i++) {
+            int v = g.getTarget(u, i);
+            long step = "node".equals(g.getWeightModel()) ? g.getNodeWeight(v) : g.getWeight(u, i);
+            collectPathLengths(g, v, length + step, out);
+        }
+    }
+    
+    private static long edgeWeight(Graph g, int u, int v) {
+        long best = Long.MIN_VALUE;
+        for (int i = 0; i < g.getOutDegree(u); i++) {
+            if (g.getTarget(u, i) == v) {
+                best = Math.max(best, g.getWeight(u, i));
+            }
+        }
+        return best;
+    }
+    
+    // ===== Slack Analysis Tests =====
+    
+    @Test
+    public void testSlackAnalysisEarliestAndLatestStarts() {
+        // 0(3) -> 1(2) -> 3(1), 0 -> 2(4) -> 3
+        Graph g = new Graph(4, "node");
+        g.setNodeWeight(0, 3);
+        g.setNodeWeight(1, 2);
+        g.setNodeWeight(2, 4);
+        g.setNodeWeight(3, 1);
+        g.addEdge(0, 1, 0);
+        g.addEdge(0, 2, 0);
+        g.addEdge(1, 3, 0);
+        g.addEdge(2, 3, 0);
+        
+        SlackAnalysis slack = new SlackAnalysis(g, new Metrics());
+        
+        assertEquals(8, slack.getMakespan());
+        assertEquals(new DAGShortestPath(g, new Metrics()).criticalPathLong().pathLength, slack.getMakespan());
+        assertArrayEquals(new long[]{0, 3, 3, 7}, slack.getEarliestStarts());
+        assertArrayEquals(new long[]{0, 5, 3, 7}, slack.getLatestStarts());
+        assertArrayEquals(new long[]{0, 2, 0, 0}, slack.getSlacks());
+        assertArrayEquals(new int[]{0, 2, 3}, slack.getCriticalTasks());
+        
+        slack.setDuration(1, 5);
+        assertEquals(9, slack.getMakespan());
+        assertArrayEquals(new int[]{0, 1, 3}, slack.getCriticalTasks());
+        assertEquals(1, slack.getSlack(2));
+        
+        // Negative lags: a single chain is critical end to end
+        Graph chain = new Graph(3, "edge");
+        chain.addEdge(0, 1, -2);
+        chain.addEdge(1, 2, -3);
+        SlackAnalysis lags = new SlackAnalysis(chain, new Metrics());
+        assertEquals(-5, lags.getMakespan());
+        assertArrayEquals(new long[]{0, -2, -5}, lags.getEarliestStarts());
+        assertArrayEquals(new long[]{0, 0, 0}, lags.getSlacks());
+        assertArrayEquals(new int[]{0, 1, 2}, lags.getCriticalTasks());
+    }
+    
+    @Test
+    public void testSlackAnalysisIncrementalMatchesRebuild() {
+        Random rnd = new Random(19);
+        int n = 60;
+        Graph g = new Graph(n, "node");
+        for (int u = 0; u < n; u++) {
+            g.setNodeWeight(u, rnd.nextInt(10));
+            for (int v = u + 1; v < n; v++) {
+                if (rnd.nextInt(8) == 0) {
+                    g.addEdge(u, v, 0);
+                }
+            }
+        }
+        
+        SlackAnalysis incremental = new SlackAnalysis(g, new Metrics());
+        Graph rebuilt = new Graph(n, "node");
+        for (int u = 0; u < n; u++) {
+            for (int i = 0; i < g.getOutDegree(u); i++) {
+                rebuilt.addEdge(u, g.getTarget(u, i), 0);
+            }
+            rebuilt.setNodeWeight(u, g.getNodeWeight(u));
+        }
+        for (int step = 0; step < 200; step++) {
+            int v = rnd.nextInt(n);
+            int d = rnd.nextInt(20);
+            incremental.setDuration(v, d);
+            rebuilt.setNodeWeight(v, d);
+            
+            SlackAnalysis full = new SlackAnalysis(rebuilt, new Metrics());
+            assertEquals(full.getMakespan(), incremental.getMakespan());
+            assertArrayEquals(full.getEarliestStarts(), incremental.getEarliestStarts());
+            assertArrayEquals(full.getSlacks(), incremental.getSlacks());
+        }
+    }
+    
+    // ===== CSR Graph Tests =====
+    
+    @Test
+    public void testCsrPreservesAdjacency() {
+        Graph g = new Graph(4, "edge");
+        g.addEdge(0, 2, 5);
+        g.addEdge(0, 1, 3);
+        g.addEdge(1, 2, 1);
+        g.addEdge(3, 2, 7);
+        
+        CsrGraph csr = g.toCsr();
+        
+        assertEquals(4, csr.getVertexCount());
+        assertEquals(4, csr.getEdgeCount());
+        assertEquals(2, csr.getOutDegree(0));
+        assertEquals(2, csr.getTarget(0, 0)); // insertion order kept
+        assertEquals(3, csr.getWeight(0, 1));
+        assertEquals(3, csr.getInDegree(2));
+        assertEquals(0, csr.getReverseTarget(2, 0));
+        assertEquals(7, csr.getReverseWeight(2, 2));
+        assertEquals(0, csr.getOutDegree(2));
+    }
+    
+    @Test
+    public void testAlgorithmsOnCsr() {
+        CsrGraph g = new CsrGraph.Builder(5, "edge")
+            .addEdge(0, 1, 3)
+            .addEdge(0, 2, 2)
+            .addEdge(1, 3, 4)
+            .addEdge(2, 3, 1)
+            .addEdge(3, 4, 2)
+            .build();
+        
+        assertEquals(5, new TarjanSCC(g, new Metrics()).findSCCs().size());
+        assertEquals(5, new TopologicalSort(g, new Metrics()).sortKahn().size());
+        assertEquals(9, new DAGShortestPath(g, new Metrics()).criticalPath().pathLength);
+        assertEquals(5, new DAGShortestPath(g, new Metrics()).shortestPaths(0)[4]); // 0->2->3->4
+    }
+    
+    @Test
+    public void testCsrBuilderRejectsOutOfRangeVertex() {
+        CsrGraph.Builder builder = new CsrGraph.Builder(2, "edge");
+        assertThrows(IndexOutOfBoundsException.class, () -> builder.addEdge(0, 2, 1));
+    }
+    
+    // ===== Vertex Reordering Tests =====
+    
+    @Test
+    public void testReorderedSCCsTranslateBack() {
+        CsrGraph g = new WorkloadGenerator.Builder(500, 2000).seed(21).sccSizes(1, 6).shuffle(true).build().toCsr();
+        int[] expected = canonicalComponents(new TarjanSCC(g, new Metrics()).decompose());
+        
+        for (ReorderedGraph.Strategy strategy : new ReorderedGraph.Strategy[]{
+                ReorderedGraph.Strategy.BFS, ReorderedGraph.Strategy.RCM}) {
+            ReorderedGraph reordered = ReorderedGraph.of(g, strategy);
+            for (int v = 0; v < g.getVertexCount(); v++) {
+                assertEquals(v, reordered.toOriginal(reordered.toNew(v)));
+                assertEquals(g.getOutDegree(v), reordered.getGraph().getOutDegree(reordered.toNew(v)));
+            }
+            assertArrayEquals(expected, canonicalComponents(new TarjanSCC(reordered, new Metrics()).decompose()));
+        }
+    }
+    
+    @Test
+    public void testTopologicalReorderingMakesEdgesPointForward() {
+        CsrGraph g = new WorkloadGenerator.Builder(400, 1600).seed(21).sccSizes(1, 1).shuffle(true).build().toCsr();
+        ReorderedGraph reordered = ReorderedGraph.of(g, ReorderedGraph.Strategy.TOPOLOGICAL);
+        CsrGraph dag = reordered.getGraph();
+        for (int u = 0; u < dag.getVertexCount(); u++) {
+            for (int i = 0; i < dag.getOutDegree(u); i++) {
+                assertTrue(dag.getTarget(u, i) > u);
+            }
+        }
+        
+        List<Integer> order = new TopologicalSort(reordered, new Metrics()).sortKahn();
+        int[] position = new int[g.getVertexCount()];
+        for (int k = 0; k < order.size(); k++) {
+            position[order.get(k)] = k;
+        }
+        for (int u = 0; u < g.getVertexCount(); u++) {
+            for (int i = 0; i < g.getOutDegree(u); i++) {
+                assertTrue(position[u] < position[g.getTarget(u, i)]);
+            }
+        }
+        
+        Graph cyclic = new Graph(2, "edge");
+        cyclic.addEdge(0, 1, 1);
+        cyclic.addEdge(1, 0, 1);
+        assertThrows(IllegalStateException.class,
+                     () -> ReorderedGraph.of(cyclic, ReorderedGraph.Strategy.TOPOLOGICAL));
+    }
+    
+    // ===== JSON Loader Tests =====
+    
+    @Test
+    public void testStreamingLoaderMatchesAdjacencyLoad() throws Exception {
+        Path file = Files.createTempFile("streaming", ".json");
+        // Edges before "n", unknown keys and a null source must all be accepted
+        Files.writeString(file, "{\"edges\": [{\"u\": 0, \"v\": 2, \"w\": 5, \"label\": \"x\"}, "
+            + "{\"u\": 0, \"v\": 1, \"w\": 3}, {\"u\": 1, \"v\": 2, \"w\": 1}], "
+            + "\"meta\": {\"k\": [1, 2]}, \"n\": 4, \"source\": null, \"directed\": true}");
+        try {
+            JsonGraphReader.LoadResult loaded = JsonGraphReader.load(file.toString());
+            Graph g = Graph.fromJsonFile(file.toString()).graph;
+            
+            assertNull(loaded.source);
+            assertEquals(Files.size(file), loaded.bytesRead);
+            assertEquals(4, loaded.graph.getVertexCount());
+            assertEquals(g.getEdgeCount(), loaded.graph.getEdgeCount());
+            for (int u = 0; u < 4; u++) {
+                assertEquals(g.getOutDegree(u), loaded.graph.getOutDegree(u));
+                for (int i = 0; i < g.getOutDegree(u); i++) {
+                    assertEquals(g.getTarget(u, i), loaded.graph.getTarget(u, i));
+                    assertEquals(g.getWeight(u, i), loaded.graph.getWeight(u, i));
+                }
+            }
+            assertEquals(2, loaded.graph.getTarget(0, 0)); // file order kept
+        } finally {
+            Files.delete(file);
+        }
+    }
+    
+    @Test
+    public void testStreamingLoaderRejectsOutOfRangeEdge() throws Exception {
+        Path file = Files.createTempFile("bad-edge", ".json");
+        Files.writeString(file, "{\"n\": 2, \"edges\": [{\"u\": 0, \"v\": 2, \"w\": 1}]}");
+        try {
+            assertThrows(java.io.IOException.class, () -> JsonGraphReader.load(file.toString()));
+        } finally {
+            Files.delete(file);
+        }
+    }
+    
+    @Test
+    public void testStreamingLoaderRejectsEdgeWithoutWeight() throws Exception {
+        Path file = Files.createTempFile("unweighted-edge", ".json");
+        Files.writeString(file, "{\"n\": 2, \"edges\": [{\"u\": 0, \"v\": 1}]}");
+        try {
+            assertThrows(java.io.IOException.class, () -> JsonGraphReader.load(file.toString()));
+        } finally {
+            Files.delete(file);
+        }
+    }
+    
+    // ===== Binary Format Tests =====
+    
+    @Test
+    public void testBinaryRoundTripThroughMappedGraph() throws Exception {
+        Graph g = new Graph(5, "node");
+        g.addEdge(0, 1, 3);
+        g.addEdge(0, 2, 2);
+        g.addEdge(1, 3, 4);
+        g.addEdge(2, 3, 1);
+        g.addEdge(3, 4, 2);
+        for (int v = 0; v < 5; v++) {
+            g.setNodeWeight(v, v + 1);
+        }
+        Path file = Files.createTempFile("graph", ".bin");
+        try {
+            BinaryGraphFormat.write(g, 0, file);
+            MappedGraph mapped = MappedGraph.open(file);
+            
+            assertEquals(Integer.valueOf(0), mapped.getSource());
+            assertEquals("node", mapped.getWeightModel());
+            assertEquals(5, mapped.getVertexCount());
+            assertEquals(5, mapped.getEdgeCount());
+            for (int u = 0; u < 5; u++) {
+                assertEquals(g.getNodeWeight(u), mapped.getNodeWeight(u));
+                assertEquals(g.getOutDegree(u), mapped.getOutDegree(u));
+                assertEquals(g.getInDegree(u), mapped.getInDegree(u));
+                for (int i = 0; i < g.getOutDegree(u); i++) {
+                    assertEquals(g.getTarget(u, i), mapped.getTarget(u, i));
+                    assertEquals(g.getWeight(u, i), mapped.getWeight(u, i));
+                }
+                for (int i = 0; i < g.getInDegree(u); i++) {
+                    assertEquals(g.getReverseTarget(u, i), mapped.getReverseTarget(u, i));
+                    assertEquals(g.getReverseWeight(u, i), mapped.getReverseWeight(u, i));
+                }
+            }
+            assertEquals(new DAGShortestPath(g, new Metrics()).criticalPath().pathLength,
+                         new DAGShortestPath(mapped, new Metrics()).criticalPath().pathLength);
+        } finally {
+            Files.delete(file);
+        }
+    }
+    
+    @Test
+    public void testMappedGraphRejectsForeignFile() throws Exception {
+        Path file = Files.createTempFile("not-a-graph", ".bin");
+        Files.writeString(file, "{\"n\": 2, \"edges\": [], \"padding\": true}");
+        try {
+            assertThrows(java.io.IOException.class, () -> MappedGraph.open(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+    
+    // ===== Off-Heap Graph Tests =====
+    
+    @Test
+    public void testOffHeapGraphMatchesHeapResults() {
+        CsrGraph csr = new WorkloadGenerator.Builder(300, 1200).seed(20).sccSizes(1, 4).build().toCsr();
+        try (OffHeapGraph offHeap = OffHeapGraph.copyOf(csr)) {
+            assertEquals(csr.getEdgeCount(), offHeap.getEdgeCount());
+            assertEquals(4L * (3 * 300 + 2 + 4 * 1200), offHeap.getOffHeapBytes());
+            assertEquals(new TarjanSCC(csr, new Metrics()).findSCCs().size(),
+                         new TarjanSCC(offHeap, new Metrics()).findSCCs().size());
+            
+            CsrGraph dag = new CondensationGraph(csr, new TarjanSCC(csr, new Metrics()).findSCCs()).getGraph();
+            OffHeapGraph offHeapDag = OffHeapGraph.copyOf(dag);
+            assertEquals(new DAGShortestPath(dag, new Metrics()).criticalPathLong().pathLength,
+                         new DAGShortestPath(offHeapDag, new Metrics()).criticalPathLong().pathLength);
+            offHeapDag.close();
+        }
+    }
+    
+    @Test
+    public void testOffHeapGraphLoadAndClose() throws Exception {
+        Graph g = new Graph(4, "edge");
+        g.addEdge(0, 1, 5);
+        g.addEdge(1, 2, 1);
+        g.addEdge(0, 3, 2);
+        Path file = Files.createTempFile("graph", ".bin");
+        try {
+            BinaryGraphFormat.write(g, 0, file);
+            OffHeapGraph loaded = OffHeapGraph.load(file);
+            Files.delete(file);
+            
+            assertEquals(Integer.valueOf(0), loaded.getSource());
+            assertEquals(2, loaded.getOutDegree(0));
+            assertEquals(1, loaded.getReverseTarget(2, 0));
+            assertArrayEquals(new int[]{0, 5, 6, 2}, new DAGShortestPath(loaded, new Metrics()).shortestPaths(0));
+            
+            loaded.close();
+            loaded.close();
+            assertTrue(loaded.isClosed());
+            assertThrows(IllegalStateException.class, loaded::getVertexCount);
+            assertThrows(IllegalStateException.class, () -> new TarjanSCC(loaded, new Metrics()).decompose());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+    
+    @Test
+    public void testBinaryStreamWriterReplacesFileAtomically() throws Exception {
+        Graph g = new Graph(3, "edge");
+        g.addEdge(0, 1, 4);
+        g.addEdge(1, 2, 6);
+        Path dir = Files.createTempDirectory("graphs");
+        Path file = dir.resolve("city.bin");
+        try {
+            BinaryGraphFormat.write(g, 0, file);
+            MappedGraph mapped = MappedGraph.open(file);
+            
+            // A short write fails and leaves the mapped file in place
+            BinaryGraphFormat.StreamWriter writer = new BinaryGraphFormat.StreamWriter(file, 3, 2, "edge", 0);
+            writer.put(0);
+            assertThrows(IOException.class, writer::close);
+            assertEquals(2, mapped.getEdgeCount());
+            assertEquals(6, mapped.getWeight(1, 0));
+            
+            // A rewrite swaps in a new file; the old mapping still reads the old one
+            g.addEdge(0, 2, 9);
+            BinaryGraphFormat.write(g, 0, file);
+            assertEquals(2, mapped.getEdgeCount());
+            assertEquals(6, mapped.getWeight(1, 0));
+            assertEquals(3, MappedGraph.open(file).getEdgeCount());
+            assertEquals(1, dir.toFile().list().length);
+        } finally {
+            Files.deleteIfExists(file);
+            Files.delete(dir);
+        }
+    }
+    
+    // ===== Metrics Tests =====
+    
+    @Test
+    public void testMetricsCountersAndNestedSpans() throws Exception {
+        Metrics metrics = new Metrics();
+        Graph g = new Graph(3, "edge");
+        g.addEdge(0, 1, 1);
+        g.addEdge(1, 2, 1);
+        g.addEdge(2, 0, 1);
+        
+        try (Span outer = metrics.span("load")) {
+            try (Span inner = metrics.span("scc")) {
+                assertEquals("load/scc", inner.getPath());
+                new TarjanSCC(g, metrics).decompose();
+            }
+            assertEquals("load", outer.getPath());
+        }
+        assertEquals(3, metrics.get("dfs_visits"));
+        assertEquals(3, metrics.get("edges_explored"));
+        assertEquals(1, metrics.getSpanCount("load"));
+        assertEquals(1, metrics.getSpanCount("load/scc"));
+        assertTrue(metrics.getSpanNanos("load") >= metrics.getSpanNanos("load/scc"));
+        
+        // Handles are thread-safe
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    metrics.counter("shared").increment();
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(40_000, metrics.get("shared"));
+        
+        // Timers are per thread: another thread's start/stop does not cut this one short
+        metrics.startTimer();
+        try (Span span = metrics.span("timed")) {
+            assertEquals("timed", span.getPath());
+            Thread.sleep(20);
+        }
+        Thread other = new Thread(() -> {
+            metrics.startTimer();
+            metrics.stopTimer();
+        });
+        other.start();
+        other.join();
+        metrics.stopTimer();
+        assertTrue(metrics.getTimeMs() >= 20);
+        
+        Metrics.NOOP.add("ignored", 5);
+        try (Span span = Metrics.NOOP.span("ignored")) {
+            assertNull(span.getPath());
+            new TarjanSCC(g, Metrics.NOOP).decompose();
+        }
+        assertEquals(0, Metrics.NOOP.get("ignored"));
+        assertEquals(0, Metrics.NOOP.getSpanCount("ignored"));
+    }
+    
+    @Test
+    public void testMetricsTimerSurvivesFailedAlgorithm() {
+        Metrics metrics = new Metrics();
+        Graph cyclic = new Graph(2, "edge");
+        cyclic.addEdge(0, 1, 1);
+        cyclic.addEdge(1, 0, 1);
+        
+        try (Span outer = metrics.span("plan")) {
+            assertThrows(IllegalStateException.class,
+                         () -> new DAGShortestPath(cyclic, metrics).criticalPathLong());
+        }
+        // A timer left open by the failure would keep "plan" as this thread's parent
+        try (Span next = metrics.span("next")) {
+            assertEquals("next", next.getPath());
+        }
+    }
+    
+    @Test
+    public void testMetricsExporters() throws Exception {
+        Metrics metrics = new Metrics();
+        metrics.add("edges_explored", 42);
+        try (Span span = metrics.span("sort")) {
+            assertEquals("sort", span.getPath());
+            metrics.increment("pop_ops");
+        }
+        
+        String prom = new PrometheusTextSink(Path.of("unused")).format(metrics.snapshot());
+        assertTrue(prom.contains("dag_scheduler_edges_explored_total 42\n"));
+        assertTrue(prom.contains("dag_scheduler_span_count_total{span=\"sort\"} 1\n"));
+        
+        Path file = Files.createTempFile("metrics", ".json");
+        try {
+            metrics.export(new JsonSnapshotSink(file));
+            String json = Files.readString(file);
+            assertTrue(json.contains("\"edges_explored\": 42"));
+            assertTrue(json.contains("\"sort\""));
+        } finally {
+            Files.delete(file);
+        }
+    }
+    
+    // ===== Workload Generator Tests =====
+    
+    @Test
+    public void testGeneratorPlantsCriticalPath() {
+        WorkloadGenerator gen = new WorkloadGenerator.Builder(2000, 8000)
+            .seed(7).layers(25).layerSpan(3).weights(1, 50).build();
+        CsrGraph g = gen.toCsr();
+        
+        assertEquals(2000, g.getVertexCount());
+        assertEquals(8000, g.getEdgeCount());
+        DAGShortestPath.LongPathResult critical = new DAGShortestPath(g, new Metrics()).criticalPathLong();
+        assertEquals(24 * 51, gen.getCriticalPathLength());
+        assertEquals(gen.getCriticalPathLength(), critical.pathLength);
+        assertArrayEquals(gen.getCriticalPath(), critical.path.stream().mapToInt(Integer::intValue).toArray());
+        
+        WorkloadGenerator nodes = new WorkloadGenerator.Builder(500, 1500)
+            .seed(3).layers(10).weightModel("node").build();
+        assertEquals(nodes.getCriticalPathLength(),
+                     new DAGShortestPath(nodes.toCsr(), new Metrics()).criticalPathLong().pathLength);
+    }
+    
+    @Test
+    public void testGeneratorComponentsAndCondensedPath() {
+        WorkloadGenerator gen = new WorkloadGenerator.Builder(3000, 12000)
+            .seed(11).sccSizes(1, 20).width(100).build();
+        CsrGraph g = gen.toCsr();
+        SCCResult sccs = new TarjanSCC(g, new Metrics()).decompose();
+        assertEquals(gen.getComponentCount(), sccs.getComponentCount());
+        
+        CondensationGraph cond = new CondensationGraph(g, sccs, EdgeMergePolicy.MAX);
+        assertEquals(gen.getCriticalPathLength(),
+                     new DAGShortestPath(cond.getGraph(), new Metrics()).criticalPathLong().pathLength);
+    }
+    
+    @Test
+    public void testGeneratorFileOutputsMatch() throws Exception {
+        WorkloadGenerator gen = new WorkloadGenerator.Builder(300, 1200)
+            .seed(5).sccSizes(1, 4).layers(12).layerSpan(2).build();
+        CsrGraph expected = gen.toCsr();
+        Path json = Files.createTempFile("generated", ".json");
+        Path bin = Files.createTempFile("generated", ".bin");
+        try {
+            gen.writeJson(json);
+            gen.writeBinary(bin, 256); // tiny budget forces many reverse passes
+            JsonGraphReader.LoadResult loaded = JsonGraphReader.load(json.toString());
+            MappedGraph mapped = MappedGraph.open(bin);
+            
+            assertEquals(Integer.valueOf(gen.getSource()), loaded.source);
+            assertEquals(Integer.valueOf(gen.getSource()), mapped.getSource());
+            for (int u = 0; u < expected.getVertexCount(); u++) {
+                assertEquals(expected.getOutDegree(u), loaded.graph.getOutDegree(u));
+                assertEquals(expected.getInDegree(u), mapped.getInDegree(u));
+                for (int i = 0; i < expected.getOutDegree(u); i++) {
+                    assertEquals(expected.getTarget(u, i), loaded.graph.getTarget(u, i));
+                    assertEquals(expected.getWeight(u, i), mapped.getWeight(u, i));
+                }
+                for (int i = 0; i < expected.getInDegree(u); i++) {
+                    assertEquals(expected.getReverseTarget(u, i), mapped.getReverseTarget(u, i));
+                    assertEquals(expected.getReverseWeight(u, i), mapped.getReverseWeight(u, i));
+                }
+            }
+        } finally {
+            Files.delete(json);
+            Files.delete(bin);
+        }
+    }
+    
+    // ===== DAG Executor Tests =====
+    
+    @Test
+    public void testExecutorRespectsDependencies() throws Exception {
+        WorkloadGenerator gen = new WorkloadGenerator.Builder(400, 1500).seed(9).layers(8).build();
+        CsrGraph dag = gen.toCsr();
+        Metrics metrics = new Metrics();
+        
+        DAGExecutor.ExecutionResult result = new DAGExecutor(dag, metrics, 4)
+            .execute(v -> Thread.sleep(0, 1000));
+        
+        assertTrue(result.isSuccessful());
+        assertEquals(400, metrics.get("tasks_completed"));
+        for (int u = 0; u < dag.getVertexCount(); u++) {
+            for (int i = 0; i < dag.getOutDegree(u); i++) {
+                int v = dag.getTarget(u, i);
+                assertTrue(result.startNanos[v] >= result.finishNanos[u], u + " -> " + v);
+            }
+        }
+    }
+    
+    @Test
+    public void testExecutorCancelsDownstreamOnFailure() throws Exception {
+        Graph g = new Graph(5, "edge");
+        g.addEdge(0, 1, 1);
+        g.addEdge(1, 2, 1);
+        g.addEdge(0, 3, 1);
+        
+        DAGExecutor.ExecutionResult result = new DAGExecutor(g, new Metrics(), 2).execute(v -> {
+            if (v == 1) {
+                throw new IllegalStateException("boom");
+            }
+        });
+        
+        assertEquals(DAGExecutor.Status.FAILED, result.getStatus(1));
+        assertEquals(DAGExecutor.Status.CANCELLED, result.getStatus(2));
+        assertEquals(-1, result.startNanos[2]);
+        assertEquals(3, result.count(DAGExecutor.Status.COMPLETED));
+        assertEquals("boom", result.failures.get(1).getMessage());
+    }
+    
+    @Test
+    public void testExecutorRunsLongestRemainingPathFirst() throws Exception {
+        Graph g = new Graph(5, "edge");
+        g.addEdge(0, 1, 1); // short branch from 0
+        g.addEdge(2, 3, 5); // long branch from 2
+        g.addEdge(3, 4, 5);
+        
+        List<Integer> started = Collections.synchronizedList(new ArrayList<>());
+        new DAGExecutor(g, new Metrics(), 1).execute(started::add);
+        // Bottom levels: 2 -> 10, 3 -> 5, 0 -> 1, 1 and 4 -> 0
+        assertEquals(List.of(2, 3, 0, 1, 4), started);
+    }
+    
+    // ===== List Scheduler Tests =====
+    
+    @Test
+    public void testListSchedulerSmallExample() {
+        Graph g = new Graph(5, "node");
+        g.addEdge(0, 1, 1);
+        g.addEdge(0, 2, 1);
+        g.addEdge(1, 3, 1);
+        g.addEdge(2, 3, 1);
+        int[] durations = {3, 2, 4, 1, 5};
+        for (int v = 0; v < 5; v++) {
+            g.setNodeWeight(v, durations[v]);
+        }
+        
+        ListScheduler scheduler = new ListScheduler(g, new Metrics());
+        ListScheduler.Schedule two = scheduler.schedule(2);
+        assertEquals(8, two.criticalPathLength);
+        assertEquals(8, two.makespan);
+        assertArrayEquals(new long[] {0, 5, 3, 7, 0}, two.start);
+        assertEquals(two.slot[0], two.slot[2]); // 2 takes over 0's slot
+        
+        assertEquals(15, scheduler.schedule(1).makespan);
+    }
+    
+    @Test
+    public void testListSchedulerProducesFeasibleSchedule() {
+        CsrGraph dag = new WorkloadGenerator.Builder(3000, 12000)
+            .seed(21).layers(30).layerSpan(4).weightModel("node").weights(1, 20).build().toCsr();
+        int slots = 4;
+        ListScheduler.Schedule schedule = new ListScheduler(dag, new Metrics()).schedule(slots);
+        
+        long work = 0;
+        for (int u = 0; u < dag.getVertexCount(); u++) {
+            work += dag.getNodeWeight(u);
+            assertTrue(schedule.getFinish(u) <= schedule.makespan);
+            for (int i = 0; i < dag.getOutDegree(u); i++) {
+                assertTrue(schedule.start[dag.getTarget(u, i)] >= schedule.getFinish(u));
+            }
+        }
+        // No two tasks overlap on a slot
+        Integer[] bySlotStart = new Integer[dag.getVertexCount()];
+        for (int v = 0; v < bySlotStart.length; v++) {
+            bySlotStart[v] = v;
+        }
+        Arrays.sort(bySlotStart, (a, b) -> schedule.slot[a] != schedule.slot[b]
+            ? Integer.compare(schedule.slot[a], schedule.slot[b])
+            : Long.compare(schedule.start[a], schedule.start[b]));
+        for (int i = 1; i < bySlotStart.length; i++) {
+            int prev = bySlotStart[i - 1];
+            int curr = bySlotStart[i];
+            if (schedule.slot[prev] == schedule.slot[curr]) {
+                assertTrue(schedule.start[curr] >= schedule.getFinish(prev));
+            }
+        }
+        assertTrue(schedule.makespan >= Math.max(schedule.criticalPathLength, (work + slots - 1) / slots));
+    }
+    
+    // ===== Query Service Tests =====
+    
+    @Test
+    public void testQueryServicePublishIsCopyOnWrite() {
+        Graph g = new Graph(4, "edge");
+        g.addEdge(0, 1, 2);
+        g.addEdge(1, 2, 3);
+        g.addEdge(2, 3, 4);
+        Metrics metrics = new Metrics();
+        QueryService service = new QueryService(g, metrics);
+        QueryService.Snapshot first = service.snapshot();
+        
+        g.addEdge(3, 0, 1); // not visible until published
+        assertEquals(9, service.criticalPath().pathLength);
+        assertArrayEquals(new int[] {0, 1, 2, 3}, service.topologicalOrder());
+        assertSame(first.components(), first.components());
+        
+        QueryService.Snapshot second = service.publish(g);
+        assertEquals(2, second.getVersion());
+        assertEquals(1, second.components().getComponentCount());
+        assertThrows(IllegalStateException.class, service::topologicalOrder);
+        assertEquals(4, first.components().getComponentCount());
+        assertEquals(7, first.shortestDistance(1, 3));
+        
+        QueryService.Snapshot third = service.update(copy -> copy.removeEdge(3, 0));
+        assertEquals(3, service.getVersion());
+        assertEquals(9, third.criticalPath().pathLength);
+        assertEquals(2, metrics.get("snapshots_published"));
+    }
+    
+    @Test
+    public void testQueryServiceConcurrentReadersDuringPublishes() throws Exception {
+        CsrGraph dag = new WorkloadGenerator.Builder(2000, 8000)
+            .seed(23).layers(20).layerSpan(3).weightModel("node").weights(1, 9).build().toCsr();
+        QueryService service = new QueryService(dag, new Metrics());
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> readers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread reader = new Thread(() -> {
+                try {
+                    while (!done.get()) {
+                        QueryService.Snapshot snapshot = service.snapshot();
+                        DAGShortestPath reference = new DAGShortestPath(snapshot.getGraph(), Metrics.NOOP);
+                        assertEquals(reference.criticalPathLong().pathLength, snapshot.criticalPath().pathLength);
+                        int source = snapshot.prepared().getSources()[0];
+                        long[] dist = reference.shortestPathsLong(source);
+                        int target = (int) (snapshot.getVersion() % dist.length);
+                        assertEquals(dist[target], snapshot.shortestDistance(source, target));
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            });
+            readers.add(reader);
+            reader.start();
+        }
+        for (int version = 0; version < 30; version++) {
+            int v = version * 61 % dag.getVertexCount();
+            service.update(copy -> copy.setNodeWeight(v, 100));
+        }
+        done.set(true);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        assertNull(failure.get());
+        assertEquals(31, service.getVersion());
+    }
+    
+    // ===== Partitioned Processing Tests =====
+    
+    @Test
+    public void testPartitionedSCCMatchesTarjan() throws Exception {
+        Random random = new Random(25);
+        for (double density : new double[] {0.9, 1.2, 2.0}) {
+            int n = 3000;
+            CsrGraph.Builder builder = new CsrGraph.Builder(n, "edge");
+            for (int e = 0; e < density * n; e++) {
+                builder.addEdge(random.nextInt(n), random.nextInt(n), 1);
+            }
+            CsrGraph g = builder.build();
+            int[] expected = canonicalComponents(new TarjanSCC(g, new Metrics()).decompose());
+            for (Partition.Strategy strategy : Partition.Strategy.values()) {
+                Partition partition = Partition.of(g, 4, strategy);
+                try (ShardCluster cluster = ShardCluster.startThreads(partition, new Metrics())) {
+                    assertArrayEquals(expected, canonicalComponents(cluster.stronglyConnectedComponents()));
+                    assertFalse(cluster.isAcyclic());
+                    assertThrows(IllegalStateException.class, cluster::criticalPath);
+                }
+            }
+        }
+    }
+    
+    @Test
+    public void testPartitionedCriticalPathMatchesDAGShortestPath() throws Exception {
+        for (String model : new String[] {"edge", "node"}) {
+            CsrGraph dag = new WorkloadGenerator.Builder(4000, 16000)
+                .seed(25).layers(40).layerSpan(5).weightModel(model).weights(1, 50).build().toCsr();
+            long expected = new DAGShortestPath(dag, Metrics.NOOP).criticalPathLong().pathLength;
+            Metrics metrics = new Metrics();
+            try (ShardCluster cluster = ShardCluster.startThreads(Partition.of(dag, 5, Partition.Strategy.EDGE_CUT),
+                                                                  metrics)) {
+                assertTrue(cluster.isAcyclic());
+                DAGShortestPath.LongPathResult result = cluster.criticalPath();
+                assertEquals(expected, result.pathLength);
+                long length = "node".equals(model) ? dag.getNodeWeight(result.path.get(0)) : 0;
+                for (int i = 1; i < result.path.size(); i++) {
+                    int u = result.path.get(i - 1);
+                    int v = result.path.get(i);
+                    long best = Long.MIN_VALUE;
+                    for (int e = 0; e < dag.getOutDegree(u); e++) {
+                        if (dag.getTarget(u, e) == v) {
+                            best = Math.max(best, "node".equals(model) ? dag.getNodeWeight(v) : dag.getWeight(u, e));
+                        }
+                    }
+                    length += best;
+                }
+                assertEquals(expected, length);
+                
+                int[] order = cluster.topologicalOrder();
+                int[] position = new int[order.length];
+                for (int k = 0; k < order.length; k++) {
+                    position[order[k]] = k;
+                }
+                for (int u = 0; u < dag.getVertexCount(); u++) {
+                    for (int e = 0; e < dag.getOutDegree(u); e++) {
+                        assertTrue(position[u] < position[dag.getTarget(u, e)]);
+                    }
+                }
+                assertEquals(dag.getVertexCount(), cluster.stronglyConnectedComponents().getComponentCount());
+            }
+            assertTrue(metrics.get("partition_rounds") > 1);
+            assertTrue(metrics.get("boundary_messages") > 0);
+        }
+        
+        // A self-loop is a cycle even though its component is a singleton
+        Graph loop = new Graph(4, "edge");
+        loop.addEdge(0, 1, 2);
+        loop.addEdge(1, 1, 1);
+        loop.addEdge(1, 2, 3);
+        loop.addEdge(2, 3, 4);
+        assertThrows(IllegalStateException.class, () -> new DAGShortestPath(loop, Metrics.NOOP).criticalPathLong());
+        try (ShardCluster cluster = ShardCluster.startThreads(Partition.of(loop, 2, Partition.Strategy.VERTEX_RANGE),
+                                                              new Metrics())) {
+            assertFalse(cluster.isAcyclic());
+            assertThrows(IllegalStateException.class, cluster::criticalPath);
+            assertThrows(IllegalStateException.class, cluster::topologicalOrder);
+            assertEquals(4, cluster.stronglyConnectedComponents().getComponentCount());
+        }
+    }
+    
+    @Test
+    public void testShardWorkersRunAsProcesses() throws Exception {
+        Graph g = new Graph(8, "edge");
+        g.addEdge(0, 1, 3);
+        g.addEdge(1, 4, 2);
+        g.addEdge(4, 5, 7);
+        g.addEdge(5, 0, 1); // cycle 0-1-4-5 crosses both shards
+        g.addEdge(2, 3, 1);
+        g.addEdge(6, 7, 4);
+        Partition partition = Partition.of(g, 2, Partition.Strategy.VERTEX_RANGE);
+        assertEquals(2, partition.getShardCount());
+        assertTrue(partition.getCutEdgeCount() >= 2);
+        try (ShardCluster cluster = ShardCluster.startProcesses(partition, new Metrics(), "-Xmx64m")) {
+            assertArrayEquals(canonicalComponents(new TarjanSCC(g, new Metrics()).decompose()),
+                              canonicalComponents(cluster.stronglyConnectedComponents()));
+        }
+        
+        g.removeEdge(5, 0);
+        try (ShardCluster cluster = ShardCluster.startProcesses(Partition.of(g, 2, Partition.Strategy.VERTEX_RANGE),
+                                                                new Metrics(), "-Xmx64m")) {
+            assertEquals(new DAGShortestPath(g, Metrics.NOOP).criticalPathLong().pathLength,
+                         cluster.criticalPath().pathLength);
+            assertEquals(List.of(0, 1, 4, 5), cluster.criticalPath().path);
+        }
+    }
 }